@@ -0,0 +1,99 @@
+package org.example;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.Getter;
+import org.example.auth.AuthService;
+import org.example.auth.PasswordHasher;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.repository.CompanyUserRepository;
+import org.example.repository.InvoiceNumberSequenceRepository;
+import org.example.repository.InvoiceRepository;
+import org.example.repository.UserRepository;
+import org.example.service.ClientImportService;
+import org.example.service.ClientSearchIndex;
+import org.example.service.ClientService;
+import org.example.service.CompanyAuthorizer;
+import org.example.service.CompanyService;
+import org.example.service.CompanyUserService;
+import org.example.service.InvoiceExportService;
+import org.example.service.InvoiceImportService;
+import org.example.service.InvoiceNumberAllocator;
+import org.example.service.InvoiceService;
+import org.example.service.InvoiceStatisticsCache;
+import org.example.service.OptimisticRetryExecutor;
+import org.example.service.OverdueInvoiceScheduler;
+import org.example.service.UserService;
+import org.example.util.JpaUtil;
+
+/*
+Repositories and services of one application instance, wired once for every front end (CliApp,
+ApiServer). Pieces that must be shared to work, such as the retry counters, caches, the hashing
+pool and the membership cache, are created here exactly once.
+ */
+@Getter
+public class AppContext implements AutoCloseable {
+
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final CompanyUserRepository companyUserRepository;
+    private final ClientRepository clientRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    private final PasswordHasher passwordHasher;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final UserService userService;
+    private final AuthService authService;
+    private final CompanyAuthorizer companyAuthorizer;
+    private final CompanyService companyService;
+    private final CompanyUserService companyUserService;
+    private final ClientService clientService;
+    private final InvoiceService invoiceService;
+    private final InvoiceExportService invoiceExportService;
+    private final ClientImportService clientImportService;
+    private final InvoiceImportService invoiceImportService;
+    private final OverdueInvoiceScheduler overdueScheduler;
+
+    public AppContext() {
+        EntityManagerFactory emf = JpaUtil.getEntityManagerFactory();
+        this.userRepository = new UserRepository(emf);
+        this.companyRepository = new CompanyRepository(emf);
+        this.companyUserRepository = new CompanyUserRepository(emf);
+        // listings may be served by the read replica when one is configured
+        EntityManagerFactory readEmf = JpaUtil.getReadEntityManagerFactory();
+        this.clientRepository = new ClientRepository(emf, readEmf);
+        this.invoiceRepository = new InvoiceRepository(emf, readEmf);
+
+        // one bounded pool for all BCrypt work, so sign-in bursts cannot take every core
+        this.passwordHasher = new PasswordHasher();
+        this.userService = new UserService(userRepository, companyUserRepository, passwordHasher);
+        this.authService = new AuthService(userRepository, userService, passwordHasher);
+        // one executor so the conflict/retry counters cover all services
+        this.retryExecutor = new OptimisticRetryExecutor();
+        InvoiceStatisticsCache statisticsCache = new InvoiceStatisticsCache();
+        // shared so membership changes made through either service are seen by every check
+        this.companyAuthorizer = new CompanyAuthorizer(companyUserRepository);
+        this.companyService = new CompanyService(companyRepository, companyUserRepository, userRepository, retryExecutor,
+            companyAuthorizer);
+        this.companyUserService = new CompanyUserService(userRepository, companyUserRepository, companyRepository,
+            companyAuthorizer);
+        ClientSearchIndex clientSearchIndex = new ClientSearchIndex(clientRepository);
+        this.clientService = new ClientService(clientRepository, companyRepository, retryExecutor, clientSearchIndex);
+        InvoiceNumberAllocator numberAllocator = new InvoiceNumberAllocator(new InvoiceNumberSequenceRepository(emf));
+        this.invoiceService = new InvoiceService(invoiceRepository, companyRepository, clientRepository,
+            numberAllocator, retryExecutor, statisticsCache);
+
+        this.invoiceExportService = new InvoiceExportService(invoiceRepository);
+        this.clientImportService = new ClientImportService(clientRepository, companyRepository, clientSearchIndex);
+        this.invoiceImportService = new InvoiceImportService(invoiceRepository, companyRepository, clientRepository,
+            numberAllocator, statisticsCache);
+        this.overdueScheduler = new OverdueInvoiceScheduler(invoiceRepository, statisticsCache);
+        overdueScheduler.start();
+    }
+
+    @Override
+    public void close() {
+        overdueScheduler.close();
+        passwordHasher.close();
+    }
+}
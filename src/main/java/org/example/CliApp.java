@@ -1,6 +1,5 @@
 package org.example;
 
-import jakarta.persistence.EntityManagerFactory;
 import org.example.entity.client.ClientDTO;
 import org.example.entity.company.*;
 import org.example.entity.client.CreateClientDTO;
@@ -9,21 +8,30 @@ import org.example.entity.invoice.*;
 import org.example.entity.user.CreateUserDTO;
 import org.example.entity.user.UserDTO;
 import org.example.exception.AuthenticationException;
+import org.example.exception.AuthorizationException;
 import org.example.exception.BusinessRuleException;
+import org.example.exception.CapacityExceededException;
+import org.example.exception.ConcurrentUpdateException;
 import org.example.exception.EntityNotFoundException;
+import org.example.exception.PersistenceException;
 import org.example.exception.ValidationException;
 import org.example.repository.*;
 import org.example.service.*;
 import org.example.auth.AuthService;
-import org.example.util.JpaUtil;
+import org.example.auth.AuthSession;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * CLI Application for Invoice Management System
@@ -37,19 +45,21 @@ import java.util.UUID;
  * as it's being worked on in a different branch.
  */
 public class CliApp {
-    private final EntityManagerFactory emf;
-    private final UserRepository userRepository;
-    private final CompanyRepository companyRepository;
-    private final CompanyUserRepository companyUserRepository;
+    private static final int INVOICE_PAGE_SIZE = 20;
+    private static final int CLIENT_SEARCH_LIMIT = 10;
+
     private final ClientRepository clientRepository;
-    private final InvoiceRepository invoiceRepository;
 
     private final UserService userService;
     private final AuthService authService;
     private final CompanyService companyService;
     private final CompanyUserService companyUserService;
+    private final CompanyAuthorizer companyAuthorizer;
     private final ClientService clientService;
     private final InvoiceService invoiceService;
+    private final InvoiceExportService invoiceExportService;
+    private final ClientImportService clientImportService;
+    private final InvoiceImportService invoiceImportService;
 
     private final Scanner scanner;
 
@@ -58,23 +68,26 @@ public class CliApp {
     private UUID currentCompanyId;
     private UserDTO currentUser;
     private CompanyDTO currentCompany;
+    private String sessionToken;
 
     public CliApp() {
-        this.emf = JpaUtil.getEntityManagerFactory();
-        this.scanner = new Scanner(System.in);
+        this(new AppContext());
+    }
 
-        this.userRepository = new UserRepository(emf);
-        this.companyRepository = new CompanyRepository(emf);
-        this.companyUserRepository = new CompanyUserRepository(emf);
-        this.clientRepository = new ClientRepository(emf);
-        this.invoiceRepository = new InvoiceRepository(emf);
-
-        this.userService = new UserService(userRepository, companyUserRepository);
-        this.authService = new AuthService(userRepository, userService);
-        this.companyService = new CompanyService(companyRepository, companyUserRepository, userRepository);
-        this.companyUserService = new CompanyUserService(userRepository, companyUserRepository, companyRepository);
-        this.clientService = new ClientService(clientRepository, companyRepository);
-        this.invoiceService = new InvoiceService(invoiceRepository, companyRepository, clientRepository);
+    public CliApp(AppContext context) {
+        this.scanner = new Scanner(System.in);
+        this.clientRepository = context.getClientRepository();
+
+        this.userService = context.getUserService();
+        this.authService = context.getAuthService();
+        this.companyAuthorizer = context.getCompanyAuthorizer();
+        this.companyService = context.getCompanyService();
+        this.companyUserService = context.getCompanyUserService();
+        this.clientService = context.getClientService();
+        this.invoiceService = context.getInvoiceService();
+        this.invoiceExportService = context.getInvoiceExportService();
+        this.clientImportService = context.getClientImportService();
+        this.invoiceImportService = context.getInvoiceImportService();
     }
 
     public void run() {
@@ -147,12 +160,14 @@ public class CliApp {
         String password = readPassword();
 
         try {
-            currentUser = authService.authenticate(email, password);
+            AuthSession session = authService.login(email, password);
+            sessionToken = session.token();
+            currentUser = session.user();
             currentUserId = currentUser.id();
             System.out.println("✓ Login successful! Welcome, " + currentUser.firstName() + " " + currentUser.lastName());
             return true;
 
-        } catch (AuthenticationException e) {
+        } catch (AuthenticationException | CapacityExceededException e) {
             System.out.println("✗ Login failed: " + e.getMessage());
             return false;
         }
@@ -175,6 +190,7 @@ public class CliApp {
             CreateUserDTO dto = new CreateUserDTO(firstName, lastName, email, password);
             currentUser = userService.register(dto);
             currentUserId = currentUser.id();
+            sessionToken = authService.openSession(currentUser).token();
             System.out.println("✓ Registration successful! Welcome, " + currentUser.firstName() + " " + currentUser.lastName());
             return true;
 
@@ -214,6 +230,7 @@ public class CliApp {
                         System.out.println("Account deleted. Exiting...");
                         currentUserId = null;
                         currentUser = null;
+                        sessionToken = null;
                         currentCompany = null;
                         currentCompanyId = null;
                         return false;
@@ -352,6 +369,12 @@ public class CliApp {
 
     private void mainMenu() {
         while (true) {
+            if (!hasCompanyAccess()) {
+                if (setupCompany()) {
+                    continue;
+                }
+                return;
+            }
             System.out.println("\n=== Main Menu ===");
             System.out.println("Current Company: " + currentCompany.name() + " (" + currentCompany.orgNum() + ")");
             System.out.println("1. Client Management");
@@ -378,6 +401,8 @@ public class CliApp {
                 }
                 case 6 -> {
                     System.out.println("Logging out...");
+                    authService.logout(sessionToken);
+                    sessionToken = null;
                     return;
                 }
                 default -> System.out.println("Invalid choice.");
@@ -387,13 +412,18 @@ public class CliApp {
 
     private void clientMenu() {
         while (true) {
+            if (!hasCompanyAccess()) {
+                return;
+            }
             System.out.println("\n--- Client Management ---");
             System.out.println("1. List Clients");
             System.out.println("2. Create Client");
             System.out.println("3. Update Client");
             System.out.println("4. Delete Client");
-            System.out.println("5. Back to Main Menu");
-            System.out.print("Choose option (1-5): ");
+            System.out.println("5. Import Clients from CSV");
+            System.out.println("6. Search Clients");
+            System.out.println("7. Back to Main Menu");
+            System.out.print("Choose option (1-7): ");
 
             int choice = readInt();
 
@@ -402,12 +432,83 @@ public class CliApp {
                 case 2 -> createClient();
                 case 3 -> updateClient();
                 case 4 -> deleteClient();
-                case 5 -> { return; }
+                case 5 -> importClients();
+                case 6 -> searchClients();
+                case 7 -> { return; }
                 default -> System.out.println("Invalid choice.");
             }
         }
     }
 
+    private void importClients() {
+        System.out.println("\n--- Import Clients ---");
+        System.out.println("Columns: first_name, last_name, email, address, city, country, phone_number (email required)");
+        System.out.print("CSV file: ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            System.out.println("✗ No file given.");
+            return;
+        }
+
+        try {
+            ClientImportResult result = clientImportService.importClients(currentCompanyId, Path.of(input).toAbsolutePath());
+            System.out.printf("✓ Imported %d clients in %d ms (%.0f rows/s)%n",
+                result.imported(), result.elapsed().toMillis(), result.rowsPerSecond());
+            if (result.resumedFrom() > 0) {
+                System.out.println("  Resumed after " + result.resumedFrom() + " records from a previous run");
+            }
+            if (result.rejected() > 0) {
+                System.out.println("  " + result.rejected() + " rows rejected:");
+                result.errors().stream().limit(20).forEach(error ->
+                    System.out.println("    line " + error.line() + ": " + error.message()));
+            }
+        } catch (ValidationException | EntityNotFoundException e) {
+            System.out.println("✗ Import failed: " + e.getMessage());
+        } catch (PersistenceException e) {
+            System.out.println("✗ Import failed: " + e.getMessage());
+            System.out.println("  Committed rows are kept, run the import again to continue from the checkpoint.");
+        }
+    }
+
+    private void searchClients() {
+        System.out.print("\nSearch (name, email or city): ");
+        List<ClientDTO> clients = clientService.searchClients(currentCompanyId, scanner.nextLine(), CLIENT_SEARCH_LIMIT);
+        if (clients.isEmpty()) {
+            System.out.println("No matching clients.");
+            return;
+        }
+        for (ClientDTO client : clients) {
+            System.out.println("  " + client.firstName() + " " + client.lastName() + " | " + client.email()
+                + " | " + client.city() + " | " + client.id());
+        }
+    }
+
+    // Lets the operator narrow down the company's clients by search and pick one, null when cancelled
+    private ClientDTO selectClient() {
+        while (true) {
+            System.out.print("Search client (name, email or city, blank to cancel): ");
+            String query = scanner.nextLine().trim();
+            if (query.isEmpty()) {
+                return null;
+            }
+            List<ClientDTO> clients = clientService.searchClients(currentCompanyId, query, CLIENT_SEARCH_LIMIT);
+            if (clients.isEmpty()) {
+                System.out.println("No matching clients.");
+                continue;
+            }
+            for (int i = 0; i < clients.size(); i++) {
+                ClientDTO client = clients.get(i);
+                System.out.println((i + 1) + ". " + client.firstName() + " " + client.lastName()
+                    + " | " + client.email() + " | " + client.city());
+            }
+            System.out.print("Select client number (0 to search again): ");
+            int clientIndex = readInt() - 1;
+            if (clientIndex >= 0 && clientIndex < clients.size()) {
+                return clients.get(clientIndex);
+            }
+        }
+    }
+
     private void listClients() {
         try {
             List<ClientDTO> clients = clientService.getClientsByCompany(currentCompanyId);
@@ -531,7 +632,8 @@ public class CliApp {
                 address.isEmpty() ? null : address,
                 country.isEmpty() ? null : country,
                 city.isEmpty() ? null : city,
-                phoneNumber.isEmpty() ? null : phoneNumber
+                phoneNumber.isEmpty() ? null : phoneNumber,
+                client.getVersion()
             );
 
             ClientDTO updated = clientService.updateClient(updateDto);
@@ -540,7 +642,7 @@ public class CliApp {
             System.out.println("  Name: " + updated.firstName() + " " + updated.lastName());
         } catch (IllegalArgumentException e) {
             System.out.println("✗ Invalid ID format. Please enter a valid UUID.");
-        } catch (EntityNotFoundException e) {
+        } catch (EntityNotFoundException | ConcurrentUpdateException e) {
             System.out.println("✗ Client update failed: " + e.getMessage());
         }
     }
@@ -585,14 +687,21 @@ public class CliApp {
 
     private void invoiceMenu() {
         while (true) {
+            if (!hasCompanyAccess()) {
+                return;
+            }
             System.out.println("\n--- Invoice Management ---");
             System.out.println("1. List Invoices");
             System.out.println("2. Create Invoice");
             System.out.println("3. Update Invoice Status");
             System.out.println("4. Invoice Items");
             System.out.println("5. Delete Invoice");
-            System.out.println("6. Back to Main Menu");
-            System.out.print("Choose option (1-6): ");
+            System.out.println("6. Invoice Statistics");
+            System.out.println("7. Export Invoices to CSV");
+            System.out.println("8. Import Invoices from CSV");
+            System.out.println("9. Search Invoices");
+            System.out.println("10. Back to Main Menu");
+            System.out.print("Choose option (1-10): ");
 
             int choice = readInt();
 
@@ -602,57 +711,192 @@ public class CliApp {
                 case 3 -> updateInvoiceStatus();
                 case 4 -> invoiceItemMenu();
                 case 5 -> deleteInvoice();
-                case 6 -> { return; }
+                case 6 -> showInvoiceStatistics();
+                case 7 -> exportInvoices();
+                case 8 -> importInvoices();
+                case 9 -> searchInvoices();
+                case 10 -> { return; }
                 default -> System.out.println("Invalid choice.");
             }
         }
     }
 
-    private void listInvoices() {
+    private void showInvoiceStatistics() {
+        System.out.println("\n--- Invoice Statistics ---");
+
+        List<InvoiceStatusTotals> byStatus = invoiceService.getStatusTotals(currentCompanyId);
+        if (byStatus.isEmpty()) {
+            System.out.println("There are currently no invoices under this company");
+            return;
+        }
+        System.out.println("By status:");
+        byStatus.forEach(t -> System.out.println(
+            "  " + t.status() + " | " + t.count() + " invoices | " + t.amount() + " | VAT " + t.vatAmount()));
+
+        YearMonth thisMonth = YearMonth.now();
+        System.out.println("Last 12 months:");
+        invoiceService.getMonthlyTotals(currentCompanyId, thisMonth.minusMonths(11), thisMonth).forEach(t -> System.out.println(
+            "  " + t.yearMonth() + " | " + t.count() + " invoices | " + t.amount() + " | VAT " + t.vatAmount()));
+
+        System.out.println("By client:");
+        invoiceService.getClientTotals(currentCompanyId).forEach(t -> System.out.println(
+            "  " + t.clientName() + " | " + t.count() + " invoices | " + t.amount() + " | VAT " + t.vatAmount()));
+    }
+
+    private void exportInvoices() {
+        String defaultFile = "invoices-" + currentCompany.orgNum() + ".csv";
+        System.out.print("File name (" + defaultFile + "): ");
+        String input = scanner.nextLine().trim();
+        Path target = Path.of(input.isEmpty() ? defaultFile : input).toAbsolutePath();
+
         try {
-            List<InvoiceDTO> invoices = invoiceService.getInvoicesByCompany(currentCompanyId);
-            if (invoices.isEmpty()) {
-                System.out.println("There are currently no invoices under this company");
+            ExportResult result = invoiceExportService.exportCompanyInvoices(currentCompanyId, target);
+            System.out.printf("✓ Exported %d invoices (%d rows) to %s in %d ms (%.0f rows/s)%n",
+                result.invoices(), result.rows(), result.file(), result.elapsed().toMillis(), result.rowsPerSecond());
+        } catch (PersistenceException e) {
+            System.out.println("✗ Export failed: " + e.getMessage());
+        }
+    }
+
+    private void importInvoices() {
+        System.out.println("\n--- Import Invoices ---");
+        System.out.println("Same layout as the export, one row per invoice line; clients are matched by email.");
+        System.out.print("CSV file: ");
+        String input = scanner.nextLine().trim();
+        if (input.isEmpty()) {
+            System.out.println("✗ No file given.");
+            return;
+        }
+
+        try {
+            InvoiceImportResult result = invoiceImportService.importInvoices(currentCompanyId, Path.of(input).toAbsolutePath());
+            System.out.printf("✓ Imported %d invoices (%d lines) in %d ms (%.0f invoices/s)%n",
+                result.invoices(), result.lines(), result.elapsed().toMillis(), result.invoicesPerSecond());
+            if (result.rejected() > 0) {
+                System.out.println("  " + result.rejected() + " invoices rejected:");
+                result.errors().stream().limit(20).forEach(error ->
+                    System.out.println("    line " + error.line() + ": " + error.message()));
             }
-            invoices.forEach(System.out::println);
+        } catch (ValidationException | EntityNotFoundException | PersistenceException e) {
+            System.out.println("✗ Import failed: " + e.getMessage());
+        }
+    }
+
+    private void listInvoices() {
+        try {
+            String pageToken = null;
+            do {
+                KeysetPage<InvoiceSummary> page = invoiceService.getInvoiceSummariesByCompany(currentCompanyId, pageToken, INVOICE_PAGE_SIZE);
+                if (page.items().isEmpty()) {
+                    System.out.println("There are currently no invoices under this company");
+                    return;
+                }
+                page.items().forEach(inv -> System.out.println(
+                    inv.number() + " | " + inv.status() + " | " + inv.clientName() + " | " + inv.amount()
+                        + " | due " + inv.dueDate() + " | " + inv.itemCount() + " items"));
+                pageToken = page.nextPageToken();
+            } while (pageToken != null && askForNextPage());
         } catch (EntityNotFoundException e) {
             System.out.println("✗ Failed to list invoices: " + e.getMessage());
         }
     }
 
-    private void createInvoice() {
+    private void searchInvoices() {
+        System.out.println("\n--- Search Invoices ---");
+        System.out.println("Leave a filter blank to skip it.");
         try {
-            System.out.println("\n--- Create Invoice ---");
+            InvoiceSearchCriteria.InvoiceSearchCriteriaBuilder criteria = InvoiceSearchCriteria.builder()
+                .companyId(currentCompanyId);
+
+            System.out.print("Statuses, comma separated (" + Arrays.toString(InvoiceStatus.values()) + "): ");
+            String statuses = scanner.nextLine().trim();
+            if (!statuses.isEmpty()) {
+                criteria.statuses(Arrays.stream(statuses.split(","))
+                    .map(status -> InvoiceStatus.valueOf(status.trim().toUpperCase()))
+                    .collect(Collectors.toSet()));
+            }
 
+            System.out.print("Filter by client? (y/n): ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                ClientDTO client = selectClient();
+                if (client == null) {
+                    return;
+                }
+                criteria.clientId(client.id());
+            }
 
-            List<ClientDTO> clients = clientService.getClientsByCompany(currentCompanyId);
+            System.out.print("Due from (yyyy-MM-dd): ");
+            String dueFrom = scanner.nextLine().trim();
+            if (!dueFrom.isEmpty()) {
+                criteria.dueFrom(LocalDate.parse(dueFrom).atStartOfDay());
+            }
+            System.out.print("Due until, inclusive (yyyy-MM-dd): ");
+            String dueUntil = scanner.nextLine().trim();
+            if (!dueUntil.isEmpty()) {
+                criteria.dueBefore(LocalDate.parse(dueUntil).plusDays(1).atStartOfDay());
+            }
 
-            if (clients.isEmpty()) {
-                System.out.println("No clients found for this company, please create a client first");
-                return;
+            System.out.print("Minimum amount: ");
+            String minAmount = scanner.nextLine().trim();
+            if (!minAmount.isEmpty()) {
+                criteria.minAmount(new BigDecimal(minAmount));
+            }
+            System.out.print("Maximum amount: ");
+            String maxAmount = scanner.nextLine().trim();
+            if (!maxAmount.isEmpty()) {
+                criteria.maxAmount(new BigDecimal(maxAmount));
             }
 
-            for (int i = 0; i < clients.size(); i++) {
-                ClientDTO client = clients.get(i);
-                System.out.println((i + 1) + ".");
-                System.out.println("  ID: " + client.id());
-                System.out.println("  Name: " + client.firstName() + " " + client.lastName());
-                System.out.println("  Email: " + client.email());
-                System.out.println("  City: " + client.city());
-                System.out.println("  ---");
+            System.out.print("Number starts with: ");
+            criteria.numberPrefix(scanner.nextLine());
+
+            System.out.print("Sort by (" + Arrays.toString(InvoiceSort.values()) + ", default NEWEST): ");
+            String sort = scanner.nextLine().trim();
+            if (!sort.isEmpty()) {
+                criteria.sort(InvoiceSort.valueOf(sort.toUpperCase()));
             }
 
-            System.out.print("Select client number: ");
-            int clientIndex = readInt() - 1;
+            InvoiceSearchCriteria search = criteria.build();
+            String pageToken = null;
+            do {
+                KeysetPage<InvoiceSummary> page = invoiceService.searchInvoices(search, pageToken, INVOICE_PAGE_SIZE);
+                if (page.items().isEmpty() && pageToken == null) {
+                    System.out.println("No invoices match.");
+                    return;
+                }
+                page.items().forEach(inv -> System.out.println(
+                    inv.number() + " | " + inv.status() + " | " + inv.clientName() + " | " + inv.amount()
+                        + " | due " + inv.dueDate() + " | " + inv.itemCount() + " items"));
+                pageToken = page.nextPageToken();
+            } while (pageToken != null && askForNextPage());
+        } catch (DateTimeParseException e) {
+            System.out.println("✗ Invalid date, use yyyy-MM-dd");
+        } catch (NumberFormatException e) {
+            System.out.println("✗ Invalid amount");
+        } catch (IllegalArgumentException e) {
+            System.out.println("✗ Unknown status or sort order");
+        } catch (ValidationException e) {
+            System.out.println("✗ Search failed: " + e.getMessage());
+        }
+    }
+
+    private boolean askForNextPage() {
+        System.out.print("Show more? (y/n): ");
+        return scanner.nextLine().trim().equalsIgnoreCase("y");
+    }
+
+    private void createInvoice() {
+        try {
+            System.out.println("\n--- Create Invoice ---");
+
 
-            if (clientIndex < 0 || clientIndex >= clients.size()) {
-                System.out.println("Invalid client selection");
+            ClientDTO selectedClient = selectClient();
+            if (selectedClient == null) {
+                System.out.println("No client selected");
                 return;
             }
 
-            ClientDTO selectedClient = clients.get(clientIndex);
-
-            System.out.print("Invoice Number: ");
+            System.out.print("Invoice Number (leave blank to generate): ");
             String invoiceNumber = scanner.nextLine().trim();
 
             System.out.print("Due date (yyyy-MM-dd): ");
@@ -677,9 +921,9 @@ public class CliApp {
                 items
             );
 
-            invoiceService.createInvoice(dto);
+            InvoiceDTO created = invoiceService.createInvoice(dto);
 
-            System.out.println("✓ Invoice created");
+            System.out.println("✓ Invoice created: " + created.number());
         }catch (java.time.format.DateTimeParseException e) {
             System.out.println("✗ Invalid date format. Please use yyyy-MM-dd.");
         } catch (BusinessRuleException e) {
@@ -739,6 +983,9 @@ public class CliApp {
 
     private void invoiceItemMenu() {
         while (true) {
+            if (!hasCompanyAccess()) {
+                return;
+            }
             System.out.println("\n--- Invoice Items ---");
             System.out.println("1. List Invoice Items");
             System.out.println("2. Add Invoice Item");
@@ -790,11 +1037,11 @@ public class CliApp {
                 .build()
             );
 
-            invoiceService.updateInvoice(new UpdateInvoiceDTO(invoice.id(), null, updated, null));
+            invoiceService.updateInvoice(new UpdateInvoiceDTO(invoice.id(), null, updated, null, invoice.version()));
             System.out.println("✓ Invoice item added");
         } catch (NumberFormatException e) {
             System.out.println("✗ Invalid price format.");
-        } catch (EntityNotFoundException e) {
+        } catch (EntityNotFoundException | ConcurrentUpdateException e) {
             System.out.println("✗ Failed to add item: " + e.getMessage());
         }
     }
@@ -835,12 +1082,12 @@ public class CliApp {
                     : i)
                 .toList();
 
-            invoiceService.updateInvoice(new UpdateInvoiceDTO(invoice.id(), null, updated, null));
+            invoiceService.updateInvoice(new UpdateInvoiceDTO(invoice.id(), null, updated, null, invoice.version()));
             System.out.println("✓ Invoice item updated");
 
         } catch (NumberFormatException e) {
             System.out.println("✗ Invalid price format. Please use numbers.");
-        } catch (EntityNotFoundException e) {
+        } catch (EntityNotFoundException | ConcurrentUpdateException e) {
             System.out.println("✗ Update failed: " + e.getMessage());
         } catch (ValidationException e) {
             System.out.println("✗ Validation error: " + e.getMessage());
@@ -875,10 +1122,10 @@ public class CliApp {
                 .filter(i -> !i.id().equals(item.id()))
                 .toList();
 
-            invoiceService.updateInvoice(new UpdateInvoiceDTO(invoice.id(), null, updated, null));
+            invoiceService.updateInvoice(new UpdateInvoiceDTO(invoice.id(), null, updated, null, invoice.version()));
             System.out.println("✓ Invoice item removed");
 
-        } catch (EntityNotFoundException e) {
+        } catch (EntityNotFoundException | ConcurrentUpdateException e) {
             System.out.println("✗ Removal failed: " + e.getMessage());
         } catch (BusinessRuleException e) {
             System.out.println("✗ Rule violation: " + e.getMessage());
@@ -907,31 +1154,50 @@ public class CliApp {
     }
 
     private InvoiceDTO selectInvoice() {
-        List<InvoiceDTO> invoices = invoiceService.getInvoicesByCompany(currentCompanyId);
+        String pageToken = null;
 
-        if (invoices.isEmpty()) {
-            System.out.println("No invoices found for this company.");
-            return null;
-        }
+        while (true) {
+            KeysetPage<InvoiceSummary> page = invoiceService.getInvoiceSummariesByCompany(currentCompanyId, pageToken, INVOICE_PAGE_SIZE);
+            List<InvoiceSummary> invoices = page.items();
 
-        for (int i = 0; i < invoices.size(); i++) {
-            InvoiceDTO inv = invoices.get(i);
-            System.out.println((i + 1) + ". " + inv.number() + " | " + inv.status() + " | " + inv.items().size() + " items");
-        }
+            if (invoices.isEmpty()) {
+                System.out.println("No invoices found for this company.");
+                return null;
+            }
 
-        System.out.print("Select invoice number: ");
-        int index = readInt() - 1;
+            for (int i = 0; i < invoices.size(); i++) {
+                InvoiceSummary inv = invoices.get(i);
+                System.out.println((i + 1) + ". " + inv.number() + " | " + inv.status() + " | " + inv.itemCount() + " items");
+            }
 
-        if (index < 0 || index >= invoices.size()) {
-            System.out.println("Invalid selection");
-            return null;
-        }
+            System.out.print(page.hasNext() ? "Select invoice number (0 for next page): " : "Select invoice number: ");
+            int choice = readInt();
+
+            if (choice == 0 && page.hasNext()) {
+                pageToken = page.nextPageToken();
+                continue;
+            }
 
-        return invoices.get(index);
+            int index = choice - 1;
+            if (index < 0 || index >= invoices.size()) {
+                System.out.println("Invalid selection");
+                return null;
+            }
+
+            // only the chosen invoice is loaded with its items
+            UUID invoiceId = invoices.get(index).id();
+            return invoiceService.getInvoiceById(invoiceId).orElseGet(() -> {
+                System.out.println("Invoice no longer exists.");
+                return null;
+            });
+        }
     }
 
     private void companyUserMenu() {
         while (true) {
+            if (!hasCompanyAccess()) {
+                return;
+            }
             System.out.println("\n--- Company Users ---");
             System.out.println("1. List Company Users");
             System.out.println("2. Add User to Company");
@@ -1034,6 +1300,9 @@ public class CliApp {
 
     private void companySettingsMenu() {
         while (true) {
+            if (!hasCompanyAccess()) {
+                return;
+            }
             System.out.println("\n--- Company Settings ---");
             System.out.println("Company: " + currentCompany.name());
             System.out.println("Org Num: " + currentCompany.orgNum());
@@ -1083,12 +1352,16 @@ public class CliApp {
                 name.isEmpty() ? null : name,
                 address.isEmpty() ? null : address,
                 city.isEmpty() ? null : city,
-                country.isEmpty() ? null : country
+                country.isEmpty() ? null : country,
+                currentCompany.version()
             );
 
             currentCompany = companyService.update(updateDto);
 
             System.out.println("✓ Company updated successfully!");
+        } catch (ConcurrentUpdateException e) {
+            currentCompany = CompanyDTO.fromEntity(companyService.getCompanyEntity(currentCompanyId));
+            System.out.println("✗ Company update failed: " + e.getMessage() + ". The current details have been reloaded.");
         } catch (Exception e) {
             System.out.println("✗ Company update failed: " + e.getMessage());
         }
@@ -1108,6 +1381,17 @@ public class CliApp {
         System.out.println("Updated: " + currentCompany.updatedAt());
     }
 
+    // Company-scoped menus check membership on every round, so losing access takes effect at once
+    private boolean hasCompanyAccess() {
+        try {
+            companyAuthorizer.requireMember(currentUserId, currentCompanyId);
+            return true;
+        } catch (AuthorizationException e) {
+            System.out.println("✗ " + e.getMessage());
+            return false;
+        }
+    }
+
     private int readInt() {
         try {
             String input = scanner.nextLine().trim();
@@ -13,10 +13,19 @@ import org.example.util.LogUtil;
 public class AuthService {
     private final UserRepository userRepository;
     private final UserService userService;
+    private final PasswordHasher passwordHasher;
+    private final SessionStore sessionStore;
 
     public AuthService(UserRepository userRepository, UserService userService) {
+        this(userRepository, userService, PasswordHasher.shared());
+    }
+
+    public AuthService(UserRepository userRepository, UserService userService, PasswordHasher passwordHasher) {
         this.userRepository = userRepository;
         this.userService = userService;
+        this.passwordHasher = passwordHasher;
+        // the user service revokes sessions when an account is deleted
+        this.sessionStore = userService.getSessionStore();
     }
 
     public UserDTO authenticate(String email, String password) {
@@ -30,7 +39,8 @@ public class AuthService {
                 return new AuthenticationException("Invalid email or password");
             });
 
-        if (!PasswordEncoder.matches(password, user.getPassword())) {
+        // runs on the bounded hashing pool, throws CapacityExceededException when it is saturated
+        if (!passwordHasher.matches(password, user.getPassword())) {
             log.debug(
                 "Authentication failed: invalid credentials for email={}",
                 LogUtil.maskEmail(email)
@@ -41,4 +51,27 @@ public class AuthService {
         log.info("Authentication successful for userId={}", user.getId());
         return UserDTO.fromEntity(user);
     }
+
+    // Checks the credentials once and opens a session; later calls present the token instead
+    public AuthSession login(String email, String password) {
+        return openSession(authenticate(email, password));
+    }
+
+    public AuthSession openSession(UserDTO user) {
+        return sessionStore.create(user);
+    }
+
+    public UserDTO resolve(String token) {
+        return sessionStore.resolve(token)
+            .map(AuthSession::user)
+            .orElseThrow(() -> new AuthenticationException("Session expired or invalid, please sign in again"));
+    }
+
+    public void logout(String token) {
+        sessionStore.revoke(token);
+    }
+
+    public PasswordHasherMetrics getHashingMetrics() {
+        return passwordHasher.getMetrics();
+    }
 }
@@ -0,0 +1,18 @@
+package org.example.auth;
+
+import org.example.entity.user.UserDTO;
+
+import java.time.Instant;
+
+/**
+ * A signed-in user. {@code token} is the opaque bearer token handed to the client; it identifies
+ * the session in {@link SessionStore} and carries no data itself.
+ */
+public record AuthSession(String token, UserDTO user, Instant createdAt) {
+
+    @Override
+    public String toString() {
+        // keeps the token out of logs
+        return "AuthSession[userId=" + user.id() + ", createdAt=" + createdAt + "]";
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.auth;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.CapacityExceededException;
+import org.example.util.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+Runs BCrypt hashing and verification on a small dedicated pool, so a burst of logins occupies at
+most `threads` cores instead of every caller thread and unrelated work keeps running. Requests
+beyond the pool wait in a bounded queue. When the queue is full a call fails at once with
+CapacityExceededException; a call without a result within the timeout (queue wait included) fails
+the same way, and if it was still queued its hash is never computed.
+
+The async methods return futures. The blocking ones wait on those futures, which is cheap on
+virtual threads: a virtual thread blocked on a future unmounts from its carrier, while BCrypt
+itself only ever runs on the pool's platform threads.
+
+Settings (system properties): auth.hash.threads (half the available processors, at least 1),
+auth.hash.queueSize (64), auth.hash.timeoutMillis (5000).
+ */
+@Slf4j
+public class PasswordHasher implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public PasswordHasher() {
+        this(
+            Integer.getInteger("auth.hash.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+            Integer.getInteger("auth.hash.queueSize", 64),
+            Duration.ofMillis(Long.getLong("auth.hash.timeoutMillis", 5_000))
+        );
+    }
+
+    public PasswordHasher(int threads, int queueSize, Duration timeout) {
+        if (threads < 1 || queueSize < 0) {
+            throw new IllegalArgumentException("threads must be positive and queueSize not negative");
+        }
+        this.timeout = timeout;
+        BlockingQueue<Runnable> queue = queueSize == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueSize);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Password hashing pool: {} threads, queue {}, timeout {} ms", threads, queueSize, timeout.toMillis());
+    }
+
+    // Process-wide pool for services constructed without one, so the CPU cap holds across all of them
+    public static PasswordHasher shared() {
+        return Shared.INSTANCE;
+    }
+
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        return submit(() -> PasswordEncoder.hash(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(String rawPassword, String hashedPassword) {
+        return submit(() -> PasswordEncoder.matches(rawPassword, hashedPassword));
+    }
+
+    public String hash(String rawPassword) {
+        return await(hashAsync(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String hashedPassword) {
+        return await(matchesAsync(rawPassword, hashedPassword));
+    }
+
+    public PasswordHasherMetrics getMetrics() {
+        return new PasswordHasherMetrics(
+            executor.getMaximumPoolSize(),
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            completed.sum(),
+            rejected.sum(),
+            timedOut.sum(),
+            latency.snapshot()
+        );
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long start = System.nanoTime();
+        CompletableFuture<T> task;
+        try {
+            task = CompletableFuture.supplyAsync(work, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.debug("Password hashing rejected, {} queued", executor.getQueue().size());
+            return CompletableFuture.failedFuture(
+                new CapacityExceededException("Too many password checks in progress, try again shortly", e));
+        }
+
+        // a task completed by the timeout (or cancelled by the caller) is skipped if still queued
+        CompletableFuture<T> result = new CompletableFuture<>();
+        result.whenComplete((value, error) -> task.cancel(false));
+        task.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            if (error == null) {
+                completed.increment();
+                latency.recordNanos(System.nanoTime() - start);
+                result.complete(value);
+            } else if (error instanceof TimeoutException) {
+                timedOut.increment();
+                result.completeExceptionally(new CapacityExceededException(
+                    "Password check did not finish within " + timeout.toMillis() + " ms", error));
+            } else {
+                result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Shared {
+        private static final PasswordHasher INSTANCE = new PasswordHasher();
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.auth;
+
+import org.example.util.LatencySnapshot;
+
+/**
+ * State and counters of a {@link PasswordHasher} since startup.
+ *
+ * @param threads   size of the hashing pool
+ * @param active    hashes running right now
+ * @param queued    hashes waiting for a pool thread
+ * @param completed hashes finished, matching or not
+ * @param rejected  calls refused because the queue was full
+ * @param timedOut  calls that gave up waiting, whether queued or running
+ * @param latency   time from submission to result, queue wait included
+ */
+public record PasswordHasherMetrics(
+    int threads,
+    int active,
+    int queued,
+    long completed,
+    long rejected,
+    long timedOut,
+    LatencySnapshot latency
+) {}
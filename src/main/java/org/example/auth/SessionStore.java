@@ -0,0 +1,101 @@
+package org.example.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.user.UserDTO;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/*
+In-memory sessions for authenticated users. A token is 32 bytes from SecureRandom, URL-safe
+Base64 encoded, and means nothing by itself: resolving it is a single cache lookup, with no
+database access and no BCrypt.
+
+Expiry slides: a session ends once it has not been resolved for idleTimeout. The store holds at
+most maxSessions; past that the least recently used sessions are dropped and those users sign in
+again. Sessions are local to this process, so they end on restart and are not shared between
+instances.
+
+Settings (system properties): auth.session.idleMinutes (30), auth.session.maxSessions (100000).
+ */
+@Slf4j
+public class SessionStore {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Clock clock;
+    private final Cache<String, AuthSession> sessions;
+
+    public SessionStore() {
+        this(
+            Duration.ofMinutes(Long.getLong("auth.session.idleMinutes", 30)),
+            Long.getLong("auth.session.maxSessions", 100_000)
+        );
+    }
+
+    public SessionStore(Duration idleTimeout, long maxSessions) {
+        this(idleTimeout, maxSessions, Ticker.systemTicker(), Clock.systemUTC());
+    }
+
+    SessionStore(Duration idleTimeout, long maxSessions, Ticker ticker, Clock clock) {
+        this.clock = clock;
+        this.sessions = Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .maximumSize(maxSessions)
+            .ticker(ticker)
+            .build();
+    }
+
+    public AuthSession create(UserDTO user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        AuthSession session = new AuthSession(token, user, clock.instant());
+        sessions.put(token, session);
+        log.debug("Session opened for userId={}", user.id());
+        return session;
+    }
+
+    // Resolving a session also extends it
+    public Optional<AuthSession> resolve(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(sessions.getIfPresent(token));
+    }
+
+    public void revoke(String token) {
+        if (token != null) {
+            sessions.invalidate(token);
+        }
+    }
+
+    /*
+    Ends every session of the user. Scans all sessions, which is fine for something as rare as
+    deleting an account and spares keeping a second index in step with expiry and eviction.
+     */
+    public int revokeUser(UUID userId) {
+        List<String> tokens = sessions.asMap().values().stream()
+            .filter(session -> session.user().id().equals(userId))
+            .map(AuthSession::token)
+            .toList();
+        sessions.invalidateAll(tokens);
+        log.debug("Revoked {} sessions of userId={}", tokens.size(), userId);
+        return tokens.size();
+    }
+
+    public long size() {
+        sessions.cleanUp();
+        return sessions.estimatedSize();
+    }
+}
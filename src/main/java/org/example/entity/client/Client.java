@@ -2,7 +2,10 @@ package org.example.entity.client;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.UuidV7;
 import org.example.entity.company.Company;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -10,6 +13,8 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 @Table(name = "clients")
 @Getter
 @Setter
@@ -20,11 +25,11 @@ import java.util.UUID;
 public class Client {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(optional = false)
-    @JoinColumn(name = "company_id", nullable = false)
+    @JoinColumn(name = "company_id", nullable = false, foreignKey = @ForeignKey(name = "fk_clients_company"))
     private Company company;
 
     @Column(name = "first_name")
@@ -47,6 +52,10 @@ public class Client {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 
     public static Client fromDTO(CreateClientDTO dto, Company company) {
         return Client.builder()
@@ -17,7 +17,8 @@ public record ClientDTO (
     String city,
     String phoneNumber,
     LocalDateTime createdAt,
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    Long version
 
 ){
 
@@ -35,6 +36,7 @@ public record ClientDTO (
             .phoneNumber(client.getPhoneNumber())
             .createdAt(client.getCreatedAt())
             .updatedAt(client.getUpdatedAt())
+            .version(client.getVersion())
             .build();
     }
 }
@@ -10,6 +10,7 @@ public record UpdateClientDTO(
     String address,
     String country,
     String city,
-    String phoneNumber
+    String phoneNumber,
+    Long expectedVersion
 ) {
 }
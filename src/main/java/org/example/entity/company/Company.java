@@ -2,8 +2,11 @@ package org.example.entity.company;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.UuidV7;
 import org.example.entity.client.Client;
 import org.example.entity.invoice.Invoice;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,6 +16,8 @@ import java.util.Set;
 import java.util.UUID;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company")
 @Table(name = "companies")
 @Getter
 @Setter
@@ -25,7 +30,7 @@ public class Company {
 
     @Id
     @EqualsAndHashCode.Include
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     @Column(nullable = false, updatable = false)
     private UUID id;
 
@@ -51,6 +56,10 @@ public class Company {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "company", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private Set<Client> clients = new HashSet<>();
@@ -16,7 +16,8 @@ public record CompanyDTO(
     String city,
     String country,
     LocalDateTime createdAt,
-    LocalDateTime updatedAt
+    LocalDateTime updatedAt,
+    Long version
 ) {
     public static CompanyDTO fromEntity(Company company) {
         return CompanyDTO.builder()
@@ -30,6 +31,7 @@ public record CompanyDTO(
             .country(company.getCountry())
             .createdAt(company.getCreatedAt())
             .updatedAt(company.getUpdatedAt())
+            .version(company.getVersion())
             .build();
     }
 }
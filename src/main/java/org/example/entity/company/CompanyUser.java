@@ -3,8 +3,12 @@ package org.example.entity.company;
 import jakarta.persistence.*;
 import lombok.*;
 import org.example.entity.user.User;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "company-user")
 @Table(name = "company_user")
 @Getter
 @Setter
@@ -18,13 +22,13 @@ public class CompanyUser {
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @MapsId("userId")
-    @JoinColumn(name = "user_id", nullable = false)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_company_user_user"))
     @ToString.Exclude
     private User user;
 
     @ManyToOne(optional = false)
     @MapsId("companyId")
-    @JoinColumn(name = "company_id", nullable = false)
+    @JoinColumn(name = "company_id", nullable = false, foreignKey = @ForeignKey(name = "fk_company_user_company"))
     @ToString.Exclude
     private Company company;
 
@@ -9,5 +9,6 @@ public record UpdateCompanyDTO(
     String name,
     String address,
     String city,
-    String country
+    String country,
+    Long expectedVersion
 ) {}
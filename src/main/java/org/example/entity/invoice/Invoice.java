@@ -2,6 +2,7 @@ package org.example.entity.invoice;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.UuidV7;
 import org.example.entity.company.Company;
 import org.example.entity.client.Client;
 import org.hibernate.annotations.CreationTimestamp;
@@ -12,7 +13,8 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Entity
-@Table (name="invoices")
+@Table (name="invoices", uniqueConstraints = @UniqueConstraint(
+    name = "uk_invoices_company_number", columnNames = {"company_id", "number"}))
 @Getter
 @Setter
 @Builder
@@ -22,18 +24,18 @@ import java.util.*;
 public class Invoice {
 
     @Id
-    @GeneratedValue (strategy= GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(optional = false)
-    @JoinColumn(name = "company_id", nullable = false)
+    @JoinColumn(name = "company_id", nullable = false, foreignKey = @ForeignKey(name = "fk_invoices_company"))
     private Company company;
 
     @ManyToOne(optional = false)
-    @JoinColumn(name = "client_id", nullable = false)
+    @JoinColumn(name = "client_id", nullable = false, foreignKey = @ForeignKey(name = "fk_invoices_client"))
     private Client client;
 
-    @Column (name= "number", nullable = false, unique = true)
+    @Column (name= "number", nullable = false)
     private String number;
 
     @Column(name= "amount", nullable = false, precision = 19, scale = 2)
@@ -50,6 +52,11 @@ public class Invoice {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    // optimistic locking: an update based on a stale read fails instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<InvoiceItem> invoiceItems = new ArrayList<>();
 
@@ -59,7 +66,7 @@ public class Invoice {
     public void addItem(InvoiceItem item) {
         invoiceItems.add(item);
         item.setInvoice(this);
-        recalcTotals();
+        amount = (amount == null ? BigDecimal.ZERO : amount).add(item.lineTotal());
     }
 
     public void clearItems() {
@@ -67,9 +74,39 @@ public class Invoice {
         recalcTotals();
     }
 
+    /*
+    Reconciles the lines with the given list instead of clearing and re-adding them:
+    lines with a known id are updated in place, missing ones are removed (orphanRemoval)
+    and lines without id are added. Unchanged lines produce no SQL at all.
+     */
+    public void replaceItems(List<InvoiceItemDTO> items) {
+        Map<UUID, InvoiceItemDTO> existing = new HashMap<>();
+        List<InvoiceItemDTO> added = new ArrayList<>();
+        Set<UUID> currentIds = new HashSet<>();
+        invoiceItems.forEach(item -> currentIds.add(item.getId()));
+
+        for (InvoiceItemDTO dto : items) {
+            if (dto.id() != null && currentIds.contains(dto.id())) {
+                existing.put(dto.id(), dto);
+            } else {
+                added.add(dto);
+            }
+        }
+
+        invoiceItems.removeIf(item -> !existing.containsKey(item.getId()));
+        invoiceItems.forEach(item -> {
+            InvoiceItemDTO dto = existing.get(item.getId());
+            item.setQuantity(dto.quantity());
+            item.setUnitPrice(dto.unitPrice());
+        });
+        added.forEach(dto -> addItem(InvoiceItem.fromDTO(dto)));
+
+        recalcTotals();
+    }
+
     public void recalcTotals() {
         amount = invoiceItems.stream()
-            .map(i -> i.getUnitPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
+            .map(InvoiceItem::lineTotal)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
@@ -86,15 +123,9 @@ public class Invoice {
             .build();
 
         if (dto.items() != null) {
-            dto.items().forEach(itemDTO -> {
-                InvoiceItem item = new InvoiceItem();
-                item.setQuantity(itemDTO.quantity());
-                item.setUnitPrice(itemDTO.unitPrice());
-                invoice.addItem(item);
-            });
+            dto.items().forEach(itemDTO -> invoice.addItem(InvoiceItem.fromDTO(itemDTO)));
         }
 
-        invoice.recalcTotals();
         return invoice;
     }
 }
@@ -0,0 +1,20 @@
+package org.example.entity.invoice;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/*
+Invoice count and sums of a company per client.
+ */
+public record InvoiceClientTotals(
+    UUID clientId,
+    String clientName,
+    Long count,
+    BigDecimal amount,
+    BigDecimal vatAmount
+) {
+    public InvoiceClientTotals {
+        amount = amount == null ? BigDecimal.ZERO : amount;
+        vatAmount = vatAmount == null ? BigDecimal.ZERO : vatAmount;
+    }
+}
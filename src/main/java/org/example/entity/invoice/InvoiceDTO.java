@@ -17,7 +17,8 @@ public record InvoiceDTO(
     LocalDateTime dueDate,
     LocalDateTime createdAt,
     InvoiceStatus status,
-    List<InvoiceItemDTO> items
+    List<InvoiceItemDTO> items,
+    Long version
 ) {
     public static InvoiceDTO fromEntity(Invoice invoice) {
         List<InvoiceItemDTO> itemDTOs = invoice.getInvoiceItems().stream()
@@ -34,6 +35,7 @@ public record InvoiceDTO(
             .createdAt(invoice.getCreatedAt())
             .status(invoice.getStatus())
             .items(itemDTOs)
+            .version(invoice.getVersion())
             .build();
     }
 }
@@ -0,0 +1,24 @@
+package org.example.entity.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/*
+One line of the CSV export: an invoice line together with its invoice and client columns.
+An invoice without lines gives a single row with the line columns null.
+Built by a constructor expression, so exporting never loads entities into the persistence context.
+ */
+public record InvoiceExportRow(
+    UUID invoiceId,
+    String number,
+    InvoiceStatus status,
+    LocalDateTime createdAt,
+    LocalDateTime dueDate,
+    String clientName,
+    String clientEmail,
+    BigDecimal amount,
+    BigDecimal vatAmount,
+    Integer quantity,
+    BigDecimal unitPrice
+) {}
@@ -3,6 +3,7 @@ package org.example.entity.invoice;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.example.entity.UuidV7;
 
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -17,11 +18,11 @@ import java.util.UUID;
 public class InvoiceItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(optional = false)
-    @JoinColumn(name = "invoice_id", nullable = false)
+    @JoinColumn(name = "invoice_id", nullable = false, foreignKey = @ForeignKey(name = "fk_invoice_items_invoice"))
     private Invoice invoice;
 
     @Column (name= "quantity", nullable = false)
@@ -29,4 +30,15 @@ public class InvoiceItem {
 
     @Column ( name= "unit_price", nullable = false)
     private BigDecimal unitPrice;
+
+    public BigDecimal lineTotal() {
+        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    public static InvoiceItem fromDTO(InvoiceItemDTO dto) {
+        InvoiceItem item = new InvoiceItem();
+        item.setQuantity(dto.quantity());
+        item.setUnitPrice(dto.unitPrice());
+        return item;
+    }
 }
@@ -0,0 +1,24 @@
+package org.example.entity.invoice;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/*
+Invoice count and sums of a company for one calendar month of the invoice creation date.
+ */
+public record InvoiceMonthlyTotals(
+    Integer year,
+    Integer month,
+    Long count,
+    BigDecimal amount,
+    BigDecimal vatAmount
+) {
+    public InvoiceMonthlyTotals {
+        amount = amount == null ? BigDecimal.ZERO : amount;
+        vatAmount = vatAmount == null ? BigDecimal.ZERO : vatAmount;
+    }
+
+    public YearMonth yearMonth() {
+        return YearMonth.of(year, month);
+    }
+}
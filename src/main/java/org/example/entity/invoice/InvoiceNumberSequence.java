@@ -0,0 +1,27 @@
+package org.example.entity.invoice;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/*
+Counter row per company for invoice numbers. Application instances lease blocks of
+numbers from it (see InvoiceNumberAllocator) instead of touching it for every invoice.
+ */
+@Entity
+@Table(name = "invoice_number_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceNumberSequence {
+
+    @Id
+    @Column(name = "company_id", nullable = false, updatable = false)
+    private UUID companyId;
+
+    // first number not yet handed out to any instance
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+}
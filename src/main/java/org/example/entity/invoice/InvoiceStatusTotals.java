@@ -0,0 +1,19 @@
+package org.example.entity.invoice;
+
+import java.math.BigDecimal;
+
+/*
+Invoice count and sums for one status of a company, computed with GROUP BY in InvoiceRepository.
+ */
+public record InvoiceStatusTotals(
+    InvoiceStatus status,
+    Long count,
+    BigDecimal amount,
+    BigDecimal vatAmount
+) {
+    public InvoiceStatusTotals {
+        // SUM over only NULL values is NULL
+        amount = amount == null ? BigDecimal.ZERO : amount;
+        vatAmount = vatAmount == null ? BigDecimal.ZERO : vatAmount;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.entity.invoice;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/*
+Read model for invoice lists. Built directly by a constructor expression in
+InvoiceRepository, so no Invoice, InvoiceItem, Company or Client entity is loaded.
+ */
+public record InvoiceSummary(
+    UUID id,
+    String number,
+    InvoiceStatus status,
+    BigDecimal amount,
+    LocalDateTime dueDate,
+    String clientName,
+    Long itemCount,
+    LocalDateTime createdAt
+) {}
@@ -8,5 +8,6 @@ public record UpdateInvoiceDTO(
     UUID invoiceId,
     LocalDateTime dueDate,
     List<InvoiceItemDTO> items,
-    InvoiceStatus status
+    InvoiceStatus status,
+    Long expectedVersion
 ) {}
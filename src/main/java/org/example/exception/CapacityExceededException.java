@@ -0,0 +1,11 @@
+package org.example.exception;
+
+public class CapacityExceededException extends RuntimeException {
+    public CapacityExceededException(String message) {
+        super(message);
+    }
+
+    public CapacityExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
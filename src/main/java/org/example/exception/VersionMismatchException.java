@@ -0,0 +1,12 @@
+package org.example.exception;
+
+/*
+The caller edited an older version of the record than the one stored. Unlike other concurrent
+updates this is not retried: every attempt would compare against the same stale version.
+ */
+public class VersionMismatchException extends ConcurrentUpdateException {
+    public VersionMismatchException(String entityName, Object identifier, long expectedVersion, long actualVersion) {
+        super(String.format("%s %s was changed by someone else (expected version %d, found %d)",
+            entityName, identifier, expectedVersion, actualVersion));
+    }
+}
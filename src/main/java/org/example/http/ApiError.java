@@ -0,0 +1,6 @@
+package org.example.http;
+
+/**
+ * JSON body of every error response.
+ */
+public record ApiError(int status, String error) {}
@@ -0,0 +1,24 @@
+package org.example.http;
+
+/*
+An HTTP-level failure with its own status code (unknown route, wrong method, unreadable body).
+Failures raised by the services are mapped to status codes in ApiServer.
+ */
+class ApiException extends RuntimeException {
+
+    private final int status;
+
+    ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    ApiException(int status, String message, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+    }
+
+    int status() {
+        return status;
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.http;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface ApiHandler {
+    ApiResponse handle(ApiRequest request) throws IOException;
+}
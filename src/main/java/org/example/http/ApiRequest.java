@@ -0,0 +1,148 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import org.example.auth.AuthService;
+import org.example.entity.user.UserDTO;
+import org.example.exception.AuthenticationException;
+import org.example.exception.ValidationException;
+import org.example.service.CompanyAuthorizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+One API call as seen by an endpoint: path and query parameters, the JSON body, and the caller.
+The caller is resolved from the "Authorization: Bearer <token>" header through the session store,
+so an authenticated call costs no database access; companyId() additionally checks membership.
+ */
+public final class ApiRequest {
+
+    private static final String BEARER = "Bearer ";
+
+    private final HttpExchange exchange;
+    private final Map<String, String> pathParams;
+    private final Map<String, String> queryParams;
+    private final ObjectMapper mapper;
+    private final AuthService authService;
+    private final CompanyAuthorizer companyAuthorizer;
+    private final int maxBodyBytes;
+    private UserDTO user;
+
+    ApiRequest(HttpExchange exchange, Map<String, String> pathParams, ObjectMapper mapper, AuthService authService,
+               CompanyAuthorizer companyAuthorizer, int maxBodyBytes) {
+        this.exchange = exchange;
+        this.pathParams = pathParams;
+        this.queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+        this.mapper = mapper;
+        this.authService = authService;
+        this.companyAuthorizer = companyAuthorizer;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    public String path(String name) {
+        return pathParams.get(name);
+    }
+
+    public UUID pathId(String name) {
+        return parseId(name, path(name));
+    }
+
+    public String query(String name) {
+        String value = queryParams.get(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    public int queryInt(String name, int defaultValue) {
+        String value = query(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(name + " must be a whole number");
+        }
+    }
+
+    public <T> T body(Class<T> type) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(maxBodyBytes + 1);
+        }
+        if (body.length > maxBodyBytes) {
+            throw new ApiException(413, "Request body is larger than " + maxBodyBytes + " bytes");
+        }
+        if (body.length == 0) {
+            throw new ValidationException("Request body is required");
+        }
+        try {
+            return mapper.readValue(body, type);
+        } catch (JacksonException e) {
+            throw new ApiException(400, "Malformed JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    public String bearerToken() {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        return header.substring(BEARER.length()).trim();
+    }
+
+    // The signed-in caller, AuthenticationException (401) without a valid session
+    public UserDTO user() {
+        if (user == null) {
+            String token = bearerToken();
+            if (token == null) {
+                throw new AuthenticationException("Missing bearer token");
+            }
+            user = authService.resolve(token);
+        }
+        return user;
+    }
+
+    // The {companyId} of the path, after checking that the caller belongs to that company
+    public UUID companyId() {
+        UUID companyId = pathId("companyId");
+        companyAuthorizer.requireMember(user().id(), companyId);
+        return companyId;
+    }
+
+    static UUID parseId(String name, String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new ValidationException(name + " is not a valid id");
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            params.putIfAbsent(decode(key), decode(value));
+        }
+        return params;
+    }
+
+    private static String decode(String component) {
+        try {
+            return URLDecoder.decode(component, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Query string is not correctly encoded", e);
+        }
+    }
+}
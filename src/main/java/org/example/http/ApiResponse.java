@@ -0,0 +1,34 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * What an endpoint returns: a status with a body serialized as JSON, or a status with a
+ * {@code stream} that writes the body piece by piece (chunked) for listings that should not be
+ * built in memory. A null body without a stream means no content.
+ */
+public record ApiResponse(int status, Object body, JsonStream stream) {
+
+    @FunctionalInterface
+    public interface JsonStream {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+    public static ApiResponse ok(Object body) {
+        return new ApiResponse(200, body, null);
+    }
+
+    public static ApiResponse created(Object body) {
+        return new ApiResponse(201, body, null);
+    }
+
+    public static ApiResponse noContent() {
+        return new ApiResponse(204, null, null);
+    }
+
+    public static ApiResponse stream(JsonStream stream) {
+        return new ApiResponse(200, null, stream);
+    }
+}
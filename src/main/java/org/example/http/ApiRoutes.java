@@ -0,0 +1,369 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.example.AppContext;
+import org.example.auth.AuthSession;
+import org.example.entity.client.Client;
+import org.example.entity.client.ClientDTO;
+import org.example.entity.client.CreateClientDTO;
+import org.example.entity.client.UpdateClientDTO;
+import org.example.entity.company.CompanyDTO;
+import org.example.entity.company.CreateCompanyDTO;
+import org.example.entity.company.UpdateCompanyDTO;
+import org.example.entity.invoice.CreateInvoiceDTO;
+import org.example.entity.invoice.InvoiceDTO;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.invoice.InvoiceSummary;
+import org.example.entity.user.CreateUserDTO;
+import org.example.entity.user.UserDTO;
+import org.example.exception.EntityNotFoundException;
+import org.example.exception.ValidationException;
+import org.example.repository.InvoiceSearchCriteria;
+import org.example.repository.InvoiceSort;
+import org.example.repository.KeysetPage;
+import org.example.service.ClientSearchIndex;
+import org.example.service.InvoiceService;
+import org.example.util.JpaUtil;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/*
+The endpoints. Everything under /api/companies/{companyId} requires a session of a member of that
+company (ApiRequest.companyId()); a client or invoice id from another company is answered with 404,
+as if it did not exist, so ids of other companies cannot be probed.
+ */
+final class ApiRoutes {
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    private final AppContext context;
+    private final ApiServer server;
+
+    private ApiRoutes(AppContext context, ApiServer server) {
+        this.context = context;
+        this.server = server;
+    }
+
+    static Router create(AppContext context, ApiServer server) {
+        ApiRoutes api = new ApiRoutes(context, server);
+        return new Router()
+            .get("/metrics", api::metrics)
+
+            .post("/api/auth/register", api::register)
+            .post("/api/auth/login", api::login)
+            .post("/api/auth/logout", api::logout)
+
+            .get("/api/companies", api::listCompanies)
+            .post("/api/companies", api::createCompany)
+            .get("/api/companies/{companyId}", api::getCompany)
+            .put("/api/companies/{companyId}", api::updateCompany)
+
+            .get("/api/companies/{companyId}/clients", api::listClients)
+            .get("/api/companies/{companyId}/clients/search", api::searchClients)
+            .post("/api/companies/{companyId}/clients", api::createClient)
+            .put("/api/companies/{companyId}/clients/{clientId}", api::updateClient)
+            .delete("/api/companies/{companyId}/clients/{clientId}", api::deleteClient)
+
+            .get("/api/companies/{companyId}/invoices", api::searchInvoices)
+            .get("/api/companies/{companyId}/invoices/stream", api::streamInvoices)
+            .get("/api/companies/{companyId}/invoices/export", api::exportInvoices)
+            .get("/api/companies/{companyId}/invoices/statistics", api::invoiceStatistics)
+            .get("/api/companies/{companyId}/invoices/{invoiceId}", api::getInvoice)
+            .post("/api/companies/{companyId}/invoices", api::createInvoice)
+            .put("/api/companies/{companyId}/invoices/{invoiceId}/status", api::updateInvoiceStatus)
+            .delete("/api/companies/{companyId}/invoices/{invoiceId}", api::deleteInvoice);
+    }
+
+    record LoginRequest(String email, String password) {
+    }
+
+    record SessionResponse(String token, UserDTO user) {
+        static SessionResponse of(AuthSession session) {
+            return new SessionResponse(session.token(), session.user());
+        }
+    }
+
+    record StatusUpdate(InvoiceStatus status) {
+    }
+
+    // ---------- Auth ----------
+
+    private ApiResponse register(ApiRequest request) throws IOException {
+        UserDTO user = context.getUserService().register(request.body(CreateUserDTO.class));
+        return ApiResponse.created(SessionResponse.of(context.getAuthService().openSession(user)));
+    }
+
+    private ApiResponse login(ApiRequest request) throws IOException {
+        LoginRequest login = request.body(LoginRequest.class);
+        return ApiResponse.ok(SessionResponse.of(context.getAuthService().login(login.email(), login.password())));
+    }
+
+    private ApiResponse logout(ApiRequest request) {
+        String token = request.bearerToken();
+        if (token != null) {
+            context.getAuthService().logout(token);
+        }
+        return ApiResponse.noContent();
+    }
+
+    // ---------- Companies ----------
+
+    private ApiResponse listCompanies(ApiRequest request) {
+        return ApiResponse.ok(context.getCompanyUserService().getUserCompanies(request.user().id()).stream()
+            .map(companyUser -> CompanyDTO.fromEntity(companyUser.getCompany()))
+            .toList());
+    }
+
+    private ApiResponse createCompany(ApiRequest request) throws IOException {
+        UUID userId = request.user().id();
+        return ApiResponse.created(context.getCompanyService().create(userId, request.body(CreateCompanyDTO.class)));
+    }
+
+    private ApiResponse getCompany(ApiRequest request) {
+        return ApiResponse.ok(CompanyDTO.fromEntity(context.getCompanyService().getCompanyEntity(request.companyId())));
+    }
+
+    private ApiResponse updateCompany(ApiRequest request) throws IOException {
+        UUID companyId = request.companyId();
+        UpdateCompanyDTO dto = request.body(UpdateCompanyDTO.class);
+        return ApiResponse.ok(context.getCompanyService().update(new UpdateCompanyDTO(companyId, dto.email(),
+            dto.phoneNumber(), dto.name(), dto.address(), dto.city(), dto.country(), dto.expectedVersion())));
+    }
+
+    // ---------- Clients ----------
+
+    private ApiResponse listClients(ApiRequest request) {
+        return ApiResponse.ok(context.getClientService().getClientsByCompany(request.companyId()));
+    }
+
+    private ApiResponse searchClients(ApiRequest request) {
+        UUID companyId = request.companyId();
+        String query = request.query("q");
+        if (query == null) {
+            throw new ValidationException("q is required");
+        }
+        int limit = request.queryInt("limit", DEFAULT_SEARCH_LIMIT);
+        if (limit < 1 || limit > ClientSearchIndex.MAX_RESULTS) {
+            throw new ValidationException("limit must be between 1 and " + ClientSearchIndex.MAX_RESULTS);
+        }
+        return ApiResponse.ok(context.getClientService().searchClients(companyId, query, limit));
+    }
+
+    private ApiResponse createClient(ApiRequest request) throws IOException {
+        UUID companyId = request.companyId();
+        CreateClientDTO dto = request.body(CreateClientDTO.class);
+        return ApiResponse.created(context.getClientService().createClient(new CreateClientDTO(companyId,
+            dto.firstName(), dto.lastName(), dto.email(), dto.address(), dto.country(), dto.city(), dto.phoneNumber())));
+    }
+
+    private ApiResponse updateClient(ApiRequest request) throws IOException {
+        UUID clientId = requireClient(request.companyId(), request.pathId("clientId"));
+        UpdateClientDTO dto = request.body(UpdateClientDTO.class);
+        ClientDTO updated = context.getClientService().updateClient(new UpdateClientDTO(clientId, dto.firstName(),
+            dto.lastName(), dto.email(), dto.address(), dto.country(), dto.city(), dto.phoneNumber(), dto.expectedVersion()));
+        return ApiResponse.ok(updated);
+    }
+
+    private ApiResponse deleteClient(ApiRequest request) {
+        UUID clientId = requireClient(request.companyId(), request.pathId("clientId"));
+        context.getClientService().deleteClient(clientId);
+        return ApiResponse.noContent();
+    }
+
+    private UUID requireClient(UUID companyId, UUID clientId) {
+        Client client = context.getClientService().findById(clientId)
+            .filter(found -> found.getCompany().getId().equals(companyId))
+            .orElseThrow(() -> new EntityNotFoundException("Client", clientId));
+        return client.getId();
+    }
+
+    // ---------- Invoices ----------
+
+    /*
+    Query parameters: status (comma separated), clientId, dueFrom and dueTo (dates, both inclusive),
+    minAmount, maxAmount, number (prefix), sort (newest, oldest, due_date, largest, number),
+    pageSize and pageToken from the previous page.
+     */
+    private ApiResponse searchInvoices(ApiRequest request) {
+        InvoiceSearchCriteria.InvoiceSearchCriteriaBuilder criteria = InvoiceSearchCriteria.builder()
+            .companyId(request.companyId())
+            .numberPrefix(request.query("number"));
+        String statuses = request.query("status");
+        if (statuses != null) {
+            criteria.statuses(Arrays.stream(statuses.split(","))
+                .map(status -> parseEnum(InvoiceStatus.class, "status", status))
+                .collect(Collectors.toSet()));
+        }
+        String clientId = request.query("clientId");
+        if (clientId != null) {
+            criteria.clientId(ApiRequest.parseId("clientId", clientId));
+        }
+        LocalDate dueFrom = parseDate(request, "dueFrom");
+        if (dueFrom != null) {
+            criteria.dueFrom(dueFrom.atStartOfDay());
+        }
+        LocalDate dueTo = parseDate(request, "dueTo");
+        if (dueTo != null) {
+            criteria.dueBefore(dueTo.plusDays(1).atStartOfDay());
+        }
+        criteria.minAmount(parseAmount(request, "minAmount"));
+        criteria.maxAmount(parseAmount(request, "maxAmount"));
+        String sort = request.query("sort");
+        if (sort != null) {
+            criteria.sort(parseEnum(InvoiceSort.class, "sort", sort));
+        }
+        return ApiResponse.ok(context.getInvoiceService().searchInvoices(criteria.build(), request.query("pageToken"),
+            request.queryInt("pageSize", DEFAULT_PAGE_SIZE)));
+    }
+
+    /*
+    Every invoice of the company as one JSON array, newest first. Read page by page through the
+    keyset listing and flushed after each page, so neither side holds the whole list.
+     */
+    private ApiResponse streamInvoices(ApiRequest request) {
+        UUID companyId = request.companyId();
+        return ApiResponse.stream(json -> {
+            json.writeStartArray();
+            String pageToken = null;
+            do {
+                if (Thread.currentThread().isInterrupted()) {
+                    // cut off by the stream timeout, the array is left open so the caller sees it is incomplete
+                    throw new InterruptedIOException("Invoice stream cut off");
+                }
+                KeysetPage<InvoiceSummary> page = context.getInvoiceService()
+                    .getInvoiceSummariesByCompany(companyId, pageToken, InvoiceService.MAX_PAGE_SIZE);
+                for (InvoiceSummary summary : page.items()) {
+                    json.writePOJO(summary);
+                }
+                json.flush();
+                pageToken = page.nextPageToken();
+            } while (pageToken != null);
+            json.writeEndArray();
+        });
+    }
+
+    // The CSV export rows as a JSON array, read through the same scrolling cursor as the file export
+    private ApiResponse exportInvoices(ApiRequest request) {
+        UUID companyId = request.companyId();
+        return ApiResponse.stream(json -> {
+            json.writeStartArray();
+            try {
+                context.getInvoiceExportService().streamCompanyInvoices(companyId, row -> write(json, row));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            json.writeEndArray();
+        });
+    }
+
+    private static void write(JsonGenerator json, Object value) {
+        try {
+            json.writePOJO(value);
+        } catch (IOException e) {
+            // the caller went away, abort the cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ApiResponse invoiceStatistics(ApiRequest request) {
+        UUID companyId = request.companyId();
+        YearMonth to = YearMonth.now();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("byStatus", context.getInvoiceService().getStatusTotals(companyId));
+        statistics.put("byMonth", context.getInvoiceService().getMonthlyTotals(companyId, to.minusMonths(11), to));
+        statistics.put("byClient", context.getInvoiceService().getClientTotals(companyId));
+        return ApiResponse.ok(statistics);
+    }
+
+    private ApiResponse getInvoice(ApiRequest request) {
+        return ApiResponse.ok(requireInvoice(request.companyId(), request.pathId("invoiceId")));
+    }
+
+    private ApiResponse createInvoice(ApiRequest request) throws IOException {
+        UUID companyId = request.companyId();
+        CreateInvoiceDTO dto = request.body(CreateInvoiceDTO.class);
+        if (dto.clientId() == null) {
+            throw new ValidationException("clientId is required");
+        }
+        requireClient(companyId, dto.clientId());
+        return ApiResponse.created(context.getInvoiceService().createInvoice(new CreateInvoiceDTO(companyId,
+            dto.clientId(), dto.number(), dto.dueDate(), dto.items())));
+    }
+
+    private ApiResponse updateInvoiceStatus(ApiRequest request) throws IOException {
+        UUID invoiceId = requireInvoice(request.companyId(), request.pathId("invoiceId")).id();
+        StatusUpdate update = request.body(StatusUpdate.class);
+        if (update.status() == null) {
+            throw new ValidationException("status is required");
+        }
+        context.getInvoiceService().updateStatus(invoiceId, update.status());
+        return ApiResponse.noContent();
+    }
+
+    private ApiResponse deleteInvoice(ApiRequest request) {
+        UUID invoiceId = requireInvoice(request.companyId(), request.pathId("invoiceId")).id();
+        context.getInvoiceService().deleteById(invoiceId);
+        return ApiResponse.noContent();
+    }
+
+    private InvoiceDTO requireInvoice(UUID companyId, UUID invoiceId) {
+        return context.getInvoiceService().getInvoiceById(invoiceId)
+            .filter(invoice -> invoice.companyId().equals(companyId))
+            .orElseThrow(() -> new EntityNotFoundException("Invoice", invoiceId));
+    }
+
+    // ---------- Metrics ----------
+
+    // Pool sizes, error rates and endpoint names are not for anonymous callers
+    private ApiResponse metrics(ApiRequest request) {
+        request.user();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("endpoints", server.getEndpointMetrics());
+        metrics.put("hashing", context.getAuthService().getHashingMetrics());
+        metrics.put("retries", context.getInvoiceService().getRetryMetrics());
+        metrics.put("pool", JpaUtil.getPoolMetrics());
+        JpaUtil.getReplicaPoolMetrics().ifPresent(replica -> metrics.put("replicaPool", replica));
+        return ApiResponse.ok(metrics);
+    }
+
+    // ---------- Parsing ----------
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(name + " must be one of " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static LocalDate parseDate(ApiRequest request, String name) {
+        String value = request.query(name);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException(name + " must be a date (yyyy-mm-dd)");
+        }
+    }
+
+    private static BigDecimal parseAmount(ApiRequest request, String name) {
+        String value = request.query(name);
+        try {
+            return value == null ? null : new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(name + " must be a number");
+        }
+    }
+}
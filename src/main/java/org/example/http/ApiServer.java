@@ -0,0 +1,302 @@
+package org.example.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.AppContext;
+import org.example.exception.AuthenticationException;
+import org.example.exception.AuthorizationException;
+import org.example.exception.BusinessRuleException;
+import org.example.exception.CapacityExceededException;
+import org.example.exception.ConcurrentUpdateException;
+import org.example.exception.EntityNotFoundException;
+import org.example.exception.ValidationException;
+import org.example.repository.ReadRouting;
+import org.example.util.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+JSON over HTTP in front of the services, on the JDK's built-in HttpServer. Every exchange gets its
+own virtual thread, so a call blocked on the database or the hashing pool costs no platform
+thread and thousands can be in flight.
+
+The endpoint itself runs on a second virtual thread that the dispatcher waits on for at most the
+request timeout. A call that takes longer is answered with 503 and its thread is interrupted; a
+streamed response that is already under way is cut off instead, since its status has been sent.
+Streams get their own, longer limit. Each endpoint keeps a latency histogram and error counters,
+served at GET /metrics together with the pool, hashing and retry metrics, to signed-in callers only.
+
+Settings (system properties): api.host (127.0.0.1), api.port (8080), api.requestTimeoutMillis
+(10000), api.streamTimeoutMillis (120000), api.maxBodyBytes (1048576).
+ */
+@Slf4j
+public class ApiServer implements AutoCloseable {
+
+    private final AppContext context;
+    private final ObjectMapper mapper;
+    private final Router router;
+    private final Duration requestTimeout;
+    private final Duration streamTimeout;
+    private final int maxBodyBytes;
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService exchanges = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final HttpServer server;
+
+    public ApiServer(AppContext context, InetSocketAddress address) throws IOException {
+        this(context, address,
+            Duration.ofMillis(Long.getLong("api.requestTimeoutMillis", 10_000)),
+            Duration.ofMillis(Long.getLong("api.streamTimeoutMillis", 120_000)),
+            Integer.getInteger("api.maxBodyBytes", 1 << 20));
+    }
+
+    public ApiServer(AppContext context, InetSocketAddress address, Duration requestTimeout, Duration streamTimeout,
+                     int maxBodyBytes) throws IOException {
+        this.context = context;
+        this.requestTimeout = requestTimeout;
+        this.streamTimeout = streamTimeout;
+        this.maxBodyBytes = maxBodyBytes;
+        this.mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            // a stream that fails part way must not be closed into valid-looking JSON
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        this.router = ApiRoutes.create(context, this);
+        for (Router.Route route : router.routes()) {
+            stats.put(route.name(), new Stats());
+        }
+
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(exchanges);
+        server.createContext("/", this::dispatch);
+    }
+
+    public static void main(String[] args) throws IOException {
+        AppContext context = new AppContext();
+        InetSocketAddress address = new InetSocketAddress(
+            System.getProperty("api.host", "127.0.0.1"), Integer.getInteger("api.port", 8080));
+        ApiServer server = new ApiServer(context, address);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            context.close();
+        }, "api-shutdown"));
+        server.start();
+    }
+
+    public void start() {
+        server.start();
+        log.info("API listening on {} ({} endpoints, timeout {} ms)", server.getAddress(), router.routes().size(),
+            requestTimeout.toMillis());
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        workers.shutdownNow();
+        exchanges.shutdownNow();
+    }
+
+    public List<EndpointMetrics> getEndpointMetrics() {
+        return stats.entrySet().stream()
+            .map(entry -> entry.getValue().snapshot(entry.getKey()))
+            .sorted(Comparator.comparing(EndpointMetrics::endpoint))
+            .toList();
+    }
+
+    private void dispatch(HttpExchange exchange) {
+        long start = System.nanoTime();
+        Responder responder = new Responder(exchange);
+        String endpoint = null;
+        boolean timedOut = false;
+        try {
+            Router.Match match = router.match(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+            endpoint = match.route().name();
+            ApiRequest request = new ApiRequest(exchange, match.params(), mapper, context.getAuthService(),
+                context.getCompanyAuthorizer(), maxBodyBytes);
+            ApiHandler handler = match.route().handler();
+
+            Future<?> call = workers.submit(() -> {
+                try {
+                    // each call runs on a fresh thread, so the session is what ties a caller's writes to its reads
+                    ReadRouting.asCaller(request.bearerToken(), () -> {
+                        responder.send(handler.handle(request));
+                        return null;
+                    });
+                } catch (Exception e) {
+                    responder.fail(e);
+                }
+            });
+            try {
+                call.get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (responder.streaming.get()) {
+                    // headers are out, give a stream its own limit before cutting it off
+                    timedOut = !awaitStream(call);
+                } else {
+                    timedOut = true;
+                }
+                if (timedOut) {
+                    call.cancel(true);
+                    responder.timeout();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            responder.fail(e.getCause());
+        } catch (RuntimeException e) {
+            responder.fail(e);
+        } finally {
+            exchange.close();
+            if (endpoint != null) {
+                stats.get(endpoint).record(responder.status, timedOut, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private boolean awaitStream(Future<?> call) throws InterruptedException, ExecutionException {
+        try {
+            call.get(Math.max(0, streamTimeout.minus(requestTimeout).toMillis()), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    static ApiError toError(Throwable e) {
+        int status = switch (e) {
+            case ApiException api -> api.status();
+            case ValidationException ignored -> 400;
+            case AuthenticationException ignored -> 401;
+            case AuthorizationException ignored -> 403;
+            case EntityNotFoundException ignored -> 404;
+            case BusinessRuleException ignored -> 409;
+            case ConcurrentUpdateException ignored -> 409;
+            case CapacityExceededException ignored -> 503;
+            default -> 500;
+        };
+        // internal failures are logged, not shown to the caller
+        return new ApiError(status, status == 500 ? "Internal server error" : e.getMessage());
+    }
+
+    /*
+    Writes the one response of an exchange. The endpoint thread and the dispatcher (on timeout)
+    race for it; whoever claims it first answers and the other one backs off.
+     */
+    private final class Responder {
+        private final HttpExchange exchange;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final AtomicBoolean streaming = new AtomicBoolean();
+        private volatile int status;
+
+        private Responder(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        private void send(ApiResponse response) throws IOException {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            status = response.status();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (response.stream() != null) {
+                streaming.set(true);
+                exchange.sendResponseHeaders(response.status(), 0);
+                try (OutputStream out = exchange.getResponseBody();
+                     JsonGenerator json = mapper.createGenerator(out)) {
+                    response.stream().write(json);
+                }
+                return;
+            }
+            if (response.body() == null) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            write(response.status(), mapper.writeValueAsBytes(response.body()));
+        }
+
+        private void fail(Throwable e) {
+            ApiError error = toError(e);
+            if (error.status() == 500) {
+                log.error("{} {} failed", exchange.getRequestMethod(), exchange.getRequestURI().getPath(), e);
+            }
+            if (!claimed.compareAndSet(false, true)) {
+                // a stream broke after its status was sent, the truncated body is all the caller gets
+                if (streaming.get()) {
+                    status = 500;
+                    log.warn("Stream {} aborted: {}", exchange.getRequestURI().getPath(), e.toString());
+                }
+                return;
+            }
+            status = error.status();
+            try {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                write(error.status(), mapper.writeValueAsBytes(error));
+            } catch (IOException io) {
+                log.debug("Could not send error response: {}", io.toString());
+            }
+        }
+
+        private void timeout() {
+            log.warn("{} {} timed out", exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+            fail(new ApiException(503, "Request timed out"));
+            status = 503;
+        }
+
+        private void write(int status, byte[] body) throws IOException {
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static final class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+
+        private void record(int status, boolean timedOut, long nanos) {
+            latency.recordNanos(nanos);
+            if (timedOut) {
+                timeouts.increment();
+            }
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+        }
+
+        private EndpointMetrics snapshot(String endpoint) {
+            var snapshot = latency.snapshot();
+            return new EndpointMetrics(endpoint, snapshot.count(), clientErrors.sum(), serverErrors.sum(), timeouts.sum(),
+                snapshot);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.http;
+
+import org.example.util.LatencySnapshot;
+
+/**
+ * Counters and latency of one endpoint since startup.
+ *
+ * @param endpoint     method and path template, e.g. {@code GET /api/companies/{companyId}/invoices}
+ * @param requests     calls handled, including failed ones
+ * @param clientErrors calls answered with a 4xx status
+ * @param serverErrors calls answered with a 5xx status, timeouts included
+ * @param timeouts     calls cut off by the request timeout
+ * @param latency      time from dispatch until the response was complete
+ */
+public record EndpointMetrics(
+    String endpoint,
+    long requests,
+    long clientErrors,
+    long serverErrors,
+    long timeouts,
+    LatencySnapshot latency
+) {}
@@ -0,0 +1,91 @@
+package org.example.http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Maps method + path to an endpoint. Templates are literal segments and {name} placeholders, each
+placeholder matching exactly one path segment. Routes are tried in registration order, so a
+literal route (/invoices/stream) must be added before a placeholder route in the same position
+(/invoices/{invoiceId}).
+ */
+final class Router {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Za-z][A-Za-z0-9]*)}");
+
+    private final List<Route> routes = new ArrayList<>();
+
+    Router get(String template, ApiHandler handler) {
+        return add("GET", template, handler);
+    }
+
+    Router post(String template, ApiHandler handler) {
+        return add("POST", template, handler);
+    }
+
+    Router put(String template, ApiHandler handler) {
+        return add("PUT", template, handler);
+    }
+
+    Router delete(String template, ApiHandler handler) {
+        return add("DELETE", template, handler);
+    }
+
+    private Router add(String method, String template, ApiHandler handler) {
+        List<String> names = new ArrayList<>();
+        StringBuilder regex = new StringBuilder();
+        Matcher placeholder = PLACEHOLDER.matcher(template);
+        int last = 0;
+        while (placeholder.find()) {
+            regex.append(Pattern.quote(template.substring(last, placeholder.start()))).append("([^/]+)");
+            names.add(placeholder.group(1));
+            last = placeholder.end();
+        }
+        regex.append(Pattern.quote(template.substring(last)));
+        routes.add(new Route(method, template, Pattern.compile(regex.toString()), List.copyOf(names), handler));
+        return this;
+    }
+
+    /*
+    The matching route and its path parameters. A path that exists for other methods only is a 405,
+    a path that matches nothing a 404.
+     */
+    Match match(String method, String path) {
+        boolean pathMatched = false;
+        for (Route route : routes) {
+            Matcher matcher = route.pattern().matcher(path);
+            if (!matcher.matches()) {
+                continue;
+            }
+            if (!route.method().equals(method)) {
+                pathMatched = true;
+                continue;
+            }
+            Map<String, String> params = new HashMap<>();
+            for (int i = 0; i < route.params().size(); i++) {
+                params.put(route.params().get(i), matcher.group(i + 1));
+            }
+            return new Match(route, params);
+        }
+        throw pathMatched
+            ? new ApiException(405, "Method " + method + " not allowed on " + path)
+            : new ApiException(404, "No endpoint at " + path);
+    }
+
+    List<Route> routes() {
+        return List.copyOf(routes);
+    }
+
+    record Route(String method, String template, Pattern pattern, List<String> params, ApiHandler handler) {
+        String name() {
+            return method + " " + template;
+        }
+    }
+
+    record Match(Route route, Map<String, String> params) {
+    }
+}
@@ -2,36 +2,78 @@ package org.example.repository;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
 public abstract class BaseRepository <T, ID> {
 
     private final EntityManagerFactory emf;
+    // read replica for executeRead outside a UnitOfWork, null when all reads go to emf
+    private final EntityManagerFactory readEmf;
     protected final Class <T> entityClass;
 
     protected BaseRepository(EntityManagerFactory emf, Class<T> entityClass) {
+        this(emf, null, entityClass);
+    }
+
+    protected BaseRepository(EntityManagerFactory emf, EntityManagerFactory readEmf, Class<T> entityClass) {
         this.emf = emf;
+        this.readEmf = readEmf == emf ? null : readEmf;
         this.entityClass = entityClass;
     }
 
     protected <R> R runInTransaction(Function<EntityManager, R> dbOperation) {
+        EntityManager scoped = UnitOfWork.currentEntityManager(emf);
+        if (scoped != null) {
+            UnitOfWork.markWritten();
+            try {
+                return dbOperation.apply(scoped);
+            } catch (Exception e) {
+                UnitOfWork.markRollbackOnly();
+                throw PersistenceErrors.translate(e, "Transaction failed for " + entityClass.getSimpleName());
+            }
+        }
+
         EntityManager em = emf.createEntityManager();
         try {
             em.getTransaction().begin();
             R result = dbOperation.apply(em);
             em.getTransaction().commit();
+            ReadRouting.recordWrite();
             return result;
         } catch (Exception e) {
             if (em.getTransaction().isActive()) em.getTransaction().rollback();
-            throw new RuntimeException("Transaction failed for " + entityClass.getSimpleName(), e);
+            throw PersistenceErrors.translate(e, "Transaction failed for " + entityClass.getSimpleName());
         } finally {
             em.close();
         }
     }
 
+    /*
+    Reads inside a UnitOfWork use its EntityManager on the primary. Other reads go to the read
+    replica when one is configured and ReadRouting allows it, and fall back to the primary
+    when the replica cannot be reached.
+     */
     protected <R> R executeRead(Function<EntityManager, R> action) {
+        EntityManager scoped = UnitOfWork.currentEntityManager(emf);
+        if (scoped != null) {
+            return action.apply(scoped);
+        }
+        if (readEmf != null && ReadRouting.replicaAllowed()) {
+            try (EntityManager em = readEmf.createEntityManager()) {
+                return action.apply(em);
+            } catch (RuntimeException e) {
+                if (!ReadRouting.replicaUnavailable(e)) {
+                    throw e;
+                }
+            }
+        }
         try (EntityManager em = emf.createEntityManager()) {
             return action.apply(em);
         }
@@ -44,6 +86,41 @@ public abstract class BaseRepository <T, ID> {
         });
     }
 
+    /*
+    Runs the operation in its own transaction on a StatelessSession: no persistence context, dirty
+    checking, cascading or second-level cache writes, so the cost per row stays flat for bulk
+    loads. Associations must already exist in the database and are only used for their id.
+    Cannot join a UnitOfWork, the work commits on its own.
+     */
+    protected <R> R runStateless(Function<StatelessSession, R> operation) {
+        if (UnitOfWork.currentEntityManager(emf) != null) {
+            throw new IllegalStateException("Stateless operations cannot run inside a UnitOfWork");
+        }
+        try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                R result = operation.apply(session);
+                tx.commit();
+                ReadRouting.recordWrite();
+                return result;
+            } catch (Exception e) {
+                if (tx.isActive()) tx.rollback();
+                throw PersistenceErrors.translate(e, "Bulk operation failed for " + entityClass.getSimpleName());
+            }
+        }
+    }
+
+    // Inserts new entities in one transaction as multi-row JDBC batches, see runStateless
+    public int insertAll(List<? extends T> entities) {
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        return runStateless(session -> {
+            session.insertMultiple(entities);
+            return entities.size();
+        });
+    }
+
     public T update(T entity) {
         return runInTransaction(em -> {
             return em.merge(entity);
@@ -69,6 +146,33 @@ public abstract class BaseRepository <T, ID> {
         });
     }
 
+    /*
+    Returns an uninitialized proxy without querying the database, for when only the foreign key
+    is needed (e.g. setting an association before persist). Requires an active UnitOfWork so the
+    proxy belongs to the persistence context that will flush it. A missing row is reported by the
+    foreign key constraint on flush and translated into EntityNotFoundException.
+     */
+    public T getReference(ID id) {
+        EntityManager scoped = UnitOfWork.currentEntityManager(emf);
+        if (scoped == null) {
+            throw new IllegalStateException("getReference requires an active UnitOfWork");
+        }
+        return scoped.getReference(entityClass, id);
+    }
+
+    /*
+    Bumps the @Version of a managed entity on flush even if none of its own columns changed,
+    e.g. when only child rows of an aggregate were modified. Requires an active UnitOfWork.
+     */
+    public void forceVersionIncrement(T entity) {
+        EntityManager scoped = UnitOfWork.currentEntityManager(emf);
+        if (scoped == null) {
+            throw new IllegalStateException("forceVersionIncrement requires an active UnitOfWork");
+        }
+        UnitOfWork.markWritten();
+        scoped.lock(entity, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
     public Optional<T> findById(ID id) {
         return executeRead(em -> Optional.ofNullable(em.find(entityClass, id)));
     }
@@ -79,6 +183,19 @@ public abstract class BaseRepository <T, ID> {
         );
     }
 
+    /*
+    Entities annotated with @Cache are invalidated automatically when they are changed through
+    an EntityManager or a bulk JPQL statement. These are for changes Hibernate cannot see,
+    e.g. native SQL or another application writing to the same tables.
+     */
+    public void evictFromCache(ID id) {
+        emf.getCache().evict(entityClass, id);
+    }
+
+    public void evictAllFromCache() {
+        emf.getCache().evict(entityClass);
+    }
+
     public void deleteById(ID id) {
         runInTransaction(em -> {
             T entity = em.find(entityClass, id);
@@ -3,6 +3,7 @@ package org.example.repository;
 import jakarta.persistence.EntityManagerFactory;
 import org.example.entity.client.Client;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,6 +12,10 @@ public class ClientRepository extends BaseRepository<Client, UUID> {
         super(emf, Client.class);
     }
 
+    public ClientRepository(EntityManagerFactory emf, EntityManagerFactory readEmf) {
+        super(emf, readEmf, Client.class);
+    }
+
     public List<Client> findByCompanyId(UUID companyId) {
         return executeRead(em ->
             em.createQuery("SELECT c FROM Client c WHERE c.company.id = :companyId", Client.class)
@@ -18,4 +23,17 @@ public class ClientRepository extends BaseRepository<Client, UUID> {
                 .getResultList()
         );
     }
+
+    // Clients of the company with any of the given emails, in one query on idx_clients_company_email
+    public List<Client> findByCompanyIdAndEmails(UUID companyId, Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+        return executeRead(em ->
+            em.createQuery("SELECT c FROM Client c WHERE c.company.id = :companyId AND c.email IN :emails ORDER BY c.id", Client.class)
+                .setParameter("companyId", companyId)
+                .setParameter("emails", emails)
+                .getResultList()
+        );
+    }
 }
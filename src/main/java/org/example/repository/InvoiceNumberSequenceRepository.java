@@ -0,0 +1,68 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.example.entity.invoice.InvoiceNumberSequence;
+import org.example.exception.EntityNotFoundException;
+import org.hibernate.query.NativeQuery;
+
+import java.util.UUID;
+
+public class InvoiceNumberSequenceRepository extends BaseRepository<InvoiceNumberSequence, UUID> {
+
+    public InvoiceNumberSequenceRepository(EntityManagerFactory emf) {
+        super(emf, InvoiceNumberSequence.class);
+    }
+
+    /*
+    Reserves the numbers [first, first + blockSize) for the caller and returns first.
+    Runs in its own short transaction so the row lock is released right away, also when the
+    caller's transaction is still open. The row lock makes concurrent leases from several
+    application instances wait for each other, so no two of them get overlapping blocks.
+     */
+    public long leaseBlock(UUID companyId, int blockSize) {
+        Long first = UnitOfWork.inNewTransaction(() -> runInTransaction(em -> {
+            // creates the counter on first use; a missing company violates the FK and is ignored too
+            sequenceStatement(em, "INSERT IGNORE INTO invoice_number_sequences (company_id, next_value) VALUES (:companyId, 1)")
+                .setParameter("companyId", companyId)
+                .executeUpdate();
+
+            InvoiceNumberSequence sequence = em.find(InvoiceNumberSequence.class, companyId, LockModeType.PESSIMISTIC_WRITE);
+            if (sequence == null) {
+                return null;
+            }
+            long value = sequence.getNextValue();
+            sequence.setNextValue(value + blockSize);
+            return value;
+        }));
+
+        if (first == null) {
+            throw new EntityNotFoundException("Company", companyId);
+        }
+        return first;
+    }
+
+    /*
+    Moves the counter of the company to at least nextValue, for numbers that were assigned
+    outside the allocator (e.g. imported invoices). Never moves it backwards.
+    Joins the caller's UnitOfWork, so an invoice created with a typed number needs one connection,
+    not two; the row stays locked until that transaction ends, and a rollback undoes the move.
+     */
+    public void advanceTo(UUID companyId, long nextValue) {
+        runInTransaction(em ->
+            sequenceStatement(em, "INSERT INTO invoice_number_sequences (company_id, next_value) VALUES (:companyId, :nextValue)"
+                    + " ON DUPLICATE KEY UPDATE next_value = GREATEST(next_value, :nextValue)")
+                .setParameter("companyId", companyId)
+                .setParameter("nextValue", nextValue)
+                .executeUpdate()
+        );
+    }
+
+    // Without a query space Hibernate assumes a native statement touches every table and evicts
+    // all second-level cache regions
+    private static NativeQuery<?> sequenceStatement(EntityManager em, String sql) {
+        NativeQuery<?> query = em.createNativeQuery(sql).unwrap(NativeQuery.class);
+        return query.addSynchronizedEntityClass(InvoiceNumberSequence.class);
+    }
+}
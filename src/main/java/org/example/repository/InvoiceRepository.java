@@ -1,29 +1,132 @@
 package org.example.repository;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
 import org.example.entity.invoice.Invoice;
+import org.example.entity.invoice.InvoiceClientTotals;
+import org.example.entity.invoice.InvoiceExportRow;
+import org.example.entity.invoice.InvoiceItem;
+import org.example.entity.invoice.InvoiceMonthlyTotals;
 import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.invoice.InvoiceStatusTotals;
+import org.example.entity.invoice.InvoiceSummary;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.SelectionQuery;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class InvoiceRepository extends BaseRepository<Invoice, UUID>{
+
+    private static final String SUMMARY_SELECT = "SELECT new org.example.entity.invoice.InvoiceSummary("
+        + "i.id, i.number, i.status, i.amount, i.dueDate, "
+        + "TRIM(CONCAT(COALESCE(c.firstName, ''), ' ', COALESCE(c.lastName, ''))), "
+        + "(SELECT COUNT(it) FROM InvoiceItem it WHERE it.invoice = i), "
+        + "i.createdAt) "
+        + "FROM Invoice i JOIN i.client c";
+
+    // search() JPQL by filter shape and cursor kind, see searchQuery
+    private static final Map<Integer, String> SEARCH_QUERIES = new ConcurrentHashMap<>();
+
     public InvoiceRepository(EntityManagerFactory emf) {
         super(emf, Invoice.class);
     }
 
-    public Optional<Invoice> findByInvoiceNumber(String number) {
+    public InvoiceRepository(EntityManagerFactory emf, EntityManagerFactory readEmf) {
+        super(emf, readEmf, Invoice.class);
+    }
+
+    /*
+    Invoice numbers are unique per company. Reads a single id through the
+    (company_id, number) unique index instead of loading the invoice.
+     */
+    public boolean existsByCompanyIdAndNumber(UUID companyId, String number) {
         return executeRead(em -> {
-            return em.createQuery(
-                    "SELECT i FROM Invoice i WHERE i.number = :num", Invoice.class)
+            return !em.createQuery(
+                    "SELECT i.id FROM Invoice i WHERE i.company.id = :companyId AND i.number = :num", UUID.class)
+                .setParameter("companyId", companyId)
                 .setParameter("num", number)
-                .getResultStream()
-                .findFirst();
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
         });
     }
 
 
+    // Which of the given numbers the company already uses, one query on uk_invoices_company_number
+    public Set<String> findExistingNumbers(UUID companyId, Collection<String> numbers) {
+        if (numbers.isEmpty()) {
+            return Set.of();
+        }
+        return executeRead(em -> new HashSet<>(em.createQuery(
+                "SELECT i.number FROM Invoice i WHERE i.company.id = :companyId AND i.number IN :numbers", String.class)
+            .setParameter("companyId", companyId)
+            .setParameter("numbers", numbers)
+            .getResultList()));
+    }
+
+    /*
+    Inserts new invoices with their lines in one stateless transaction (see runStateless): the
+    invoices as one multi-row batch, then all of their lines as another. @CreationTimestamp always
+    stamps the insert time, so createdAt values set beforehand (e.g. imported history) are written
+    back afterwards with a single UPDATE for the whole batch.
+     */
+    public int insertAggregates(List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return 0;
+        }
+        List<LocalDateTime> createdAt = invoices.stream().map(Invoice::getCreatedAt).toList();
+        return runStateless(session -> {
+            session.insertMultiple(invoices);
+            List<InvoiceItem> items = new ArrayList<>();
+            invoices.forEach(invoice -> items.addAll(invoice.getInvoiceItems()));
+            if (!items.isEmpty()) {
+                session.insertMultiple(items);
+            }
+            restoreCreatedAt(session, invoices, createdAt);
+            return invoices.size();
+        });
+    }
+
+    private static void restoreCreatedAt(StatelessSession session, List<Invoice> invoices, List<LocalDateTime> createdAt) {
+        StringBuilder jpql = new StringBuilder("UPDATE Invoice i SET i.createdAt = CASE i.id");
+        List<UUID> ids = new ArrayList<>();
+        for (int k = 0; k < invoices.size(); k++) {
+            if (createdAt.get(k) != null) {
+                jpql.append(" WHEN :id").append(k).append(" THEN :createdAt").append(k);
+                ids.add(invoices.get(k).getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        jpql.append(" END WHERE i.id IN :ids");
+
+        MutationQuery update = session.createMutationQuery(jpql.toString()).setParameter("ids", ids);
+        for (int k = 0; k < invoices.size(); k++) {
+            if (createdAt.get(k) != null) {
+                update.setParameter("id" + k, invoices.get(k).getId())
+                    .setParameter("createdAt" + k, createdAt.get(k));
+                invoices.get(k).setCreatedAt(createdAt.get(k));
+            }
+        }
+        update.executeUpdate();
+    }
+
     /*
     Method to fetch the whole Invoice as an aggregate with all of its lines and fields.
     This is done with a single database query and JOIN FETCH.
@@ -63,6 +166,200 @@ public class InvoiceRepository extends BaseRepository<Invoice, UUID>{
         });
     }
 
+    /*
+    Keyset pagination, newest first. Unlike OFFSET, the cost of a page does not grow with
+    how deep into the listing we are, and rows inserted meanwhile do not shift the pages.
+    The page is fetched first without items; items for just those invoices are loaded in a
+    second bounded query instead of join fetching the whole company.
+     */
+    public KeysetPage<Invoice> findPageByCompanyId(UUID companyId, String pageToken, int pageSize) {
+        return findPage("i.company.id = :ownerId", companyId, pageToken, pageSize);
+    }
+
+    public KeysetPage<Invoice> findPageByClientId(UUID clientId, String pageToken, int pageSize) {
+        return findPage("i.client.id = :ownerId", clientId, pageToken, pageSize);
+    }
+
+    // Same ordering and tokens as findPageByCompanyId, but only the columns a list view shows
+    public KeysetPage<InvoiceSummary> findSummaryPageByCompanyId(UUID companyId, String pageToken, int pageSize) {
+        InvoiceCursor cursor = pageToken == null ? null : InvoiceCursor.decode(pageToken);
+
+        return executeRead(em -> {
+            String jpql = SUMMARY_SELECT + " WHERE i.company.id = :ownerId"
+                + keysetPredicate(cursor)
+                + " ORDER BY i.createdAt DESC, i.id DESC";
+
+            TypedQuery<InvoiceSummary> query = em.createQuery(jpql, InvoiceSummary.class)
+                .setParameter("ownerId", companyId)
+                .setMaxResults(pageSize + 1);
+            bindCursor(query, cursor);
+
+            List<InvoiceSummary> rows = query.getResultList();
+            if (rows.size() <= pageSize) {
+                return new KeysetPage<>(rows, null);
+            }
+            InvoiceSummary last = rows.get(pageSize - 1);
+            return new KeysetPage<>(List.copyOf(rows.subList(0, pageSize)),
+                new InvoiceCursor(last.createdAt(), last.id()).encode());
+        });
+    }
+
+    /*
+    Operator search: any combination of the filters in InvoiceSearchCriteria, one keyset page at a
+    time in the requested order. Every combination of present filters (the criteria's shape) maps to
+    one parameterized JPQL string that is built once and reused, so Hibernate parses each shape a
+    single time (its query plan cache is keyed by the JPQL text) and the database only ever sees a
+    small set of distinct statements. The composite indexes behind the filters and orderings are
+    created in V6__invoice_search_indexes.sql.
+     */
+    public KeysetPage<InvoiceSummary> search(InvoiceSearchCriteria criteria, String pageToken, int pageSize) {
+        InvoiceSort sort = criteria.sort();
+        InvoiceSearchCursor cursor = pageToken == null ? null : InvoiceSearchCursor.decode(pageToken, sort);
+        int cursorKind = cursor == null ? 0 : cursor.value() == null ? 1 : 2;
+        String jpql = SEARCH_QUERIES.computeIfAbsent(criteria.shape() << 2 | cursorKind,
+            shape -> searchQuery(criteria, cursorKind));
+
+        return executeRead(em -> {
+            TypedQuery<InvoiceSummary> query = em.createQuery(jpql, InvoiceSummary.class)
+                .setParameter("companyId", criteria.companyId())
+                .setMaxResults(pageSize + 1);
+            bindSearch(query, criteria, cursor);
+
+            List<InvoiceSummary> rows = query.getResultList();
+            if (rows.size() <= pageSize) {
+                return new KeysetPage<>(rows, null);
+            }
+            InvoiceSummary last = rows.get(pageSize - 1);
+            return new KeysetPage<>(List.copyOf(rows.subList(0, pageSize)),
+                new InvoiceSearchCursor(sort, sort.valueOf(last), last.id()).encode());
+        });
+    }
+
+    // cursorKind: 0 first page, 1 after an invoice without a sort value, 2 after one with a value
+    private static String searchQuery(InvoiceSearchCriteria criteria, int cursorKind) {
+        StringBuilder jpql = new StringBuilder(SUMMARY_SELECT).append(" WHERE i.company.id = :companyId");
+        if (!criteria.statuses().isEmpty()) {
+            jpql.append(" AND i.status IN :statuses");
+        }
+        if (criteria.clientId() != null) {
+            jpql.append(" AND i.client.id = :clientId");
+        }
+        if (criteria.dueFrom() != null) {
+            jpql.append(" AND i.dueDate >= :dueFrom");
+        }
+        if (criteria.dueBefore() != null) {
+            jpql.append(" AND i.dueDate < :dueBefore");
+        }
+        if (criteria.minAmount() != null) {
+            jpql.append(" AND i.amount >= :minAmount");
+        }
+        if (criteria.maxAmount() != null) {
+            jpql.append(" AND i.amount <= :maxAmount");
+        }
+        if (criteria.numberPrefix() != null) {
+            jpql.append(" AND i.number LIKE :numberPrefix ESCAPE '!'");
+        }
+
+        InvoiceSort sort = criteria.sort();
+        String column = sort.path();
+        String after = sort.descending() ? " < " : " > ";
+        if (cursorKind == 1) {
+            // NULL sorts first ascending and last descending
+            jpql.append(sort.descending()
+                ? " AND " + column + " IS NULL AND i.id < :afterId"
+                : " AND (" + column + " IS NOT NULL OR i.id > :afterId)");
+        } else if (cursorKind == 2) {
+            jpql.append(" AND (").append(column).append(after).append(":afterValue OR (")
+                .append(column).append(" = :afterValue AND i.id").append(after).append(":afterId))");
+        }
+        String direction = sort.descending() ? " DESC" : "";
+        return jpql.append(" ORDER BY ").append(column).append(direction).append(", i.id").append(direction).toString();
+    }
+
+    private static void bindSearch(TypedQuery<?> query, InvoiceSearchCriteria criteria, InvoiceSearchCursor cursor) {
+        if (!criteria.statuses().isEmpty()) {
+            query.setParameter("statuses", criteria.statuses());
+        }
+        if (criteria.clientId() != null) {
+            query.setParameter("clientId", criteria.clientId());
+        }
+        if (criteria.dueFrom() != null) {
+            query.setParameter("dueFrom", criteria.dueFrom());
+        }
+        if (criteria.dueBefore() != null) {
+            query.setParameter("dueBefore", criteria.dueBefore());
+        }
+        if (criteria.minAmount() != null) {
+            query.setParameter("minAmount", criteria.minAmount());
+        }
+        if (criteria.maxAmount() != null) {
+            query.setParameter("maxAmount", criteria.maxAmount());
+        }
+        if (criteria.numberPrefix() != null) {
+            query.setParameter("numberPrefix", likePrefix(criteria.numberPrefix()));
+        }
+        if (cursor != null) {
+            query.setParameter("afterId", cursor.id());
+            if (cursor.value() != null) {
+                query.setParameter("afterValue", cursor.value());
+            }
+        }
+    }
+
+    // LIKE pattern matching values that start with prefix, with '!' as the escape character
+    static String likePrefix(String prefix) {
+        return prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+    private KeysetPage<Invoice> findPage(String ownerPredicate, UUID ownerId, String pageToken, int pageSize) {
+        InvoiceCursor cursor = pageToken == null ? null : InvoiceCursor.decode(pageToken);
+
+        return executeRead(em -> {
+            String jpql = "SELECT i FROM Invoice i JOIN FETCH i.company JOIN FETCH i.client WHERE " + ownerPredicate
+                + keysetPredicate(cursor)
+                + " ORDER BY i.createdAt DESC, i.id DESC";
+
+            TypedQuery<Invoice> query = em.createQuery(jpql, Invoice.class)
+                .setParameter("ownerId", ownerId)
+                .setMaxResults(pageSize + 1);
+            bindCursor(query, cursor);
+
+            List<Invoice> rows = query.getResultList();
+            boolean hasNext = rows.size() > pageSize;
+            List<Invoice> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+            fetchItems(em, page);
+
+            String nextToken = null;
+            if (hasNext) {
+                Invoice last = page.getLast();
+                nextToken = new InvoiceCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+            return new KeysetPage<>(List.copyOf(page), nextToken);
+        });
+    }
+
+    private static String keysetPredicate(InvoiceCursor cursor) {
+        return cursor == null ? "" : " AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id))";
+    }
+
+    private static void bindCursor(TypedQuery<?> query, InvoiceCursor cursor) {
+        if (cursor != null) {
+            query.setParameter("createdAt", cursor.createdAt())
+                .setParameter("id", cursor.id());
+        }
+    }
+
+    // Initializes the item collections of already loaded invoices with one IN query
+    private void fetchItems(EntityManager em, List<Invoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        em.createQuery("SELECT DISTINCT i FROM Invoice i LEFT JOIN FETCH i.invoiceItems WHERE i.id IN :ids", Invoice.class)
+            .setParameter("ids", invoices.stream().map(Invoice::getId).toList())
+            .getResultList();
+    }
+
     //find which state an invoice is in
     public List<Invoice> findAllByStatusAndCompany(InvoiceStatus status, UUID companyId) {
         return executeRead(em -> {
@@ -73,4 +370,118 @@ public class InvoiceRepository extends BaseRepository<Invoice, UUID>{
                 .getResultList();
         });
     }
+
+    /*
+    Marks up to `limit` SENT invoices with a due date before `dueBefore` as OVERDUE, continuing after the
+    (dueDate, id) cursor. The candidates are read in index order (idx_invoices_due_date_status) without
+    locking, then updated by primary key, so the statement only locks the rows it changes. Rows
+    that left SENT in between are skipped by the status check. The version is bumped so a concurrent
+    edit of the same invoice fails its optimistic check instead of overwriting the new status.
+    Each call is its own transaction (unless a UnitOfWork is active); keep the limit small so it stays short.
+    The bulk update bypasses @UpdateTimestamp, so updatedAt is set to the current time explicitly,
+    not to the cut-off, which can be older than the run when a pass spans several runs.
+     */
+    public OverdueChunk markOverdueChunk(LocalDateTime dueBefore, LocalDateTime afterDueDate, UUID afterId, int limit) {
+        return runInTransaction(em -> {
+            String jpql = "SELECT i.id, i.dueDate FROM Invoice i WHERE i.status = :sent AND i.dueDate < :dueBefore"
+                + (afterDueDate == null ? "" : " AND (i.dueDate > :afterDueDate OR (i.dueDate = :afterDueDate AND i.id > :afterId))")
+                + " ORDER BY i.dueDate, i.id";
+            TypedQuery<Object[]> query = em.createQuery(jpql, Object[].class)
+                .setParameter("sent", InvoiceStatus.SENT)
+                .setParameter("dueBefore", dueBefore)
+                .setMaxResults(limit);
+            if (afterDueDate != null) {
+                query.setParameter("afterDueDate", afterDueDate)
+                    .setParameter("afterId", afterId);
+            }
+            List<Object[]> candidates = query.getResultList();
+            if (candidates.isEmpty()) {
+                return new OverdueChunk(0, 0, null, null);
+            }
+
+            List<UUID> ids = candidates.stream().map(row -> (UUID) row[0]).toList();
+            int updated = em.createQuery(
+                    "UPDATE Invoice i SET i.status = :overdue, i.version = i.version + 1, i.updatedAt = :updatedAt"
+                        + " WHERE i.id IN :ids AND i.status = :sent")
+                .setParameter("overdue", InvoiceStatus.OVERDUE)
+                .setParameter("updatedAt", LocalDateTime.now())
+                .setParameter("ids", ids)
+                .setParameter("sent", InvoiceStatus.SENT)
+                .executeUpdate();
+
+            Object[] last = candidates.getLast();
+            return new OverdueChunk(candidates.size(), updated, (LocalDateTime) last[1], (UUID) last[0]);
+        });
+    }
+
+    /*
+    Aggregates for dashboards. Count and sums are computed by the database with GROUP BY,
+    so only one row per group is transferred, however many invoices the company has.
+     */
+    public List<InvoiceStatusTotals> sumByStatus(UUID companyId) {
+        return executeRead(em -> em.createQuery(
+                "SELECT new org.example.entity.invoice.InvoiceStatusTotals("
+                    + "i.status, COUNT(i), SUM(i.amount), SUM(i.vatAmount)) "
+                    + "FROM Invoice i WHERE i.company.id = :companyId "
+                    + "GROUP BY i.status ORDER BY i.status", InvoiceStatusTotals.class)
+            .setParameter("companyId", companyId)
+            .getResultList());
+    }
+
+    // Months of the creation date in [from, to), oldest first; uses idx_invoices_company_created
+    public List<InvoiceMonthlyTotals> sumByMonth(UUID companyId, LocalDateTime from, LocalDateTime to) {
+        return executeRead(em -> em.createQuery(
+                "SELECT new org.example.entity.invoice.InvoiceMonthlyTotals("
+                    + "EXTRACT(YEAR FROM i.createdAt), EXTRACT(MONTH FROM i.createdAt), "
+                    + "COUNT(i), SUM(i.amount), SUM(i.vatAmount)) "
+                    + "FROM Invoice i WHERE i.company.id = :companyId "
+                    + "AND i.createdAt >= :from AND i.createdAt < :to "
+                    + "GROUP BY EXTRACT(YEAR FROM i.createdAt), EXTRACT(MONTH FROM i.createdAt) "
+                    + "ORDER BY EXTRACT(YEAR FROM i.createdAt), EXTRACT(MONTH FROM i.createdAt)", InvoiceMonthlyTotals.class)
+            .setParameter("companyId", companyId)
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .getResultList());
+    }
+
+    // Largest invoiced amount first
+    public List<InvoiceClientTotals> sumByClient(UUID companyId) {
+        return executeRead(em -> em.createQuery(
+                "SELECT new org.example.entity.invoice.InvoiceClientTotals("
+                    + "c.id, TRIM(CONCAT(COALESCE(c.firstName, ''), ' ', COALESCE(c.lastName, ''))), "
+                    + "COUNT(i), SUM(i.amount), SUM(i.vatAmount)) "
+                    + "FROM Invoice i JOIN i.client c WHERE i.company.id = :companyId "
+                    + "GROUP BY c.id, c.firstName, c.lastName ORDER BY SUM(i.amount) DESC", InvoiceClientTotals.class)
+            .setParameter("companyId", companyId)
+            .getResultList());
+    }
+
+    /*
+    Streams every line of the company's invoices to the consumer, oldest invoice first, and returns
+    the number of rows. The rows are scrolled from a server-side cursor (useCursorFetch) fetchSize
+    at a time and are not entities, so memory use does not depend on the number of invoices.
+     */
+    public long forEachExportRow(UUID companyId, int fetchSize, Consumer<InvoiceExportRow> consumer) {
+        return executeRead(em -> {
+            SelectionQuery<InvoiceExportRow> query = em.unwrap(Session.class).createSelectionQuery(
+                    "SELECT new org.example.entity.invoice.InvoiceExportRow("
+                        + "i.id, i.number, i.status, i.createdAt, i.dueDate, "
+                        + "TRIM(CONCAT(COALESCE(c.firstName, ''), ' ', COALESCE(c.lastName, ''))), c.email, "
+                        + "i.amount, i.vatAmount, it.quantity, it.unitPrice) "
+                        + "FROM Invoice i JOIN i.client c LEFT JOIN i.invoiceItems it "
+                        + "WHERE i.company.id = :companyId ORDER BY i.createdAt, i.id", InvoiceExportRow.class)
+                .setParameter("companyId", companyId)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true);
+
+            long rows = 0;
+            try (ScrollableResults<InvoiceExportRow> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    consumer.accept(results.get());
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
 }
@@ -0,0 +1,49 @@
+package org.example.repository;
+
+import lombok.Builder;
+import org.example.entity.invoice.InvoiceStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Filters for {@link InvoiceRepository#search}. Every filter left null (or an empty status set)
+ * is not applied; companyId is required. The due date range is [dueFrom, dueBefore), the amount
+ * range is inclusive on both ends and numberPrefix matches the start of the invoice number.
+ */
+@Builder
+public record InvoiceSearchCriteria(
+    UUID companyId,
+    Set<InvoiceStatus> statuses,
+    UUID clientId,
+    LocalDateTime dueFrom,
+    LocalDateTime dueBefore,
+    BigDecimal minAmount,
+    BigDecimal maxAmount,
+    String numberPrefix,
+    InvoiceSort sort
+) {
+
+    public InvoiceSearchCriteria {
+        statuses = statuses == null ? Set.of() : Set.copyOf(statuses);
+        numberPrefix = numberPrefix == null || numberPrefix.isBlank() ? null : numberPrefix.trim();
+        sort = sort == null ? InvoiceSort.NEWEST : sort;
+    }
+
+    /*
+    Which filters are present and the sort order. Two criteria with the same shape produce the same
+    JPQL and differ only in parameter values.
+     */
+    int shape() {
+        int shape = sort.ordinal();
+        shape = shape << 1 | (statuses.isEmpty() ? 0 : 1);
+        shape = shape << 1 | (clientId == null ? 0 : 1);
+        shape = shape << 1 | (dueFrom == null ? 0 : 1);
+        shape = shape << 1 | (dueBefore == null ? 0 : 1);
+        shape = shape << 1 | (minAmount == null ? 0 : 1);
+        shape = shape << 1 | (maxAmount == null ? 0 : 1);
+        return shape << 1 | (numberPrefix == null ? 0 : 1);
+    }
+}
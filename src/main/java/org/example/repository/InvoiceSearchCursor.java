@@ -0,0 +1,39 @@
+package org.example.repository;
+
+import org.example.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/*
+Position in an InvoiceRepository.search listing: the sort value and id of the last invoice on
+the previous page. value is null when that invoice has no value for the sort column (no due date).
+The sort order is part of the token, so a token is rejected if the caller changes the order.
+ */
+record InvoiceSearchCursor(InvoiceSort sort, Object value, UUID id) {
+
+    String encode() {
+        String raw = sort.name() + "|" + id + (value == null ? "" : "|" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static InvoiceSearchCursor decode(String token, InvoiceSort sort) {
+        String[] parts;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            parts = raw.split("\\|", 3);
+            if (parts.length < 2) {
+                throw new ValidationException("Invalid page token");
+            }
+            if (!sort.name().equals(parts[0])) {
+                throw new ValidationException("Page token belongs to another sort order");
+            }
+            return new InvoiceSearchCursor(sort, parts.length == 3 ? sort.parseValue(parts[2]) : null,
+                UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid page token", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.repository;
+
+import org.example.entity.invoice.InvoiceSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/*
+Orderings offered by InvoiceRepository.search. Each one is the sort column followed by the id, in
+the same direction, so pages can continue from a (value, id) keyset cursor. Invoices without a
+due date come first in DUE_DATE order (MySQL sorts NULL before any value when ascending).
+ */
+public enum InvoiceSort {
+    NEWEST("i.createdAt", true),
+    OLDEST("i.createdAt", false),
+    DUE_DATE("i.dueDate", false),
+    LARGEST("i.amount", true),
+    NUMBER("i.number", false);
+
+    private final String path;
+    private final boolean descending;
+
+    InvoiceSort(String path, boolean descending) {
+        this.path = path;
+        this.descending = descending;
+    }
+
+    String path() {
+        return path;
+    }
+
+    boolean descending() {
+        return descending;
+    }
+
+    Object valueOf(InvoiceSummary invoice) {
+        return switch (this) {
+            case NEWEST, OLDEST -> invoice.createdAt();
+            case DUE_DATE -> invoice.dueDate();
+            case LARGEST -> invoice.amount();
+            case NUMBER -> invoice.number();
+        };
+    }
+
+    // Cursor values are stored as text in the page token
+    Object parseValue(String value) {
+        return switch (this) {
+            case NEWEST, OLDEST, DUE_DATE -> LocalDateTime.parse(value);
+            case LARGEST -> new BigDecimal(value);
+            case NUMBER -> value;
+        };
+    }
+}
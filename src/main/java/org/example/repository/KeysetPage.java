@@ -0,0 +1,19 @@
+package org.example.repository;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing.
+ * {@code nextPageToken} is an opaque continuation token, null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, String nextPageToken) {
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(items.stream().<R>map(mapper).toList(), nextPageToken);
+    }
+}
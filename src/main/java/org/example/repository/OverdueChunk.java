@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outcome of one {@link InvoiceRepository#markOverdueChunk} call.
+ *
+ * @param scanned     candidates read in this chunk; fewer than the limit means the pass is done
+ * @param updated     invoices actually switched to OVERDUE (others changed status in the meantime)
+ * @param lastDueDate keyset cursor to continue after, null when nothing was scanned
+ * @param lastId      keyset cursor to continue after, null when nothing was scanned
+ */
+public record OverdueChunk(int scanned, int updated, LocalDateTime lastDueDate, UUID lastId) {
+}
@@ -0,0 +1,77 @@
+package org.example.repository;
+
+import jakarta.persistence.OptimisticLockException;
+import org.example.exception.BusinessRuleException;
+import org.example.exception.ConcurrentUpdateException;
+import org.example.exception.EntityNotFoundException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.util.Map;
+
+/*
+Maps low-level persistence failures to the exceptions the services and the CLI already handle.
+ */
+final class PersistenceErrors {
+
+    // ER_NO_REFERENCED_ROW_2: inserting/updating a child row whose parent does not exist
+    private static final int MYSQL_NO_REFERENCED_ROW = 1452;
+
+    // ER_DUP_ENTRY: a unique key already holds the value
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    // Constraint names are set with @ForeignKey on the entities
+    private static final Map<String, String> FOREIGN_KEY_TARGETS = Map.of(
+        "fk_invoices_company", "Company",
+        "fk_invoices_client", "Client",
+        "fk_invoice_items_invoice", "Invoice",
+        "fk_clients_company", "Company",
+        "fk_company_user_company", "Company",
+        "fk_company_user_user", "User"
+    );
+
+    // Unique keys are created in the Flyway migrations
+    private static final Map<String, String> UNIQUE_KEY_MESSAGES = Map.of(
+        "uk_invoices_company_number", "Invoice number already in use"
+    );
+
+    private PersistenceErrors() {}
+
+    static RuntimeException translate(Exception e, String fallbackMessage) {
+        // @Version check failed: the row was changed or deleted since it was read
+        if (findCause(e, OptimisticLockException.class) != null || findCause(e, StaleStateException.class) != null) {
+            return new ConcurrentUpdateException("The record was changed by someone else", e);
+        }
+        ConstraintViolationException violation = findCause(e, ConstraintViolationException.class);
+        if (violation != null && violation.getErrorCode() == MYSQL_NO_REFERENCED_ROW) {
+            String constraint = violation.getConstraintName();
+            String target = constraint == null ? null : FOREIGN_KEY_TARGETS.get(constraint.toLowerCase());
+            return new EntityNotFoundException(
+                target == null ? "Referenced entity" : target,
+                "referenced by " + constraint,
+                e
+            );
+        }
+        if (violation != null && violation.getErrorCode() == MYSQL_DUPLICATE_ENTRY) {
+            String message = UNIQUE_KEY_MESSAGES.get(unqualified(violation.getConstraintName()));
+            if (message != null) {
+                return new BusinessRuleException(message, e);
+            }
+        }
+        return new RuntimeException(fallbackMessage, e);
+    }
+
+    // MySQL 8 reports duplicate keys as table.key
+    private static String unqualified(String constraint) {
+        return constraint == null ? null : constraint.substring(constraint.lastIndexOf('.') + 1).toLowerCase();
+    }
+
+    static <X extends Throwable> X findCause(Throwable throwable, Class<X> type) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) {
+                return type.cast(t);
+            }
+        }
+        return null;
+    }
+}
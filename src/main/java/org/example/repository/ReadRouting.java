@@ -0,0 +1,134 @@
+package org.example.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.JDBCConnectionException;
+
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether a repository read outside a {@link UnitOfWork} may go to the read replica.
+ * <p>
+ * Reads go to the primary instead when
+ * <ul>
+ *     <li>the caller asked for it with {@link #primary(Supplier)}, e.g. to re-read what it just wrote,</li>
+ *     <li>the same caller committed a write less than {@code db.replica.stickyMs} ago (default 2000),
+ *     so a session reads its own writes while the replica may still lag behind. The caller is the one
+ *     bound with {@link #asCaller(Object, Callable)}, on whatever thread it wrote; without one it is
+ *     the current thread,</li>
+ *     <li>the replica failed to give a connection in the last {@code db.replica.retryAfterMs} (default 30000).</li>
+ * </ul>
+ */
+@Slf4j
+public final class ReadRouting {
+
+    private static final long STICKY_MS = Long.getLong("db.replica.stickyMs", 2_000);
+    private static final long RETRY_AFTER_MS = Long.getLong("db.replica.retryAfterMs", 30_000);
+
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = ThreadLocal.withInitial(() -> 0);
+    private static final ThreadLocal<Long> LAST_WRITE_AT = new ThreadLocal<>();
+    private static final ThreadLocal<Object> CALLER = new ThreadLocal<>();
+    private static final Cache<Object, Long> CALLER_LAST_WRITE_AT = Caffeine.newBuilder()
+        .expireAfterWrite(Duration.ofMillis(STICKY_MS))
+        .maximumSize(100_000)
+        .build();
+    private static final AtomicLong REPLICA_DOWN_UNTIL = new AtomicLong();
+
+    private ReadRouting() {}
+
+    public static <R> R primary(Supplier<R> reads) {
+        PRIMARY_DEPTH.set(PRIMARY_DEPTH.get() + 1);
+        try {
+            return reads.get();
+        } finally {
+            int depth = PRIMARY_DEPTH.get() - 1;
+            if (depth == 0) {
+                PRIMARY_DEPTH.remove();
+            } else {
+                PRIMARY_DEPTH.set(depth);
+            }
+        }
+    }
+
+    /*
+    Runs work on behalf of caller, e.g. a session token. Its writes keep the caller's later reads
+    on the primary even when they run on another thread, as with one virtual thread per request.
+    A null caller leaves the current binding in place.
+     */
+    public static <R> R asCaller(Object caller, Callable<R> work) throws Exception {
+        if (caller == null) {
+            return work.call();
+        }
+        Object previous = CALLER.get();
+        CALLER.set(caller);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                CALLER.remove();
+            } else {
+                CALLER.set(previous);
+            }
+        }
+    }
+
+    static boolean replicaAllowed() {
+        if (PRIMARY_DEPTH.get() > 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        Object caller = CALLER.get();
+        Long lastWrite = caller != null ? CALLER_LAST_WRITE_AT.getIfPresent(caller) : LAST_WRITE_AT.get();
+        if (lastWrite != null) {
+            if (now - lastWrite < STICKY_MS) {
+                return false;
+            }
+            if (caller == null) {
+                LAST_WRITE_AT.remove();
+            }
+        }
+        return now >= REPLICA_DOWN_UNTIL.get();
+    }
+
+    static void recordWrite() {
+        long now = System.currentTimeMillis();
+        Object caller = CALLER.get();
+        if (caller != null) {
+            CALLER_LAST_WRITE_AT.put(caller, now);
+        } else {
+            LAST_WRITE_AT.set(now);
+        }
+    }
+
+    /*
+    Returns true when the failure means the replica could not be reached; the caller then
+    retries on the primary and the replica is skipped until the retry window has passed.
+     */
+    static boolean replicaUnavailable(Exception e) {
+        boolean connectionFailure = PersistenceErrors.findCause(e, JDBCConnectionException.class) != null
+            || PersistenceErrors.findCause(e, SQLTransientConnectionException.class) != null
+            || PersistenceErrors.findCause(e, SQLNonTransientConnectionException.class) != null
+            || PersistenceErrors.findCause(e, ConnectException.class) != null;
+        if (connectionFailure) {
+            REPLICA_DOWN_UNTIL.set(System.currentTimeMillis() + RETRY_AFTER_MS);
+            log.warn("Read replica unavailable, reading from the primary for the next {} ms", RETRY_AFTER_MS, e);
+        }
+        return connectionFailure;
+    }
+
+    // for tests
+    static void reset() {
+        PRIMARY_DEPTH.remove();
+        LAST_WRITE_AT.remove();
+        CALLER.remove();
+        CALLER_LAST_WRITE_AT.invalidateAll();
+        REPLICA_DOWN_UNTIL.set(0);
+    }
+}
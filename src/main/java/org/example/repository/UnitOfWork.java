@@ -0,0 +1,190 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.PersistenceException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Thread-bound transaction scope shared by all repositories.
+ * <p>
+ * A service wraps a multi-step operation in {@link #inTransaction(Supplier)}; every
+ * {@code runInTransaction}/{@code executeRead} call made by a repository on the same
+ * thread joins that scope, so the whole operation uses one EntityManager, one connection
+ * and one commit. The EntityManager is opened lazily by the first repository call, so a
+ * scope that never touches the database costs nothing.
+ * <p>
+ * Nested {@code inTransaction} calls join the outer scope (REQUIRED). A failure in a nested
+ * call marks the scope rollback-only. {@link #inNewTransaction(Supplier)} suspends the current
+ * scope and runs in its own transaction (REQUIRES_NEW).
+ * <p>
+ * {@link #afterCommit(Runnable)} defers an action, e.g. a cache invalidation, until the
+ * outermost scope has committed, and drops it when the scope rolls back. The actions run one by
+ * one; a failing action is logged and does not stop the others or fail the committed operation.
+ */
+@Slf4j
+public final class UnitOfWork {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private UnitOfWork() {}
+
+    public static <R> R inTransaction(Supplier<R> work) {
+        Scope current = CURRENT.get();
+        if (current != null) {
+            return current.join(work);
+        }
+        return runInNewScope(work);
+    }
+
+    public static void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static <R> R inNewTransaction(Supplier<R> work) {
+        return runInNewScope(work);
+    }
+
+    public static void afterCommit(Runnable action) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            runAfterCommit(action);
+        } else {
+            scope.afterCommit.add(action);
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Returns the EntityManager of the active scope, beginning its transaction on first use.
+     * Returns null when no scope is active; a scope bound to another factory is an error, as the
+     * call would otherwise run outside the transaction the caller opened.
+     */
+    static EntityManager currentEntityManager(EntityManagerFactory emf) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return null;
+        }
+        return scope.entityManager(emf);
+    }
+
+    // Called by the repository write paths, so only scopes that wrote count as a write for ReadRouting
+    static void markWritten() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.written = true;
+        }
+    }
+
+    static void markRollbackOnly() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.rollbackOnly = true;
+        }
+    }
+
+    private static <R> R runInNewScope(Supplier<R> work) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        R result;
+        try {
+            result = work.get();
+            scope.commit();
+        } catch (RuntimeException | Error e) {
+            scope.rollback();
+            throw e;
+        } finally {
+            scope.close();
+            if (scope.parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(scope.parent);
+            }
+        }
+        // outside the scope, so actions that use repositories get their own transaction
+        scope.afterCommit.forEach(UnitOfWork::runAfterCommit);
+        return result;
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.error("After-commit action failed, the transaction itself was committed", e);
+        }
+    }
+
+    private static final class Scope {
+        private final Scope parent;
+        private EntityManagerFactory emf;
+        private EntityManager em;
+        private boolean rollbackOnly;
+        private boolean written;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private EntityManager entityManager(EntityManagerFactory requested) {
+            if (em == null) {
+                emf = requested;
+                em = requested.createEntityManager();
+                em.getTransaction().begin();
+            }
+            if (emf != requested) {
+                throw new IllegalStateException("UnitOfWork is bound to another EntityManagerFactory");
+            }
+            return em;
+        }
+
+        private <R> R join(Supplier<R> work) {
+            try {
+                return work.get();
+            } catch (RuntimeException | Error e) {
+                rollbackOnly = true;
+                throw e;
+            }
+        }
+
+        private void commit() {
+            if (em == null || !em.getTransaction().isActive()) {
+                return;
+            }
+            // the caller's catch in runInNewScope rolls back, exactly once
+            if (rollbackOnly) {
+                throw new PersistenceException("Transaction rolled back because a nested operation failed");
+            }
+            try {
+                em.getTransaction().commit();
+            } catch (Exception e) {
+                throw PersistenceErrors.translate(e, "Transaction commit failed");
+            }
+            if (written) {
+                ReadRouting.recordWrite();
+            }
+        }
+
+        private void rollback() {
+            if (em != null && em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+        }
+
+        private void close() {
+            if (em != null && em.isOpen()) {
+                em.close();
+            }
+        }
+    }
+}
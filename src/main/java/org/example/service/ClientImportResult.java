@@ -0,0 +1,21 @@
+package org.example.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a {@link ClientImportService} import.
+ *
+ * @param imported    clients inserted by this run
+ * @param rejected    records that failed validation in this run
+ * @param resumedFrom records skipped because an earlier run had already committed them
+ * @param errors      the first rejected records, at most {@link ClientImportService#MAX_REPORTED_ERRORS}
+ */
+public record ClientImportResult(long imported, long rejected, long resumedFrom, List<ImportRowError> errors,
+                                 Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : (imported + rejected) * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.client.Client;
+import org.example.entity.client.CreateClientDTO;
+import org.example.entity.company.Company;
+import org.example.exception.EntityNotFoundException;
+import org.example.exception.PersistenceException;
+import org.example.exception.ValidationException;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.util.Csv;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/*
+Loads clients for one company from a CSV file with a header row. Recognised columns are
+first_name, last_name, email, address, city, country and phone_number, in any order; only email
+is required and unknown columns are ignored.
+
+Records are read in batches of batchSize. Each batch is validated in parallel, and its valid rows
+are inserted in one transaction through ClientRepository.insertAll (StatelessSession, multi-row
+JDBC batches). Invalid rows are reported with their line number and do not stop the import.
+
+After every committed batch the number of records consumed is written to <file>.checkpoint. If
+an import fails part way, running it again for the same company and file skips the committed
+records. The checkpoint is removed once the whole file has been loaded. A failed batch insert is
+reported as PersistenceException naming the last committed line.
+
+Settings (system properties): client.import.batchSize (1000).
+ */
+@Slf4j
+public class ClientImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final int DEFAULT_BATCH_SIZE = 1_000;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_FIELD_LENGTH = 255;
+
+    private static final String[] COLUMNS = {
+        "first_name", "last_name", "email", "address", "city", "country", "phone_number"
+    };
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int EMAIL_ADDRESS = 2;
+    private static final int ADDRESS = 3;
+    private static final int CITY = 4;
+    private static final int COUNTRY = 5;
+    private static final int PHONE_NUMBER = 6;
+
+    private final ClientRepository clientRepository;
+    private final CompanyRepository companyRepository;
+    private final ClientSearchIndex searchIndex;
+    private final int batchSize;
+
+    public ClientImportService(ClientRepository clientRepository, CompanyRepository companyRepository,
+                               ClientSearchIndex searchIndex) {
+        this(clientRepository, companyRepository, searchIndex,
+            Integer.getInteger("client.import.batchSize", DEFAULT_BATCH_SIZE));
+    }
+
+    public ClientImportService(ClientRepository clientRepository, CompanyRepository companyRepository,
+                               ClientSearchIndex searchIndex, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.clientRepository = clientRepository;
+        this.companyRepository = companyRepository;
+        this.searchIndex = searchIndex;
+        this.batchSize = batchSize;
+    }
+
+    public ClientImportResult importClients(UUID companyId, Path file) {
+        Company company = companyRepository.findById(companyId)
+            .orElseThrow(() -> new EntityNotFoundException("Company", companyId));
+        Path checkpoint = file.resolveSibling(file.getFileName() + ".checkpoint");
+        long start = System.nanoTime();
+
+        try (LineNumberReader in = new LineNumberReader(
+            new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            int[] columns = readHeader(in);
+            long fileSize = Files.size(file);
+            Progress progress = new Progress(readCheckpoint(checkpoint, companyId, fileSize));
+
+            List<RawRecord> batch = new ArrayList<>(batchSize);
+            long records = 0;
+            while (true) {
+                long line = in.getLineNumber() + 1;
+                List<String> fields = Csv.readRow(in);
+                if (fields == null) {
+                    break;
+                }
+                if (isBlank(fields)) {
+                    continue;
+                }
+                if (++records <= progress.resumedFrom) {
+                    continue;
+                }
+                batch.add(new RawRecord(line, fields));
+                if (batch.size() == batchSize) {
+                    importBatch(batch, columns, company, progress, records);
+                    writeCheckpoint(checkpoint, companyId, fileSize, records);
+                    batch.clear();
+                }
+            }
+            importBatch(batch, columns, company, progress, records);
+            Files.deleteIfExists(checkpoint);
+
+            ClientImportResult result = new ClientImportResult(progress.imported, progress.rejected,
+                progress.resumedFrom, List.copyOf(progress.errors), Duration.ofNanos(System.nanoTime() - start));
+            log.info(
+                "Imported {} clients for company {} from {} ({} rejected, {} skipped from checkpoint) in {} ms ({} rows/s)",
+                result.imported(),
+                companyId,
+                file,
+                result.rejected(),
+                result.resumedFrom(),
+                result.elapsed().toMillis(),
+                Math.round(result.rowsPerSecond())
+            );
+            return result;
+        } catch (IOException e) {
+            throw new PersistenceException("Client import from " + file + " failed", e);
+        } finally {
+            // bulk inserts bypass ClientService, the index is rebuilt on the next search
+            searchIndex.invalidate(companyId);
+        }
+    }
+
+    private void importBatch(List<RawRecord> batch, int[] columns, Company company, Progress progress, long records) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // validation and entity construction are independent per record, the insert stays single-threaded
+        List<ParsedRecord> parsed = batch.parallelStream()
+            .map(record -> parse(record, columns, company))
+            .toList();
+
+        List<Client> clients = new ArrayList<>(parsed.size());
+        for (ParsedRecord record : parsed) {
+            if (record.client() != null) {
+                clients.add(record.client());
+            } else {
+                progress.reject(new ImportRowError(record.line(), record.error()));
+            }
+        }
+        try {
+            progress.imported += clientRepository.insertAll(clients);
+        } catch (RuntimeException e) {
+            throw new PersistenceException("Inserting the clients of lines " + batch.getFirst().line() + "-"
+                + batch.getLast().line() + " failed (" + e.getMessage() + "); " + progress.committed(), e);
+        }
+        progress.committedRecords = records;
+        progress.committedLine = batch.getLast().line();
+        log.debug("Client import batch committed: {} inserted, {} rejected", clients.size(), parsed.size() - clients.size());
+    }
+
+    private static ParsedRecord parse(RawRecord record, int[] columns, Company company) {
+        String[] values = new String[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            int index = columns[i];
+            if (index < 0) {
+                continue;
+            }
+            if (index >= record.fields().size()) {
+                return ParsedRecord.rejected(record.line(), "Expected at least " + (index + 1) + " columns but found "
+                    + record.fields().size());
+            }
+            String value = record.fields().get(index).trim();
+            if (value.length() > MAX_FIELD_LENGTH) {
+                return ParsedRecord.rejected(record.line(), COLUMNS[i] + " is longer than " + MAX_FIELD_LENGTH + " characters");
+            }
+            values[i] = value.isEmpty() ? null : value;
+        }
+
+        if (values[EMAIL_ADDRESS] == null) {
+            return ParsedRecord.rejected(record.line(), "email is required");
+        }
+        if (!UserService.isValidEmail(values[EMAIL_ADDRESS])) {
+            return ParsedRecord.rejected(record.line(), "email is not a valid address");
+        }
+
+        CreateClientDTO dto = new CreateClientDTO(
+            company.getId(),
+            values[FIRST_NAME],
+            values[LAST_NAME],
+            values[EMAIL_ADDRESS],
+            values[ADDRESS],
+            values[COUNTRY],
+            values[CITY],
+            values[PHONE_NUMBER]
+        );
+        return new ParsedRecord(record.line(), Client.fromDTO(dto, company), null);
+    }
+
+    private static int[] readHeader(Reader in) throws IOException {
+        List<String> header = Csv.readRow(in);
+        if (header == null) {
+            throw new ValidationException("Import file is empty");
+        }
+        int[] columns = Csv.columnIndexes(header, COLUMNS);
+        if (columns[EMAIL_ADDRESS] < 0) {
+            throw new ValidationException("Import file has no email column");
+        }
+        return columns;
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+    The checkpoint records the company and the file size next to the record count, so a stale
+    checkpoint is not applied to a different company or to a file that has been edited since.
+     */
+    private static long readCheckpoint(Path checkpoint, UUID companyId, long fileSize) throws IOException {
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        Properties properties = new Properties();
+        try (Reader in = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        if (!companyId.toString().equals(properties.getProperty("companyId"))
+            || !String.valueOf(fileSize).equals(properties.getProperty("fileSize"))) {
+            throw new ValidationException("Checkpoint " + checkpoint + " belongs to another company or file version;"
+                + " delete it to import the file from the start");
+        }
+        long records = Long.parseLong(properties.getProperty("records", "0"));
+        log.info("Resuming client import after {} records from {}", records, checkpoint);
+        return records;
+    }
+
+    private static void writeCheckpoint(Path checkpoint, UUID companyId, long fileSize, long records) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("companyId", companyId.toString());
+        properties.setProperty("fileSize", String.valueOf(fileSize));
+        properties.setProperty("records", String.valueOf(records));
+
+        Path partial = checkpoint.resolveSibling(checkpoint.getFileName() + ".part");
+        try (Writer out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8)) {
+            properties.store(out, null);
+        }
+        Files.move(partial, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record RawRecord(long line, List<String> fields) {
+    }
+
+    private record ParsedRecord(long line, Client client, String error) {
+        static ParsedRecord rejected(long line, String error) {
+            return new ParsedRecord(line, null, error);
+        }
+    }
+
+    private static final class Progress {
+        private final long resumedFrom;
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+        private long committedRecords;
+        private long committedLine;
+
+        private Progress(long resumedFrom) {
+            this.resumedFrom = resumedFrom;
+            this.committedRecords = resumedFrom;
+        }
+
+        private String committed() {
+            if (committedLine > 0) {
+                return "committed through line " + committedLine + " (record " + committedRecords + ")";
+            }
+            if (committedRecords > 0) {
+                return "committed through record " + committedRecords + " by an earlier run";
+            }
+            return "no records were committed";
+        }
+
+        private void reject(ImportRowError error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,512 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.client.ClientDTO;
+import org.example.exception.ValidationException;
+import org.example.repository.ClientRepository;
+import org.example.repository.ReadRouting;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+In-memory search over the clients of a company by first name, last name, email and city.
+
+The index of a company is built from the database on its first search and then kept in sync by
+ClientService after each committed create, update and delete. Every query term must match one
+of the words of a client (names, city, the email address and its parts), ranked exact word >
+word prefix > substring > fuzzy (a few typos, also within a prefix). Lookups go through a sorted
+word map for prefixes and a trigram index for substrings and typos, so only the candidates those
+return are compared with the query word by word.
+
+Writes made outside ClientService (bulk imports call invalidate) or by other application instances
+are not seen until the index expires (client.search.ttlSeconds, 600), counted from the load:
+applying a change does not extend it, so the index of a busy company is still reloaded in time.
+Indexes are evicted when together they hold more than client.search.maxClients (500000) clients.
+ */
+@Slf4j
+public class ClientSearchIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    private static final int EXACT = 8;
+    private static final int PREFIX = 6;
+    private static final int SUBSTRING = 4;
+    private static final int FUZZY = 2;
+    private static final int MAX_FUZZY_CANDIDATES = 500;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ClientRepository clientRepository;
+    private final Cache<UUID, CompanyIndex> indexes;
+
+    public ClientSearchIndex(ClientRepository clientRepository) {
+        this(
+            clientRepository,
+            Duration.ofSeconds(Long.getLong("client.search.ttlSeconds", 600)),
+            Long.getLong("client.search.maxClients", 500_000)
+        );
+    }
+
+    public ClientSearchIndex(ClientRepository clientRepository, Duration ttl, long maxClients) {
+        this(clientRepository, ttl, maxClients, Ticker.systemTicker());
+    }
+
+    ClientSearchIndex(ClientRepository clientRepository, Duration ttl, long maxClients, Ticker ticker) {
+        this.clientRepository = clientRepository;
+        this.indexes = Caffeine.newBuilder()
+            .expireAfter(expireAfterLoad(ttl))
+            .maximumWeight(maxClients)
+            .weigher((UUID companyId, CompanyIndex index) -> Math.max(1, index.size()))
+            .ticker(ticker)
+            .build();
+    }
+
+    // put and remove replace the entry through computeIfPresent, which expireAfterWrite would count as a new write
+    private static Expiry<UUID, CompanyIndex> expireAfterLoad(Duration ttl) {
+        long ttlNanos = ttl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(UUID companyId, CompanyIndex index, long currentTime) {
+                return ttlNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(UUID companyId, CompanyIndex index, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+
+            @Override
+            public long expireAfterRead(UUID companyId, CompanyIndex index, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    // Best matches first, at most limit of them
+    public List<ClientDTO> search(UUID companyId, String query, int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_RESULTS);
+        }
+        // split like the indexed words, except email addresses which are also indexed whole
+        List<String> terms = query == null ? List.of() : WHITESPACE.splitAsStream(normalize(query))
+            .flatMap(term -> term.contains("@") ? Stream.of(term) : WORD_SEPARATORS.splitAsStream(term))
+            .filter(term -> !term.isEmpty())
+            .distinct()
+            .toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return indexes.get(companyId, this::load).search(terms, limit);
+    }
+
+    /*
+    Applies a committed change to the company's index if it is loaded. A load that is running at
+    the same time is waited for, so the change is not lost when the load read the old row.
+     */
+    public void put(ClientDTO client) {
+        if (client.companyId() == null) {
+            return;
+        }
+        indexes.asMap().computeIfPresent(client.companyId(), (companyId, index) -> {
+            index.put(client);
+            return index;
+        });
+    }
+
+    public void remove(UUID companyId, UUID clientId) {
+        if (companyId == null) {
+            return;
+        }
+        indexes.asMap().computeIfPresent(companyId, (id, index) -> {
+            index.remove(clientId);
+            return index;
+        });
+    }
+
+    public void invalidate(UUID companyId) {
+        indexes.invalidate(companyId);
+    }
+
+    private CompanyIndex load(UUID companyId) {
+        long start = System.nanoTime();
+        // a lagging replica could miss a change that was applied to the index just before the load
+        List<ClientDTO> clients = ReadRouting.primary(() -> clientRepository.findByCompanyId(companyId)).stream()
+            .map(ClientDTO::fromEntity)
+            .toList();
+        CompanyIndex index = new CompanyIndex();
+        clients.forEach(index::put);
+        log.debug("Indexed {} clients of company {} in {} ms", clients.size(), companyId,
+            (System.nanoTime() - start) / 1_000_000);
+        return index;
+    }
+
+    static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+    }
+
+    private static String[] words(ClientDTO client) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String field : new String[] {client.firstName(), client.lastName(), client.email(), client.city()}) {
+            if (field == null) {
+                continue;
+            }
+            String normalized = normalize(field);
+            for (String word : WORD_SEPARATORS.split(normalized)) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        if (client.email() != null) {
+            words.add(normalize(client.email()));
+        }
+        return words.toArray(String[]::new);
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Typos tolerated in a term: none for short ones, where almost everything would match
+    private static int maxEdits(String term) {
+        return term.length() >= 8 ? 2 : term.length() >= 4 ? 1 : 0;
+    }
+
+    /*
+    Edit distance (Levenshtein with adjacent transpositions) between term and the closest prefix
+    of word, capped at maxEdits + 1. Comparing against prefixes lets a half-typed word with a typo
+    match.
+     */
+    static int prefixDistance(String term, String word, int maxEdits) {
+        int[] beforePrevious = new int[word.length() + 1];
+        int[] previous = new int[word.length() + 1];
+        int[] current = new int[word.length() + 1];
+        for (int j = 0; j <= word.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= term.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= word.length(); j++) {
+                int cost = term.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(previous[j - 1] + cost, Math.min(previous[j], current[j - 1]) + 1);
+                if (i > 1 && j > 1 && term.charAt(i - 1) == word.charAt(j - 2) && term.charAt(i - 2) == word.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = previous[0];
+        for (int j = 1; j <= word.length(); j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return Math.min(best, maxEdits + 1);
+    }
+
+    private record Doc(ClientDTO client, String[] words, String sortKey) {
+    }
+
+    /*
+    Documents are numbered in insertion order. An update or delete clears the old document and
+    leaves its postings behind, which searches skip; the index is rebuilt once more than half of
+    the documents are cleared.
+     */
+    static final class CompanyIndex {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final List<Doc> docs = new ArrayList<>();
+        private final Map<UUID, Integer> docByClient = new HashMap<>();
+        private final TreeMap<String, IntList> words = new TreeMap<>();
+        private final Map<String, IntList> trigrams = new HashMap<>();
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return docByClient.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void put(ClientDTO client) {
+            lock.writeLock().lock();
+            try {
+                clear(client.id());
+                add(client);
+                compactIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(UUID clientId) {
+            lock.writeLock().lock();
+            try {
+                clear(clientId);
+                compactIfNeeded();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<ClientDTO> search(List<String> terms, int limit) {
+            lock.readLock().lock();
+            try {
+                int[] total = null;
+                for (String term : terms) {
+                    int[] scores = score(term);
+                    if (total == null) {
+                        total = scores;
+                    } else {
+                        for (int doc = 0; doc < total.length; doc++) {
+                            total[doc] = total[doc] > 0 && scores[doc] > 0 ? total[doc] + scores[doc] : 0;
+                        }
+                    }
+                }
+                return top(total, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /*
+        Per document score of the best matching word. Typos are only considered for a term that
+        has no exact, prefix or substring match at all, otherwise "adam" would also bring up
+        every "ada" and common trigrams would make nearly every client a candidate.
+         */
+        private int[] score(String term) {
+            int[] scores = new int[docs.size()];
+            boolean found = false;
+
+            for (Map.Entry<String, IntList> entry : words.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                int score = entry.getKey().length() == term.length() ? EXACT : PREFIX;
+                IntList postings = entry.getValue();
+                for (int k = 0; k < postings.size; k++) {
+                    int doc = postings.values[k];
+                    if (docs.get(doc) != null) {
+                        scores[doc] = Math.max(scores[doc], score);
+                        found = true;
+                    }
+                }
+            }
+
+            Set<String> grams = trigrams(term);
+            if (grams.isEmpty()) {
+                return scores;
+            }
+            int[] shared = new int[docs.size()];
+            for (String gram : grams) {
+                IntList postings = trigrams.get(gram);
+                if (postings != null) {
+                    for (int k = 0; k < postings.size; k++) {
+                        shared[postings.values[k]]++;
+                    }
+                }
+            }
+
+            // a word containing the term has all of its trigrams
+            for (int doc = 0; doc < shared.length; doc++) {
+                if (shared[doc] == grams.size() && scores[doc] < PREFIX && docs.get(doc) != null
+                    && containsTerm(docs.get(doc), term)) {
+                    scores[doc] = SUBSTRING;
+                    found = true;
+                }
+            }
+
+            int maxEdits = maxEdits(term);
+            if (found || maxEdits == 0) {
+                return scores;
+            }
+            // each edit breaks at most three of the term's trigrams; the candidates sharing the most
+            // trigrams are compared first and the number of comparisons is capped
+            int minShared = Math.max(1, grams.size() - 3 * maxEdits);
+            int budget = MAX_FUZZY_CANDIDATES;
+            for (int required = grams.size(); required >= minShared && budget > 0; required--) {
+                for (int doc = 0; doc < shared.length && budget > 0; doc++) {
+                    if (shared[doc] != required || docs.get(doc) == null) {
+                        continue;
+                    }
+                    budget--;
+                    if (withinEdits(docs.get(doc), term, maxEdits)) {
+                        scores[doc] = FUZZY;
+                    }
+                }
+            }
+            return scores;
+        }
+
+        private static boolean containsTerm(Doc doc, String term) {
+            for (String word : doc.words()) {
+                if (word.contains(term)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean withinEdits(Doc doc, String term, int maxEdits) {
+            for (String word : doc.words()) {
+                if (prefixDistance(term, word, maxEdits) <= maxEdits) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /*
+        Selects the best limit documents with a bounded min-heap of document numbers (worst on
+        top), so a short query matching thousands of clients costs one int comparison for most
+        of them. Better means higher score, then alphabetical by last name, first name, email.
+         */
+        private List<ClientDTO> top(int[] scores, int limit) {
+            int[] heap = new int[limit];
+            int size = 0;
+            for (int doc = 0; doc < scores.length; doc++) {
+                if (scores[doc] == 0) {
+                    continue;
+                }
+                if (size < limit) {
+                    heap[size] = doc;
+                    siftUp(heap, size++, scores);
+                } else if (better(doc, heap[0], scores)) {
+                    heap[0] = doc;
+                    siftDown(heap, size, scores);
+                }
+            }
+
+            List<Integer> best = new ArrayList<>(size);
+            for (int k = 0; k < size; k++) {
+                best.add(heap[k]);
+            }
+            best.sort((a, b) -> better(a, b, scores) ? -1 : better(b, a, scores) ? 1 : 0);
+            return best.stream().map(doc -> docs.get(doc).client()).toList();
+        }
+
+        private boolean better(int doc, int other, int[] scores) {
+            if (scores[doc] != scores[other]) {
+                return scores[doc] > scores[other];
+            }
+            return docs.get(doc).sortKey().compareTo(docs.get(other).sortKey()) < 0;
+        }
+
+        private void siftUp(int[] heap, int index, int[] scores) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (!better(heap[parent], heap[index], scores)) {
+                    return;
+                }
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int size, int[] scores) {
+            int index = 0;
+            while (true) {
+                int worst = index;
+                for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+                    if (better(heap[worst], heap[child], scores)) {
+                        worst = child;
+                    }
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(heap, index, worst);
+                index = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+
+        private void add(ClientDTO client) {
+            int doc = docs.size();
+            String[] docWords = words(client);
+            String sortKey = normalize(nullToEmpty(client.lastName()) + " " + nullToEmpty(client.firstName()) + " "
+                + nullToEmpty(client.email()));
+            docs.add(new Doc(client, docWords, sortKey));
+            docByClient.put(client.id(), doc);
+
+            Set<String> docTrigrams = new LinkedHashSet<>();
+            for (String word : docWords) {
+                words.computeIfAbsent(word, w -> new IntList()).add(doc);
+                docTrigrams.addAll(trigrams(word));
+            }
+            for (String gram : docTrigrams) {
+                trigrams.computeIfAbsent(gram, g -> new IntList()).add(doc);
+            }
+        }
+
+        private void clear(UUID clientId) {
+            Integer doc = docByClient.remove(clientId);
+            if (doc != null) {
+                docs.set(doc, null);
+            }
+        }
+
+        private void compactIfNeeded() {
+            int cleared = docs.size() - docByClient.size();
+            if (cleared < 64 || cleared * 2 < docs.size()) {
+                return;
+            }
+            List<ClientDTO> live = docs.stream().filter(doc -> doc != null).map(Doc::client).toList();
+            docs.clear();
+            docByClient.clear();
+            words.clear();
+            trigrams.clear();
+            live.forEach(this::add);
+        }
+
+        private static String nullToEmpty(String value) {
+            return value == null ? "" : value;
+        }
+    }
+
+    // Growable int array for postings, avoids boxing every document number
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
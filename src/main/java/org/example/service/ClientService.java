@@ -8,6 +8,7 @@ import org.example.entity.client.UpdateClientDTO;
 import org.example.exception.EntityNotFoundException;
 import org.example.repository.ClientRepository;
 import org.example.repository.CompanyRepository;
+import org.example.repository.UnitOfWork;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,10 +17,24 @@ import java.util.UUID;
 public class ClientService {
     private final ClientRepository clientRepository;
     private final CompanyRepository companyRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final ClientSearchIndex searchIndex;
 
     public ClientService(ClientRepository clientRepository, CompanyRepository companyRepository) {
+        this(clientRepository, companyRepository, new OptimisticRetryExecutor());
+    }
+
+    public ClientService(ClientRepository clientRepository, CompanyRepository companyRepository,
+                         OptimisticRetryExecutor retryExecutor) {
+        this(clientRepository, companyRepository, retryExecutor, new ClientSearchIndex(clientRepository));
+    }
+
+    public ClientService(ClientRepository clientRepository, CompanyRepository companyRepository,
+                         OptimisticRetryExecutor retryExecutor, ClientSearchIndex searchIndex) {
         this.clientRepository = clientRepository;
         this.companyRepository = companyRepository;
+        this.retryExecutor = retryExecutor;
+        this.searchIndex = searchIndex;
     }
 
     public Optional<Client> findById(UUID clientId) {
@@ -32,54 +47,72 @@ public class ClientService {
             .toList();
     }
 
+    // Prefix, substring and typo-tolerant search over name, email and city, best matches first
+    public List<ClientDTO> searchClients(UUID companyId, String query, int limit) {
+        return searchIndex.search(companyId, query, limit);
+    }
+
     public ClientDTO createClient(CreateClientDTO dto) {
 
-        Company company = companyRepository.findById(dto.companyId())
-            .orElseThrow(() -> new EntityNotFoundException("Company", dto.companyId()));
+        return UnitOfWork.inTransaction(() -> {
+            // a missing company fails the FK constraint on insert -> EntityNotFoundException
+            Company company = companyRepository.getReference(dto.companyId());
 
-        Client client = Client.fromDTO(dto, company);
+            Client client = Client.fromDTO(dto, company);
 
-        clientRepository.create(client);
+            clientRepository.create(client);
 
-        return ClientDTO.fromEntity(client);
+            ClientDTO created = ClientDTO.fromEntity(client);
+            UnitOfWork.afterCommit(() -> searchIndex.put(created));
+            return created;
+        });
     }
 
     public ClientDTO updateClient(UpdateClientDTO dto) {
 
-        Client client = clientRepository.findById(dto.clientId())
-            .orElseThrow(() -> new EntityNotFoundException("Client", dto.clientId()));
-
-        if (dto.firstName() != null) {
-            client.setFirstName(dto.firstName());
-        }
-        if (dto.lastName() != null) {
-            client.setLastName(dto.lastName());
-        }
-        if (dto.email() != null) {
-            client.setEmail(dto.email());
-        }
-        if (dto.address() != null) {
-            client.setAddress(dto.address());
-        }
-        if (dto.city() != null) {
-            client.setCity(dto.city());
-        }
-        if (dto.country() != null) {
-            client.setCountry(dto.country());
-        }
-        if (dto.phoneNumber() != null) {
-            client.setPhoneNumber(dto.phoneNumber());
-        }
-
-        clientRepository.update(client);
-        return ClientDTO.fromEntity(client);
+        return retryExecutor.inTransaction("updateClient", () -> {
+            Client client = clientRepository.findById(dto.clientId())
+                .orElseThrow(() -> new EntityNotFoundException("Client", dto.clientId()));
+            OptimisticRetryExecutor.checkVersion("Client", dto.clientId(), dto.expectedVersion(), client.getVersion());
+
+            if (dto.firstName() != null) {
+                client.setFirstName(dto.firstName());
+            }
+            if (dto.lastName() != null) {
+                client.setLastName(dto.lastName());
+            }
+            if (dto.email() != null) {
+                client.setEmail(dto.email());
+            }
+            if (dto.address() != null) {
+                client.setAddress(dto.address());
+            }
+            if (dto.city() != null) {
+                client.setCity(dto.city());
+            }
+            if (dto.country() != null) {
+                client.setCountry(dto.country());
+            }
+            if (dto.phoneNumber() != null) {
+                client.setPhoneNumber(dto.phoneNumber());
+            }
+
+            clientRepository.update(client);
+            ClientDTO updated = ClientDTO.fromEntity(client);
+            UnitOfWork.afterCommit(() -> searchIndex.put(updated));
+            return updated;
+        });
     }
 
 
     public void deleteClient(UUID clientId) {
-        Client client = clientRepository.findById(clientId)
-            .orElseThrow(() -> new EntityNotFoundException("Client", clientId));
-
-        clientRepository.delete(client);
+        UnitOfWork.inTransaction(() -> {
+            Client client = clientRepository.findById(clientId)
+                .orElseThrow(() -> new EntityNotFoundException("Client", clientId));
+
+            clientRepository.delete(client);
+            UUID companyId = client.getCompany().getId();
+            UnitOfWork.afterCommit(() -> searchIndex.remove(companyId, clientId));
+        });
     }
 }
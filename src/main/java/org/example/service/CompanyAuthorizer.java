@@ -0,0 +1,88 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.company.CompanyUser;
+import org.example.entity.company.CompanyUserId;
+import org.example.exception.AuthorizationException;
+import org.example.repository.CompanyUserRepository;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/*
+Decides whether a user may act on a company, i.e. whether a company_user row links them.
+
+The companies of a user are read once with CompanyUserRepository.findByUserId (one query on
+idx_company_user_user) and kept as an immutable set, so a check is a cache hit plus a set lookup
+and a non-member is answered from the same set. The cache is a Caffeine map, which locks per hash
+bin: checks never lock, and loads for different users do not wait on each other.
+
+CompanyUserService and CompanyService invalidate a user after their membership changes commit.
+A load racing with such a change cannot win: invalidating a user whose load is in flight waits
+for that load and then drops its result. Changes made by other application instances are seen
+after auth.membership.ttlSeconds (300) at the latest.
+
+Settings (system properties): auth.membership.ttlSeconds (300), auth.membership.maxUsers (100000).
+ */
+@Slf4j
+public class CompanyAuthorizer {
+
+    private final CompanyUserRepository companyUserRepository;
+    private final Cache<UUID, Set<UUID>> companiesByUser;
+
+    public CompanyAuthorizer(CompanyUserRepository companyUserRepository) {
+        this(
+            companyUserRepository,
+            Duration.ofSeconds(Long.getLong("auth.membership.ttlSeconds", 300)),
+            Long.getLong("auth.membership.maxUsers", 100_000)
+        );
+    }
+
+    public CompanyAuthorizer(CompanyUserRepository companyUserRepository, Duration ttl, long maxUsers) {
+        this.companyUserRepository = companyUserRepository;
+        this.companiesByUser = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxUsers)
+            .build();
+    }
+
+    public boolean isMember(UUID userId, UUID companyId) {
+        if (userId == null || companyId == null) {
+            return false;
+        }
+        return companiesOf(userId).contains(companyId);
+    }
+
+    public void requireMember(UUID userId, UUID companyId) {
+        if (!isMember(userId, companyId)) {
+            log.warn("Access denied: userId={} is not a member of companyId={}", userId, companyId);
+            throw new AuthorizationException("You do not have access to this company");
+        }
+    }
+
+    public Set<UUID> companiesOf(UUID userId) {
+        return companiesByUser.get(userId, this::load);
+    }
+
+    public void invalidate(UUID userId) {
+        companiesByUser.invalidate(userId);
+    }
+
+    // A deleted company can be in the sets of any number of users
+    public void invalidateAll() {
+        companiesByUser.invalidateAll();
+    }
+
+    private Set<UUID> load(UUID userId) {
+        Set<UUID> companies = companyUserRepository.findByUserId(userId).stream()
+            .map(CompanyUser::getId)
+            .map(CompanyUserId::getCompanyId)
+            .collect(Collectors.toUnmodifiableSet());
+        log.debug("Loaded {} company memberships for userId={}", companies.size(), userId);
+        return companies;
+    }
+}
@@ -7,6 +7,7 @@ import org.example.exception.BusinessRuleException;
 import org.example.exception.EntityNotFoundException;
 import org.example.repository.CompanyRepository;
 import org.example.repository.CompanyUserRepository;
+import org.example.repository.UnitOfWork;
 import org.example.repository.UserRepository;
 
 import java.util.UUID;
@@ -17,15 +18,39 @@ public class CompanyService {
     private final CompanyRepository companyRepository;
     private final CompanyUserRepository companyUserRepository;
     private final UserRepository userRepository;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final CompanyAuthorizer authorizer;
 
     public CompanyService(
         CompanyRepository companyRepository,
         CompanyUserRepository companyUserRepository,
         UserRepository userRepository
+    ) {
+        this(companyRepository, companyUserRepository, userRepository, new OptimisticRetryExecutor());
+    }
+
+    public CompanyService(
+        CompanyRepository companyRepository,
+        CompanyUserRepository companyUserRepository,
+        UserRepository userRepository,
+        OptimisticRetryExecutor retryExecutor
+    ) {
+        this(companyRepository, companyUserRepository, userRepository, retryExecutor,
+            new CompanyAuthorizer(companyUserRepository));
+    }
+
+    public CompanyService(
+        CompanyRepository companyRepository,
+        CompanyUserRepository companyUserRepository,
+        UserRepository userRepository,
+        OptimisticRetryExecutor retryExecutor,
+        CompanyAuthorizer authorizer
     ) {
         this.companyRepository = companyRepository;
         this.companyUserRepository = companyUserRepository;
         this.userRepository = userRepository;
+        this.retryExecutor = retryExecutor;
+        this.authorizer = authorizer;
     }
 
     public CompanyDTO create(UUID creatorUserId, CreateCompanyDTO dto) {
@@ -37,50 +62,56 @@ public class CompanyService {
             creatorUserId
         );
 
-        User creator = userRepository.findById(creatorUserId)
-            .orElseThrow(() -> {
-                log.warn("Company creation failed: creator user not found id={}", creatorUserId);
-                return new EntityNotFoundException("User", creatorUserId);
-            });
-
-        if (companyRepository.existsByOrgNum(dto.orgNum())) {
-            log.warn("Company creation failed: orgNum={} already exists", dto.orgNum());
-            throw new BusinessRuleException(
-                "Company with organization number already exists"
+        return UnitOfWork.inTransaction(() -> {
+            User creator = userRepository.findById(creatorUserId)
+                .orElseThrow(() -> {
+                    log.warn("Company creation failed: creator user not found id={}", creatorUserId);
+                    return new EntityNotFoundException("User", creatorUserId);
+                });
+
+            if (companyRepository.existsByOrgNum(dto.orgNum())) {
+                log.warn("Company creation failed: orgNum={} already exists", dto.orgNum());
+                throw new BusinessRuleException(
+                    "Company with organization number already exists"
+                );
+            }
+
+            Company company = Company.fromDTO(dto);
+            companyRepository.create(company);
+
+            CompanyUser association = new CompanyUser(creator, company);
+            companyUserRepository.create(association);
+            UnitOfWork.afterCommit(() -> authorizer.invalidate(creatorUserId));
+
+            log.info(
+                "Company created successfully id={} orgNum={} creatorUserId={}",
+                company.getId(),
+                dto.orgNum(),
+                creatorUserId
             );
-        }
-
-        Company company = Company.fromDTO(dto);
-        companyRepository.create(company);
-
-        CompanyUser association = new CompanyUser(creator, company);
-        companyUserRepository.create(association);
 
-        log.info(
-            "Company created successfully id={} orgNum={} creatorUserId={}",
-            company.getId(),
-            dto.orgNum(),
-            creatorUserId
-        );
-
-        return CompanyDTO.fromEntity(company);
+            return CompanyDTO.fromEntity(company);
+        });
     }
 
     public CompanyDTO update(UpdateCompanyDTO dto) {
 
         log.debug("Company update requested: companyId={}", dto.companyId());
 
-        Company company = companyRepository.findById(dto.companyId())
-            .orElseThrow(() -> {
-                log.warn("Company update failed: company not found id={}", dto.companyId());
-                return new EntityNotFoundException("Company", dto.companyId());
-            });
+        return retryExecutor.inTransaction("updateCompany", () -> {
+            Company company = companyRepository.findById(dto.companyId())
+                .orElseThrow(() -> {
+                    log.warn("Company update failed: company not found id={}", dto.companyId());
+                    return new EntityNotFoundException("Company", dto.companyId());
+                });
+            OptimisticRetryExecutor.checkVersion("Company", dto.companyId(), dto.expectedVersion(), company.getVersion());
 
-        company.update(dto);
-        companyRepository.update(company);
+            company.update(dto);
+            companyRepository.update(company);
 
-        log.info("Company updated successfully id={}", company.getId());
-        return CompanyDTO.fromEntity(company);
+            log.info("Company updated successfully id={}", company.getId());
+            return CompanyDTO.fromEntity(company);
+        });
     }
 
     public Company getCompanyEntity(UUID companyId) {
@@ -98,13 +129,16 @@ public class CompanyService {
 
         log.debug("Company deletion requested id={}", companyId);
 
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> {
-                log.warn("Company deletion failed: company not found id={}", companyId);
-                return new EntityNotFoundException("Company", companyId);
-            });
+        UnitOfWork.inTransaction(() -> {
+            Company company = companyRepository.findById(companyId)
+                .orElseThrow(() -> {
+                    log.warn("Company deletion failed: company not found id={}", companyId);
+                    return new EntityNotFoundException("Company", companyId);
+                });
 
-        companyRepository.delete(company);
+            companyRepository.delete(company);
+            UnitOfWork.afterCommit(authorizer::invalidateAll);
+        });
 
         log.info("Company deleted successfully id={}", companyId);
     }
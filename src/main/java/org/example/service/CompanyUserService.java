@@ -9,6 +9,7 @@ import org.example.exception.BusinessRuleException;
 import org.example.exception.EntityNotFoundException;
 import org.example.repository.CompanyRepository;
 import org.example.repository.CompanyUserRepository;
+import org.example.repository.UnitOfWork;
 import org.example.repository.UserRepository;
 import org.example.util.LogUtil;
 
@@ -21,15 +22,26 @@ public class CompanyUserService {
     private final UserRepository userRepository;
     private final CompanyUserRepository companyUserRepository;
     private final CompanyRepository companyRepository;
+    private final CompanyAuthorizer authorizer;
 
     public CompanyUserService(
         UserRepository userRepository,
         CompanyUserRepository companyUserRepository,
         CompanyRepository companyRepository
+    ) {
+        this(userRepository, companyUserRepository, companyRepository, new CompanyAuthorizer(companyUserRepository));
+    }
+
+    public CompanyUserService(
+        UserRepository userRepository,
+        CompanyUserRepository companyUserRepository,
+        CompanyRepository companyRepository,
+        CompanyAuthorizer authorizer
     ) {
         this.userRepository = userRepository;
         this.companyUserRepository = companyUserRepository;
         this.companyRepository = companyRepository;
+        this.authorizer = authorizer;
     }
 
     public void addUserToCompanyByEmail(UUID companyId, String email) {
@@ -40,36 +52,37 @@ public class CompanyUserService {
             LogUtil.maskEmail(email)
         );
 
-        Company company = companyRepository.findById(companyId)
-            .orElseThrow(() -> {
-                log.warn("Add user failed: company not found id={}", companyId);
-                return new EntityNotFoundException("Company", companyId);
-            });
+        User user = UnitOfWork.inTransaction(() -> {
+            // a missing company fails the FK constraint on insert -> EntityNotFoundException
+            Company company = companyRepository.getReference(companyId);
 
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> {
-                log.warn(
-                    "Add user failed: user not found email={}",
-                    LogUtil.maskEmail(email)
-                );
-                return new EntityNotFoundException("User", email);
-            });
+            User member = userRepository.findByEmail(email)
+                .orElseThrow(() -> {
+                    log.warn(
+                        "Add user failed: user not found email={}",
+                        LogUtil.maskEmail(email)
+                    );
+                    return new EntityNotFoundException("User", email);
+                });
 
-        CompanyUserId id = new CompanyUserId(user.getId(), companyId);
+            CompanyUserId id = new CompanyUserId(member.getId(), companyId);
 
-        if (companyUserRepository.findById(id).isPresent()) {
-            log.warn(
-                "Add user failed: userId={} already in companyId={}",
-                user.getId(),
-                companyId
-            );
-            throw new BusinessRuleException(
-                "User is already associated with this company"
-            );
-        }
+            if (companyUserRepository.findById(id).isPresent()) {
+                log.warn(
+                    "Add user failed: userId={} already in companyId={}",
+                    member.getId(),
+                    companyId
+                );
+                throw new BusinessRuleException(
+                    "User is already associated with this company"
+                );
+            }
 
-        CompanyUser association = new CompanyUser(user, company);
-        companyUserRepository.create(association);
+            CompanyUser association = new CompanyUser(member, company);
+            companyUserRepository.create(association);
+            UnitOfWork.afterCommit(() -> authorizer.invalidate(member.getId()));
+            return member;
+        });
 
         log.info(
             "User added to company successfully userId={} companyId={}",
@@ -86,22 +99,25 @@ public class CompanyUserService {
             userId
         );
 
-        CompanyUserId id = new CompanyUserId(userId, companyId);
-
-        CompanyUser companyUser = companyUserRepository.findById(id)
-            .orElseThrow(() -> {
-                log.warn(
-                    "Delete user failed: userId={} not part of companyId={}",
-                    userId,
-                    companyId
-                );
-                return new EntityNotFoundException(
-                    "CompanyUser",
-                    String.format("userId=%s, companyId=%s", userId, companyId)
-                );
-            });
-
-        companyUserRepository.delete(companyUser);
+        UnitOfWork.inTransaction(() -> {
+            CompanyUserId id = new CompanyUserId(userId, companyId);
+
+            CompanyUser companyUser = companyUserRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.warn(
+                        "Delete user failed: userId={} not part of companyId={}",
+                        userId,
+                        companyId
+                    );
+                    return new EntityNotFoundException(
+                        "CompanyUser",
+                        String.format("userId=%s, companyId=%s", userId, companyId)
+                    );
+                });
+
+            companyUserRepository.delete(companyUser);
+            UnitOfWork.afterCommit(() -> authorizer.invalidate(userId));
+        });
 
         log.info(
             "User removed from company successfully userId={} companyId={}",
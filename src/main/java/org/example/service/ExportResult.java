@@ -0,0 +1,18 @@
+package org.example.service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Outcome of an {@link InvoiceExportService} export.
+ *
+ * @param rows     CSV data rows written, one per invoice line
+ * @param invoices distinct invoices exported
+ */
+public record ExportResult(Path file, long rows, long invoices, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.service;
+
+/**
+ * A CSV record that was rejected during an import.
+ *
+ * @param line    line in the file where the record starts (the header is line 1)
+ * @param message why the record was rejected
+ */
+public record ImportRowError(long line, String message) {
+}
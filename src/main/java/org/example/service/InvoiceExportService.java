@@ -0,0 +1,141 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.invoice.InvoiceExportRow;
+import org.example.exception.PersistenceException;
+import org.example.repository.InvoiceRepository;
+import org.example.util.Csv;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/*
+Writes all invoices of a company with their lines to a CSV file, one row per line.
+
+Rows are streamed from the database straight into a buffered writer, so heap use is the same for
+ten invoices or a million. The file is written next to the target as <name>.part and moved into
+place when complete, so a failed export never leaves a truncated file behind under the real name.
+ */
+@Slf4j
+public class InvoiceExportService {
+
+    public static final String[] HEADER = {
+        "invoice_number", "status", "created_at", "due_date", "client_name", "client_email",
+        "invoice_amount", "invoice_vat_amount", "quantity", "unit_price"
+    };
+
+    private static final int FETCH_SIZE = 1_000;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    private final InvoiceRepository invoiceRepository;
+
+    public InvoiceExportService(InvoiceRepository invoiceRepository) {
+        this.invoiceRepository = invoiceRepository;
+    }
+
+    public ExportResult exportCompanyInvoices(UUID companyId, Path target) {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long start = System.nanoTime();
+        RowWriter rowWriter;
+
+        try (Writer out = new BufferedWriter(
+            new OutputStreamWriter(Files.newOutputStream(partial), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE)) {
+            Csv.writeRow(out, (Object[]) HEADER);
+            rowWriter = new RowWriter(out);
+            invoiceRepository.forEachExportRow(companyId, FETCH_SIZE, rowWriter);
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(partial);
+            throw new PersistenceException("Invoice export to " + target + " failed", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(partial);
+            throw e;
+        }
+
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PersistenceException("Could not move export into place at " + target, e);
+        }
+
+        ExportResult result = new ExportResult(target, rowWriter.rows, rowWriter.invoices,
+            Duration.ofNanos(System.nanoTime() - start));
+        log.info(
+            "Exported {} invoices ({} rows) for company {} to {} in {} ms ({} rows/s)",
+            result.invoices(),
+            result.rows(),
+            companyId,
+            target,
+            result.elapsed().toMillis(),
+            Math.round(result.rowsPerSecond())
+        );
+        return result;
+    }
+
+    /*
+    The export rows without the CSV file, for callers that write them somewhere else (the HTTP API
+    streams them as JSON). Returns the number of rows; the consumer runs while the database cursor
+    is open, so it should not block for long.
+     */
+    public long streamCompanyInvoices(UUID companyId, Consumer<InvoiceExportRow> consumer) {
+        return invoiceRepository.forEachExportRow(companyId, FETCH_SIZE, consumer);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete partial export {}", path, e);
+        }
+    }
+
+    private static final class RowWriter implements Consumer<InvoiceExportRow> {
+        private final Writer out;
+        private UUID currentInvoice;
+        private long rows;
+        private long invoices;
+
+        private RowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(InvoiceExportRow row) {
+            if (!Objects.equals(row.invoiceId(), currentInvoice)) {
+                currentInvoice = row.invoiceId();
+                invoices++;
+            }
+            try {
+                Csv.writeRow(out,
+                    row.number(),
+                    row.status(),
+                    row.createdAt(),
+                    row.dueDate(),
+                    row.clientName(),
+                    row.clientEmail(),
+                    plain(row.amount()),
+                    plain(row.vatAmount()),
+                    row.quantity(),
+                    plain(row.unitPrice()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows++;
+        }
+
+        private static String plain(BigDecimal value) {
+            return value == null ? null : value.toPlainString();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of an {@link InvoiceImportService} import.
+ *
+ * @param invoices invoices inserted
+ * @param lines    invoice lines inserted with them
+ * @param rejected invoices that were not imported
+ * @param errors   the first rejected invoices, at most {@link InvoiceImportService#MAX_REPORTED_ERRORS},
+ *                 reported at the first line of each invoice
+ */
+public record InvoiceImportResult(long invoices, long lines, long rejected, List<ImportRowError> errors,
+                                  Duration elapsed) {
+
+    public double invoicesPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : (invoices + rejected) * 1_000_000_000.0 / nanos;
+    }
+}
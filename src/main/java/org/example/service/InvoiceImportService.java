@@ -0,0 +1,395 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.entity.invoice.Invoice;
+import org.example.entity.invoice.InvoiceItem;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.exception.EntityNotFoundException;
+import org.example.exception.PersistenceException;
+import org.example.exception.ValidationException;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.repository.InvoiceRepository;
+import org.example.repository.ReadRouting;
+import org.example.util.Csv;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/*
+Loads invoice history for one company from a CSV file in the layout written by
+InvoiceExportService: one row per invoice line, the invoice columns repeated on each of its rows,
+and the rows of one invoice next to each other. An invoice without lines is a single row with
+empty quantity and unit_price. invoice_number and client_email are required columns; clients are
+matched by email within the company and must exist already.
+
+Invoices are processed batchSize at a time. For each batch the clients and the numbers already in
+use are resolved with one query each, then all valid invoices of the batch are inserted with their
+lines in a single stateless transaction (InvoiceRepository.insertAggregates). Invoices that fail
+validation are reported and skipped. If the batch insert itself fails, its invoices are retried one
+by one so a single bad invoice does not take the others down with it. Only the current batch is
+held in memory.
+
+Imported numbers in the INV-000123 format are reserved in the company's number sequence afterwards,
+so invoices created later do not get the same numbers.
+
+Settings (system properties): invoice.import.batchSize (200).
+ */
+@Slf4j
+public class InvoiceImportService {
+
+    public static final int MAX_REPORTED_ERRORS = 1_000;
+
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_NUMBER_LENGTH = 255;
+
+    private static final String[] COLUMNS = {
+        "invoice_number", "status", "created_at", "due_date", "client_email",
+        "invoice_amount", "invoice_vat_amount", "quantity", "unit_price"
+    };
+    private static final int NUMBER = 0;
+    private static final int STATUS = 1;
+    private static final int CREATED_AT = 2;
+    private static final int DUE_DATE = 3;
+    private static final int CLIENT_EMAIL = 4;
+    private static final int AMOUNT = 5;
+    private static final int VAT_AMOUNT = 6;
+    private static final int QUANTITY = 7;
+    private static final int UNIT_PRICE = 8;
+
+    private final InvoiceRepository invoiceRepository;
+    private final CompanyRepository companyRepository;
+    private final ClientRepository clientRepository;
+    private final InvoiceNumberAllocator numberAllocator;
+    private final InvoiceStatisticsCache statisticsCache;
+    private final int batchSize;
+
+    public InvoiceImportService(InvoiceRepository invoiceRepository, CompanyRepository companyRepository,
+                                ClientRepository clientRepository, InvoiceNumberAllocator numberAllocator,
+                                InvoiceStatisticsCache statisticsCache) {
+        this(invoiceRepository, companyRepository, clientRepository, numberAllocator, statisticsCache,
+            Integer.getInteger("invoice.import.batchSize", DEFAULT_BATCH_SIZE));
+    }
+
+    public InvoiceImportService(InvoiceRepository invoiceRepository, CompanyRepository companyRepository,
+                                ClientRepository clientRepository, InvoiceNumberAllocator numberAllocator,
+                                InvoiceStatisticsCache statisticsCache, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.invoiceRepository = invoiceRepository;
+        this.companyRepository = companyRepository;
+        this.clientRepository = clientRepository;
+        this.numberAllocator = numberAllocator;
+        this.statisticsCache = statisticsCache;
+        this.batchSize = batchSize;
+    }
+
+    public InvoiceImportResult importInvoices(UUID companyId, Path file) {
+        Company company = companyRepository.findById(companyId)
+            .orElseThrow(() -> new EntityNotFoundException("Company", companyId));
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+
+        try (LineNumberReader in = new LineNumberReader(
+            new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+            List<String> header = Csv.readRow(in);
+            if (header == null) {
+                throw new ValidationException("Import file is empty");
+            }
+            int[] columns = Csv.columnIndexes(header, COLUMNS);
+            if (columns[NUMBER] < 0 || columns[CLIENT_EMAIL] < 0) {
+                throw new ValidationException("Import file needs invoice_number and client_email columns");
+            }
+
+            List<RecordGroup> batch = new ArrayList<>(batchSize);
+            RecordGroup group = null;
+            while (true) {
+                long line = in.getLineNumber() + 1;
+                List<String> fields = Csv.readRow(in);
+                if (fields == null) {
+                    break;
+                }
+                if (isBlank(fields)) {
+                    continue;
+                }
+                String number = field(fields, columns[NUMBER]);
+                if (group != null && number != null && number.equals(group.number)) {
+                    group.rows.add(fields);
+                    continue;
+                }
+                if (group != null) {
+                    batch.add(group);
+                    if (batch.size() == batchSize) {
+                        importBatch(company, batch, columns, progress);
+                        batch.clear();
+                    }
+                }
+                group = new RecordGroup(line, number);
+                group.rows.add(fields);
+            }
+            if (group != null) {
+                batch.add(group);
+            }
+            importBatch(company, batch, columns, progress);
+        } catch (IOException e) {
+            throw new PersistenceException("Invoice import from " + file + " failed", e);
+        } finally {
+            if (progress.invoices > 0) {
+                statisticsCache.invalidate(companyId);
+            }
+            if (progress.highestNumber > 0) {
+                numberAllocator.reserveThrough(companyId, progress.highestNumber);
+            }
+        }
+
+        InvoiceImportResult result = new InvoiceImportResult(progress.invoices, progress.lines, progress.rejected,
+            List.copyOf(progress.errors), Duration.ofNanos(System.nanoTime() - start));
+        log.info(
+            "Imported {} invoices ({} lines) for company {} from {} ({} rejected) in {} ms ({} invoices/s)",
+            result.invoices(),
+            result.lines(),
+            companyId,
+            file,
+            result.rejected(),
+            result.elapsed().toMillis(),
+            Math.round(result.invoicesPerSecond())
+        );
+        return result;
+    }
+
+    private void importBatch(Company company, List<RecordGroup> batch, int[] columns, Progress progress) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Set<String> numbers = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (RecordGroup group : batch) {
+            if (group.number != null) {
+                numbers.add(group.number);
+            }
+            String email = field(group.rows.getFirst(), columns[CLIENT_EMAIL]);
+            if (email != null) {
+                emails.add(email);
+            }
+        }
+
+        // on the primary: the previous batch has just been committed and must be visible
+        Set<String> existingNumbers = ReadRouting.primary(() ->
+            invoiceRepository.findExistingNumbers(company.getId(), numbers));
+        Map<String, Client> clientsByEmail = new HashMap<>();
+        // emails are not unique per company, the oldest client with the email wins; on the primary
+        // as well, clients created just before the import must be found
+        ReadRouting.primary(() -> clientRepository.findByCompanyIdAndEmails(company.getId(), emails))
+            .forEach(client -> clientsByEmail.putIfAbsent(client.getEmail().toLowerCase(Locale.ROOT), client));
+
+        List<Invoice> invoices = new ArrayList<>(batch.size());
+        List<RecordGroup> accepted = new ArrayList<>(batch.size());
+        Set<String> batchNumbers = new HashSet<>();
+        for (RecordGroup group : batch) {
+            try {
+                Invoice invoice = toInvoice(group, columns, company, clientsByEmail);
+                if (existingNumbers.contains(group.number) || !batchNumbers.add(group.number)) {
+                    throw new ValidationException("invoice number " + group.number + " is already in use");
+                }
+                invoices.add(invoice);
+                accepted.add(group);
+            } catch (ValidationException e) {
+                progress.reject(group, e.getMessage());
+            }
+        }
+
+        try {
+            invoiceRepository.insertAggregates(invoices);
+            invoices.forEach(progress::imported);
+        } catch (RuntimeException batchFailure) {
+            log.warn("Invoice import batch of {} failed, retrying its invoices one by one", invoices.size(), batchFailure);
+            for (RecordGroup group : accepted) {
+                try {
+                    Invoice invoice = toInvoice(group, columns, company, clientsByEmail);
+                    invoiceRepository.insertAggregates(List.of(invoice));
+                    progress.imported(invoice);
+                } catch (RuntimeException e) {
+                    progress.reject(group, "insert failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Invoice toInvoice(RecordGroup group, int[] columns, Company company, Map<String, Client> clientsByEmail) {
+        List<String> first = group.rows.getFirst();
+        if (group.number == null) {
+            throw new ValidationException("invoice_number is required");
+        }
+        if (group.number.length() > MAX_NUMBER_LENGTH) {
+            throw new ValidationException("invoice_number is longer than " + MAX_NUMBER_LENGTH + " characters");
+        }
+        String email = field(first, columns[CLIENT_EMAIL]);
+        if (email == null) {
+            throw new ValidationException("client_email is required");
+        }
+        Client client = clientsByEmail.get(email.toLowerCase(Locale.ROOT));
+        if (client == null) {
+            throw new ValidationException("no client with the email of invoice " + group.number);
+        }
+
+        String status = field(first, columns[STATUS]);
+        Invoice invoice = Invoice.builder()
+            .company(company)
+            .client(client)
+            .number(group.number)
+            .status(status == null ? InvoiceStatus.CREATED : parseStatus(status))
+            .createdAt(parseDateTime(first, columns[CREATED_AT], "created_at"))
+            .dueDate(parseDateTime(first, columns[DUE_DATE], "due_date"))
+            .amount(BigDecimal.ZERO)
+            .vatAmount(orZero(parseAmount(first, columns[VAT_AMOUNT], "invoice_vat_amount")))
+            .invoiceItems(new ArrayList<>())
+            .build();
+
+        for (List<String> row : group.rows) {
+            String quantity = field(row, columns[QUANTITY]);
+            BigDecimal unitPrice = parseAmount(row, columns[UNIT_PRICE], "unit_price");
+            if (quantity == null && unitPrice == null) {
+                continue; // invoice without lines
+            }
+            if (quantity == null || unitPrice == null) {
+                throw new ValidationException("quantity and unit_price must both be set on a line of invoice " + group.number);
+            }
+            InvoiceItem item = new InvoiceItem();
+            item.setQuantity(parseQuantity(quantity));
+            item.setUnitPrice(unitPrice);
+            invoice.addItem(item);
+        }
+
+        BigDecimal amount = parseAmount(first, columns[AMOUNT], "invoice_amount");
+        if (invoice.getInvoiceItems().isEmpty()) {
+            invoice.setAmount(orZero(amount));
+        } else if (amount != null && amount.compareTo(invoice.getAmount()) != 0) {
+            throw new ValidationException("invoice_amount " + amount + " of invoice " + group.number
+                + " does not match the sum of its lines " + invoice.getAmount());
+        }
+        return invoice;
+    }
+
+    private static InvoiceStatus parseStatus(String value) {
+        try {
+            return InvoiceStatus.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("unknown status " + value);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(List<String> row, int column, String name) {
+        String value = field(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException(name + " is not an ISO date-time: " + value);
+        }
+    }
+
+    private static BigDecimal parseAmount(List<String> row, int column, String name) {
+        String value = field(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            BigDecimal amount = new BigDecimal(value);
+            if (amount.signum() < 0) {
+                throw new ValidationException(name + " must not be negative: " + value);
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new ValidationException(name + " is not a number: " + value);
+        }
+    }
+
+    private static int parseQuantity(String value) {
+        try {
+            int quantity = Integer.parseInt(value);
+            if (quantity < 1) {
+                throw new ValidationException("quantity must be positive: " + value);
+            }
+            return quantity;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("quantity is not a whole number: " + value);
+        }
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    // Trimmed value of the column, null when the column is missing or the value is empty
+    private static String field(List<String> row, int column) {
+        if (column < 0 || column >= row.size()) {
+            return null;
+        }
+        String value = row.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static boolean isBlank(List<String> fields) {
+        for (String field : fields) {
+            if (!field.isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // The rows of one invoice, starting at line
+    private static final class RecordGroup {
+        private final long line;
+        private final String number;
+        private final List<List<String>> rows = new ArrayList<>(1);
+
+        private RecordGroup(long line, String number) {
+            this.line = line;
+            this.number = number;
+        }
+    }
+
+    private static final class Progress {
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private long invoices;
+        private long lines;
+        private long rejected;
+        private long highestNumber;
+
+        private void imported(Invoice invoice) {
+            invoices++;
+            lines += invoice.getInvoiceItems().size();
+            highestNumber = Math.max(highestNumber, InvoiceNumberAllocator.parse(invoice.getNumber()));
+        }
+
+        private void reject(RecordGroup group, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(group.line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.InvoiceNumberSequenceRepository;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Hands out invoice numbers per company from blocks leased from the database (hi/lo).
+Taking a number from the current block is a single atomic increment; only the thread that
+finds a block exhausted goes to the database, the others wait for its new block.
+
+Numbers are unique across application instances but not gap free: the rest of a block is
+lost when the application stops, and a number is not returned when the invoice insert fails.
+With several instances the numbers of one company are also not strictly in creation order.
+ */
+@Slf4j
+public class InvoiceNumberAllocator {
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private static final Pattern FORMATTED = Pattern.compile("INV-(\\d{1,18})");
+
+    private final InvoiceNumberSequenceRepository sequenceRepository;
+    private final int blockSize;
+    private final ConcurrentHashMap<UUID, Block> blocks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Object> refillLocks = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(InvoiceNumberSequenceRepository sequenceRepository) {
+        this(sequenceRepository, Integer.getInteger("invoice.number.blockSize", DEFAULT_BLOCK_SIZE));
+    }
+
+    public InvoiceNumberAllocator(InvoiceNumberSequenceRepository sequenceRepository, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.sequenceRepository = sequenceRepository;
+        this.blockSize = blockSize;
+    }
+
+    public String nextNumber(UUID companyId) {
+        return format(nextValue(companyId));
+    }
+
+    public static String format(long value) {
+        return String.format("INV-%06d", value);
+    }
+
+    // The value of a number in the format produced by format, or -1 for any other number
+    public static long parse(String number) {
+        Matcher matcher = FORMATTED.matcher(number);
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /*
+    Makes sure numbers up to and including value are not handed out for the company any more,
+    e.g. after importing invoices numbered elsewhere. A cached block that does not start after
+    value is dropped; blocks cached by other application instances are kept until they run out.
+     */
+    public void reserveThrough(UUID companyId, long value) {
+        sequenceRepository.advanceTo(companyId, value + 1);
+        Object lock = refillLocks.computeIfAbsent(companyId, id -> new Object());
+        synchronized (lock) {
+            Block block = blocks.get(companyId);
+            if (block != null && block.next.get() <= value) {
+                blocks.remove(companyId, block);
+            }
+        }
+    }
+
+    long nextValue(UUID companyId) {
+        while (true) {
+            Block block = blocks.get(companyId);
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.end) {
+                    return value;
+                }
+            }
+            refill(companyId, block);
+        }
+    }
+
+    private void refill(UUID companyId, Block exhausted) {
+        Object lock = refillLocks.computeIfAbsent(companyId, id -> new Object());
+        synchronized (lock) {
+            if (blocks.get(companyId) != exhausted) {
+                return; // another thread already leased a new block
+            }
+            long first = sequenceRepository.leaseBlock(companyId, blockSize);
+            log.debug("Leased invoice numbers {}..{} for company {}", first, first + blockSize - 1, companyId);
+            blocks.put(companyId, new Block(first, first + blockSize));
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long first, long end) {
+            this.next = new AtomicLong(first);
+            this.end = end;
+        }
+    }
+}
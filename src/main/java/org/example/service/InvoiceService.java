@@ -5,10 +5,15 @@ import org.example.entity.company.Company;
 import org.example.entity.invoice.*;
 import org.example.exception.BusinessRuleException;
 import org.example.exception.EntityNotFoundException;
+import org.example.exception.ValidationException;
 import org.example.repository.ClientRepository;
 import org.example.repository.CompanyRepository;
 import org.example.repository.InvoiceRepository;
+import org.example.repository.InvoiceSearchCriteria;
+import org.example.repository.KeysetPage;
+import org.example.repository.UnitOfWork;
 import lombok.extern.slf4j.Slf4j;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,63 +21,108 @@ import java.util.UUID;
 @Slf4j
 public class InvoiceService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final InvoiceRepository invoiceRepository;
     private final CompanyRepository companyRepository;
     private final ClientRepository clientRepository;
+    private final InvoiceNumberAllocator numberAllocator;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final InvoiceStatisticsCache statisticsCache;
+
+    public InvoiceService(InvoiceRepository invoiceRepository,
+                          CompanyRepository companyRepository,
+                          ClientRepository clientRepository,
+                          InvoiceNumberAllocator numberAllocator) {
+        this(invoiceRepository, companyRepository, clientRepository, numberAllocator, new OptimisticRetryExecutor());
+    }
 
     public InvoiceService(InvoiceRepository invoiceRepository,
                           CompanyRepository companyRepository,
-                          ClientRepository clientRepository) {
+                          ClientRepository clientRepository,
+                          InvoiceNumberAllocator numberAllocator,
+                          OptimisticRetryExecutor retryExecutor) {
+        this(invoiceRepository, companyRepository, clientRepository, numberAllocator, retryExecutor, new InvoiceStatisticsCache());
+    }
+
+    public InvoiceService(InvoiceRepository invoiceRepository,
+                          CompanyRepository companyRepository,
+                          ClientRepository clientRepository,
+                          InvoiceNumberAllocator numberAllocator,
+                          OptimisticRetryExecutor retryExecutor,
+                          InvoiceStatisticsCache statisticsCache) {
         this.invoiceRepository = invoiceRepository;
         this.companyRepository = companyRepository;
         this.clientRepository = clientRepository;
+        this.numberAllocator = numberAllocator;
+        this.retryExecutor = retryExecutor;
+        this.statisticsCache = statisticsCache;
     }
 
+    /*
+    A blank number gets the company's next number from the allocator. A number typed by the
+    user is checked against the company's existing invoices first; if it is in the allocator's
+    format it is also reserved, so the allocator does not hand it out again later.
+     */
     public InvoiceDTO createInvoice(CreateInvoiceDTO dto) {
-        if (invoiceRepository.findByInvoiceNumber(dto.number()).isPresent()) {
-            log.warn("Invoice creation failed: Number {} is already in use for company {}", dto.number(), dto.companyId());
-            throw new BusinessRuleException("Invoice number already in use: " + dto.number());
-        }
-
-        Company company = companyRepository.findById(dto.companyId())
-            .orElseThrow(() -> new EntityNotFoundException("Company", dto.companyId()));
-
-        Client client = clientRepository.findById(dto.clientId())
-            .orElseThrow(() -> new EntityNotFoundException("Client", dto.clientId()));
-
-        Invoice invoice = Invoice.fromDTO(dto, company, client);
-
-        Invoice saved = invoiceRepository.create(invoice);
-        log.info("Successfully created invoice {} (ID: {}) for company {}", saved.getNumber(), saved.getId(), dto.companyId());
-
-        return InvoiceDTO.fromEntity(saved);
+        return UnitOfWork.inTransaction(() -> {
+            String number;
+            if (dto.number() == null || dto.number().isBlank()) {
+                number = numberAllocator.nextNumber(dto.companyId());
+            } else {
+                number = dto.number().trim();
+                if (invoiceRepository.existsByCompanyIdAndNumber(dto.companyId(), number)) {
+                    log.warn("Invoice creation failed: Number {} is already in use for company {}", number, dto.companyId());
+                    throw new BusinessRuleException("Invoice number already in use: " + number);
+                }
+                long value = InvoiceNumberAllocator.parse(number);
+                if (value > 0) {
+                    numberAllocator.reserveThrough(dto.companyId(), value);
+                }
+            }
+
+            // Only the foreign keys are needed; a missing company/client fails the FK constraint
+            // on insert and comes back as EntityNotFoundException
+            Company company = companyRepository.getReference(dto.companyId());
+            Client client = clientRepository.getReference(dto.clientId());
+
+            Invoice invoice = Invoice.fromDTO(dto, company, client);
+            invoice.setNumber(number);
+
+            Invoice saved = invoiceRepository.create(invoice);
+            UnitOfWork.afterCommit(() -> statisticsCache.invalidate(dto.companyId()));
+            log.info("Successfully created invoice {} (ID: {}) for company {}", saved.getNumber(), saved.getId(), dto.companyId());
+
+            return InvoiceDTO.fromEntity(saved);
+        });
     }
 
 
     public InvoiceDTO updateInvoice(UpdateInvoiceDTO dto) {
         log.info("Updating invoice ID: {}", dto.invoiceId());
 
-        Invoice invoice = invoiceRepository.findByIdWithItems(dto.invoiceId())
-            .orElseThrow(() -> new EntityNotFoundException("Invoice", dto.invoiceId()));
-
-        if (dto.dueDate() != null) invoice.setDueDate(dto.dueDate());
-        if (dto.status() != null) invoice.setStatus(dto.status());
-
-        if (dto.items() != null) {
-            log.debug("Refreshing items for invoice {}. New item count: {}", dto.invoiceId(), dto.items().size());
-            invoice.clearItems();
-            dto.items().forEach(itemDTO -> {
-                InvoiceItem item = new InvoiceItem();
-                item.setQuantity(itemDTO.quantity());
-                item.setUnitPrice(itemDTO.unitPrice());
-                invoice.addItem(item);
-            });
-        }
-
-        invoice.recalcTotals();
-        Invoice updated = invoiceRepository.update(invoice);
-        log.info("Successfully updated invoice {}. New total amount: {}", updated.getId(), updated.getAmount());
-        return InvoiceDTO.fromEntity(updated);
+        return retryExecutor.inTransaction("updateInvoice", () -> {
+            Invoice invoice = invoiceRepository.findByIdWithItems(dto.invoiceId())
+                .orElseThrow(() -> new EntityNotFoundException("Invoice", dto.invoiceId()));
+            OptimisticRetryExecutor.checkVersion("Invoice", dto.invoiceId(), dto.expectedVersion(), invoice.getVersion());
+
+            if (dto.dueDate() != null) invoice.setDueDate(dto.dueDate());
+            if (dto.status() != null) invoice.setStatus(dto.status());
+
+            if (dto.items() != null) {
+                log.debug("Refreshing items for invoice {}. New item count: {}", dto.invoiceId(), dto.items().size());
+                invoice.replaceItems(dto.items());
+                // the items are part of the invoice aggregate, an item-only change must bump its version too
+                invoiceRepository.forceVersionIncrement(invoice);
+            }
+
+            invoice.recalcTotals();
+            Invoice updated = invoiceRepository.update(invoice);
+            UUID companyId = updated.getCompany().getId();
+            UnitOfWork.afterCommit(() -> statisticsCache.invalidate(companyId));
+            log.info("Successfully updated invoice {}. New total amount: {}", updated.getId(), updated.getAmount());
+            return InvoiceDTO.fromEntity(updated);
+        });
     }
 
 
@@ -82,20 +132,28 @@ public class InvoiceService {
     }
 
     public void updateStatus(UUID id, InvoiceStatus newStatus) {
-        Invoice invoice = invoiceRepository.findById(id)
-            .orElseThrow(() -> new EntityNotFoundException("Invoice", id));
-
-        invoice.setStatus(newStatus);
-        invoiceRepository.update(invoice);
+        retryExecutor.inTransaction("updateStatus", () -> {
+            Invoice invoice = invoiceRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Invoice", id));
+
+            invoice.setStatus(newStatus);
+            invoiceRepository.update(invoice);
+            UUID companyId = invoice.getCompany().getId();
+            UnitOfWork.afterCommit(() -> statisticsCache.invalidate(companyId));
+        });
         log.info("Invoice {} status successfully updated to {}", id, newStatus);
     }
 
     public void deleteById(UUID id) {
         log.info("Attempting to delete invoice {}", id);
-        if (!invoiceRepository.existsById(id)) {
-            throw new EntityNotFoundException("Invoice", id);
-        }
-        invoiceRepository.deleteById(id);
+        UnitOfWork.inTransaction(() -> {
+            Invoice invoice = invoiceRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Invoice", id));
+
+            invoiceRepository.delete(invoice);
+            UUID companyId = invoice.getCompany().getId();
+            UnitOfWork.afterCommit(() -> statisticsCache.invalidate(companyId));
+        });
     }
 
     public List<InvoiceDTO> getInvoicesByCompany(UUID companyId) {
@@ -109,4 +167,68 @@ public class InvoiceService {
             .map(InvoiceDTO::fromEntity)
             .toList();
     }
+
+    public KeysetPage<InvoiceDTO> getInvoicePageByCompany(UUID companyId, String pageToken, int pageSize) {
+        validatePageSize(pageSize);
+        return invoiceRepository.findPageByCompanyId(companyId, pageToken, pageSize)
+            .map(InvoiceDTO::fromEntity);
+    }
+
+    public KeysetPage<InvoiceDTO> getInvoicePageByClient(UUID clientId, String pageToken, int pageSize) {
+        validatePageSize(pageSize);
+        return invoiceRepository.findPageByClientId(clientId, pageToken, pageSize)
+            .map(InvoiceDTO::fromEntity);
+    }
+
+    public KeysetPage<InvoiceSummary> getInvoiceSummariesByCompany(UUID companyId, String pageToken, int pageSize) {
+        validatePageSize(pageSize);
+        return invoiceRepository.findSummaryPageByCompanyId(companyId, pageToken, pageSize);
+    }
+
+    // Filtered, sorted listing for operators; see InvoiceRepository.search
+    public KeysetPage<InvoiceSummary> searchInvoices(InvoiceSearchCriteria criteria, String pageToken, int pageSize) {
+        validatePageSize(pageSize);
+        if (criteria.companyId() == null) {
+            throw new ValidationException("Company is required");
+        }
+        if (criteria.dueFrom() != null && criteria.dueBefore() != null && !criteria.dueFrom().isBefore(criteria.dueBefore())) {
+            throw new ValidationException("Due date range is empty");
+        }
+        if (criteria.minAmount() != null && criteria.maxAmount() != null
+            && criteria.minAmount().compareTo(criteria.maxAmount()) > 0) {
+            throw new ValidationException("Minimum amount must not be above maximum amount");
+        }
+        return invoiceRepository.search(criteria, pageToken, pageSize);
+    }
+
+    /*
+    Dashboard aggregates, computed by the database and cached per company until one of its
+    invoices is written (see InvoiceStatisticsCache).
+     */
+    public List<InvoiceStatusTotals> getStatusTotals(UUID companyId) {
+        return statisticsCache.get(companyId, "status", () -> invoiceRepository.sumByStatus(companyId));
+    }
+
+    // Months from..to, both inclusive
+    public List<InvoiceMonthlyTotals> getMonthlyTotals(UUID companyId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new ValidationException("Start month must not be after end month");
+        }
+        return statisticsCache.get(companyId, List.of("month", from, to), () -> invoiceRepository.sumByMonth(
+            companyId, from.atDay(1).atStartOfDay(), to.plusMonths(1).atDay(1).atStartOfDay()));
+    }
+
+    public List<InvoiceClientTotals> getClientTotals(UUID companyId) {
+        return statisticsCache.get(companyId, "client", () -> invoiceRepository.sumByClient(companyId));
+    }
+
+    public RetryMetrics getRetryMetrics() {
+        return retryExecutor.getMetrics();
+    }
+
+    private void validatePageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
 }
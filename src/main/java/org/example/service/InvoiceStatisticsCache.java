@@ -0,0 +1,60 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+Caches invoice aggregates per company until an invoice of that company is written.
+
+Every company has one bucket holding all of its cached views. Invalidation drops the whole bucket
+and the next read starts a new one. A load that was running while the bucket was dropped still
+finishes, but its result lands in the old bucket that nobody reads anymore. So a result computed
+before a write can never be served after it. Callers invalidate after their transaction has
+committed.
+
+Writes made by other application instances are not seen. The time-to-live
+(invoice.statistics.ttlSeconds, 60 by default) bounds how stale a result can get, also when the
+aggregates are read from a lagging replica.
+ */
+public class InvoiceStatisticsCache {
+
+    private final Cache<UUID, ConcurrentHashMap<Object, Object>> buckets;
+
+    public InvoiceStatisticsCache() {
+        this(Duration.ofSeconds(Long.getLong("invoice.statistics.ttlSeconds", 60)), 10_000);
+    }
+
+    public InvoiceStatisticsCache(Duration ttl, long maxCompanies) {
+        this.buckets = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxCompanies)
+            .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID companyId, Object view, Supplier<T> loader) {
+        ConcurrentHashMap<Object, Object> bucket = buckets.get(companyId, id -> new ConcurrentHashMap<>());
+        Object cached = bucket.get(view);
+        if (cached != null) {
+            return (T) cached;
+        }
+        T value = loader.get();
+        if (value != null) {
+            bucket.putIfAbsent(view, value);
+        }
+        return value;
+    }
+
+    public void invalidate(UUID companyId) {
+        buckets.invalidate(companyId);
+    }
+
+    public void invalidateAll() {
+        buckets.invalidateAll();
+    }
+}
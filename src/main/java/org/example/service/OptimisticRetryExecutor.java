@@ -0,0 +1,111 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.exception.BusinessRuleException;
+import org.example.exception.ConcurrentUpdateException;
+import org.example.exception.VersionMismatchException;
+import org.example.repository.UnitOfWork;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/*
+Runs a read-modify-write in its own UnitOfWork and runs it again when the commit fails the
+@Version check, so it is re-applied on top of the other writer's change instead of overwriting it.
+Only pass work that reads what it changes inside the supplier and is safe to apply twice
+(setting fields, replacing items), never work with side effects outside the database.
+
+Between attempts it sleeps a random time up to baseBackoffMs * 2^(attempt-1), capped at
+maxBackoffMs, so two conflicting writers do not collide again on the next attempt.
+When the caller is already inside a UnitOfWork the work joins it and is not retried here,
+a conflict fails the outer transaction. A VersionMismatchException from checkVersion is never
+retried: the caller has to reload the record.
+ */
+@Slf4j
+public class OptimisticRetryExecutor {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_BACKOFF_MS = 20;
+    public static final long DEFAULT_MAX_BACKOFF_MS = 200;
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public OptimisticRetryExecutor() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_BACKOFF_MS, DEFAULT_MAX_BACKOFF_MS);
+    }
+
+    public OptimisticRetryExecutor(int maxAttempts, long baseBackoffMs, long maxBackoffMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public <R> R inTransaction(String operation, Supplier<R> work) {
+        if (UnitOfWork.isActive()) {
+            return UnitOfWork.inTransaction(work);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return UnitOfWork.inTransaction(work);
+            } catch (VersionMismatchException e) {
+                throw e;
+            } catch (ConcurrentUpdateException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    log.warn("{} still conflicting after {} attempts, giving up", operation, attempt);
+                    throw new BusinessRuleException(
+                        "The record was changed by someone else, please reload it and try again", e);
+                }
+                retries.increment();
+                log.debug("{} hit a concurrent update, retrying (attempt {} of {})", operation, attempt + 1, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void inTransaction(String operation, Runnable work) {
+        inTransaction(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /*
+    Compares the version the caller edited with the version just read in the transaction.
+    A null expected version skips the check, for callers that do not track versions.
+     */
+    public static void checkVersion(String entityName, Object identifier, Long expectedVersion, Long actualVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(actualVersion)) {
+            throw new VersionMismatchException(entityName, identifier, expectedVersion, actualVersion);
+        }
+    }
+
+    public RetryMetrics getMetrics() {
+        return new RetryMetrics(conflicts.sum(), retries.sum(), exhausted.sum());
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessRuleException("Interrupted while retrying a concurrent update", e);
+        }
+    }
+}
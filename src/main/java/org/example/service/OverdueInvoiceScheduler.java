@@ -0,0 +1,163 @@
+package org.example.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.repository.InvoiceRepository;
+import org.example.repository.OverdueChunk;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+Periodically moves SENT invoices whose due date has passed to OVERDUE.
+
+Each pass walks the candidates in (dueDate, id) order in chunks of batchSize; every chunk is one
+short bulk UPDATE transaction (InvoiceRepository.markOverdueChunk), and the job pauses between
+chunks so operator transactions on the same rows get their turn. A pass does at most
+maxChunksPerRun chunks; when it stops early the cursor is kept and the next pass continues there.
+
+Settings (system properties): invoice.overdue.intervalSeconds (300, 0 disables the schedule),
+invoice.overdue.batchSize (500), invoice.overdue.pauseMs (50), invoice.overdue.maxChunksPerRun (200).
+ */
+@Slf4j
+public class OverdueInvoiceScheduler implements AutoCloseable {
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceStatisticsCache statisticsCache;
+    private final Clock clock;
+    private final Duration interval;
+    private final int batchSize;
+    private final Duration pauseBetweenChunks;
+    private final int maxChunksPerRun;
+    private final ScheduledExecutorService executor;
+
+    // cursor of an unfinished pass, only touched by the scheduler thread or a runOnce caller
+    private LocalDateTime passStartedAt;
+    private LocalDateTime cursorDueDate;
+    private UUID cursorId;
+
+    public OverdueInvoiceScheduler(InvoiceRepository invoiceRepository, InvoiceStatisticsCache statisticsCache) {
+        this(
+            invoiceRepository,
+            statisticsCache,
+            Clock.systemDefaultZone(),
+            Duration.ofSeconds(Long.getLong("invoice.overdue.intervalSeconds", 300)),
+            Integer.getInteger("invoice.overdue.batchSize", 500),
+            Duration.ofMillis(Long.getLong("invoice.overdue.pauseMs", 50)),
+            Integer.getInteger("invoice.overdue.maxChunksPerRun", 200)
+        );
+    }
+
+    public OverdueInvoiceScheduler(InvoiceRepository invoiceRepository, InvoiceStatisticsCache statisticsCache, Clock clock,
+                                   Duration interval, int batchSize, Duration pauseBetweenChunks, int maxChunksPerRun) {
+        if (batchSize < 1 || maxChunksPerRun < 1) {
+            throw new IllegalArgumentException("batchSize and maxChunksPerRun must be positive");
+        }
+        this.invoiceRepository = invoiceRepository;
+        this.statisticsCache = statisticsCache;
+        this.clock = clock;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.pauseBetweenChunks = pauseBetweenChunks;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overdue-invoices");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        if (interval.isZero() || interval.isNegative()) {
+            log.info("Overdue invoice job disabled");
+            return;
+        }
+        executor.scheduleWithFixedDelay(this::runScheduled, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Overdue invoice job scheduled every {}s, batch size {}", interval.toSeconds(), batchSize);
+    }
+
+    public synchronized OverdueRunResult runOnce() {
+        if (passStartedAt == null) {
+            // the cut-off stays fixed for the whole pass, so it ends even while new invoices fall due
+            passStartedAt = LocalDateTime.now(clock);
+        }
+
+        long start = System.nanoTime();
+        long marked = 0;
+        int chunks = 0;
+        boolean complete = false;
+
+        try {
+            while (chunks < maxChunksPerRun) {
+                OverdueChunk chunk = invoiceRepository.markOverdueChunk(passStartedAt, cursorDueDate, cursorId, batchSize);
+                chunks++;
+                marked += chunk.updated();
+
+                if (chunk.scanned() < batchSize) {
+                    complete = true;
+                    break;
+                }
+                cursorDueDate = chunk.lastDueDate();
+                cursorId = chunk.lastId();
+                if (!pause()) {
+                    break;
+                }
+            }
+        } finally {
+            // status totals of any company may have changed, also when a later chunk failed
+            if (marked > 0) {
+                statisticsCache.invalidateAll();
+            }
+        }
+
+        if (complete) {
+            passStartedAt = null;
+            cursorDueDate = null;
+            cursorId = null;
+        }
+
+        OverdueRunResult result = new OverdueRunResult(marked, chunks, Duration.ofNanos(System.nanoTime() - start), complete);
+        if (result.marked() > 0 || !complete) {
+            log.info(
+                "Marked {} invoices overdue in {} chunks, {} ms ({} rows/s){}",
+                result.marked(),
+                result.chunks(),
+                result.elapsed().toMillis(),
+                Math.round(result.rowsPerSecond()),
+                complete ? "" : ", continuing next run"
+            );
+        }
+        return result;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void runScheduled() {
+        try {
+            runOnce();
+        } catch (RuntimeException e) {
+            // keep the schedule alive, the next run resumes from the last committed chunk
+            log.error("Overdue invoice job failed", e);
+        }
+    }
+
+    private boolean pause() {
+        if (pauseBetweenChunks.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseBetweenChunks);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
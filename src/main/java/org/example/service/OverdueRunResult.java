@@ -0,0 +1,18 @@
+package org.example.service;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one {@link OverdueInvoiceScheduler} pass.
+ *
+ * @param marked   invoices switched from SENT to OVERDUE
+ * @param chunks   bulk UPDATE transactions executed
+ * @param complete false when the pass stopped early and the next one resumes from its cursor
+ */
+public record OverdueRunResult(long marked, int chunks, Duration elapsed, boolean complete) {
+
+    public double rowsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : marked * 1_000_000_000.0 / nanos;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.service;
+
+/**
+ * Counters of an {@link OptimisticRetryExecutor} since startup.
+ *
+ * @param conflicts optimistic lock failures seen, including the ones that were retried
+ * @param retries   attempts started again after a conflict
+ * @param exhausted operations that still conflicted after the last attempt
+ */
+public record RetryMetrics(long conflicts, long retries, long exhausted) {
+}
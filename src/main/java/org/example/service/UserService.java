@@ -1,7 +1,8 @@
 package org.example.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.example.auth.PasswordEncoder;
+import org.example.auth.PasswordHasher;
+import org.example.auth.SessionStore;
 import org.example.entity.company.CompanyUser;
 import org.example.entity.user.CreateUserDTO;
 import org.example.entity.user.UserDTO;
@@ -10,31 +11,54 @@ import org.example.exception.BusinessRuleException;
 import org.example.exception.EntityNotFoundException;
 import org.example.exception.ValidationException;
 import org.example.repository.CompanyUserRepository;
+import org.example.repository.UnitOfWork;
 import org.example.repository.UserRepository;
 import org.example.util.LogUtil;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 
 @Slf4j
 public class UserService {
 
+    // compiled once; String.matches compiled the pattern again on every registration
+    private static final Pattern EMAIL = Pattern.compile(
+        "^[A-Za-z0-9._%+-]+@[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?(\\.[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?)*\\.[A-Za-z]{2,}$"
+    );
+
     private final UserRepository userRepository;
     private final CompanyUserRepository companyUserRepository;
+    private final PasswordHasher passwordHasher;
+    private final SessionStore sessionStore;
 
     public UserService(UserRepository userRepository, CompanyUserRepository companyUserRepository) {
+        this(userRepository, companyUserRepository, PasswordHasher.shared());
+    }
+
+    public UserService(UserRepository userRepository, CompanyUserRepository companyUserRepository,
+                       PasswordHasher passwordHasher) {
+        this(userRepository, companyUserRepository, passwordHasher, new SessionStore());
+    }
+
+    public UserService(UserRepository userRepository, CompanyUserRepository companyUserRepository,
+                       PasswordHasher passwordHasher, SessionStore sessionStore) {
         this.userRepository = userRepository;
         this.companyUserRepository = companyUserRepository;
+        this.passwordHasher = passwordHasher;
+        this.sessionStore = sessionStore;
+    }
+
+    public SessionStore getSessionStore() {
+        return sessionStore;
     }
 
     public UserDTO register(CreateUserDTO dto) {
 
         log.debug("User registration started for email={}", LogUtil.maskEmail(dto.email()));
 
-        boolean emailValid = dto.email() != null && dto.email().matches(
-            "^[A-Za-z0-9._%+-]+@[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?(\\.[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?)*\\.[A-Za-z]{2,}$"
-        );
+        boolean emailValid = isValidEmail(dto.email());
         boolean passwordValid = dto.password() != null && dto.password().length() >= 8;
 
         if (!emailValid) {
@@ -56,7 +80,7 @@ public class UserService {
         }
 
         User user = User.fromDTO(dto);
-        user.setPassword(PasswordEncoder.hash(dto.password()));
+        user.setPassword(passwordHasher.hash(dto.password()));
         userRepository.create(user);
 
         log.info("User registered successfully with id={}", user.getId());
@@ -64,25 +88,33 @@ public class UserService {
     }
 
 
+    public static boolean isValidEmail(String email) {
+        return email != null && EMAIL.matcher(email).matches();
+    }
+
     public void deleteUser(UUID userId) {
 
         log.debug("User deletion requested for userId={}", userId);
 
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> {
-                log.warn("User deletion failed: user not found for userId={}", userId);
-                return new EntityNotFoundException("User", userId);
-            });
+        int deletedCount = UnitOfWork.inTransaction(() -> {
+            User user = userRepository.findById(userId)
+                .orElseThrow(() -> {
+                    log.warn("User deletion failed: user not found for userId={}", userId);
+                    return new EntityNotFoundException("User", userId);
+                });
 
-        List<CompanyUser> companyUsers = companyUserRepository.findByUserId(userId);
+            List<CompanyUser> companyUsers = companyUserRepository.findByUserId(userId);
 
-        log.debug("Found {} company associations for userId={}", companyUsers.size(), userId);
+            log.debug("Found {} company associations for userId={}", companyUsers.size(), userId);
 
-        // delete all company associations before deleting the actual User
-        int deletedCount = companyUserRepository.deleteByUserId(userId);
-        log.debug("Deleted {} company associations for userId={}", deletedCount, userId);
+            // delete all company associations before deleting the actual User
+            int deleted = companyUserRepository.deleteByUserId(userId);
+            log.debug("Deleted {} company associations for userId={}", deleted, userId);
 
-        userRepository.delete(user);
+            userRepository.delete(user);
+            UnitOfWork.afterCommit(() -> sessionStore.revokeUser(userId));
+            return deleted;
+        });
         log.info("User deleted successfully with userId={}, removed from {} companies",
             userId, deletedCount);
     }
@@ -0,0 +1,52 @@
+package org.example.util;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+public final class CacheMetrics {
+
+    private CacheMetrics() {}
+
+    public static List<CacheRegionMetrics> collect(EntityManagerFactory emf) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+            .sorted()
+            .map(region -> {
+                CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+                return new CacheRegionMetrics(
+                    region,
+                    regionStats.getHitCount(),
+                    regionStats.getMissCount(),
+                    regionStats.getPutCount(),
+                    evictions(region),
+                    regionStats.getElementCountInMemory()
+                );
+            })
+            .toList();
+    }
+
+    // Hibernate does not count evictions made by the cache itself (size/TTL), the JCache statistics bean does.
+    private static long evictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            long total = -1;
+            for (ObjectName name : names) {
+                total = Math.max(total, 0) + (Long) server.getAttribute(name, "CacheEvictions");
+            }
+            return total;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.util;
+
+/**
+ * Counters for one second-level cache region.
+ * {@code evictions} is -1 when the JCache statistics bean for the region is not registered.
+ */
+public record CacheRegionMetrics(
+    String region,
+    long hits,
+    long misses,
+    long puts,
+    long evictions,
+    long size
+) {
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+Minimal RFC 4180 CSV support: comma separated, fields quoted only when they contain a comma,
+quote or line break, quotes doubled inside quoted fields. Reading accepts \n and \r\n line endings.
+ */
+public final class Csv {
+
+    private Csv() {}
+
+    public static void writeRow(Writer out, Object... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(out, fields[i]);
+        }
+        out.write('\n');
+    }
+
+    /*
+    Reads the next record, which spans several physical lines when a quoted field contains line
+    breaks. Returns null at end of input. The reader should be buffered, it is read char by char.
+     */
+    public static List<String> readRow(Reader in) throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = in.read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // Position of each named column in a header row (case-insensitive), -1 where it is missing
+    public static int[] columnIndexes(List<String> header, String... names) {
+        int[] indexes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            indexes[i] = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().toLowerCase(Locale.ROOT).equals(names[i])) {
+                    indexes[i] = j;
+                    break;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    private static void writeField(Writer out, Object field) throws IOException {
+        if (field == null) {
+            return;
+        }
+        String value = field.toString();
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.util;
+
+/**
+ * Connection pool settings for a database.
+ * Every value can be overridden with a system property using the given prefix,
+ * e.g. {@code -Ddb.url=...} or {@code -Ddb.pool.maxSize=20}.
+ * <p>
+ * A read replica is used when {@code -Ddb.replica.url} is set; its settings use the
+ * {@code db.replica.} prefix. To try it locally, point it at a second schema on the same
+ * server and add {@code -Ddb.replica.migrate=true} so that schema gets the tables too.
+ */
+public record DataSourceConfig(
+    String url,
+    String user,
+    String password,
+    int minIdle,
+    int maxPoolSize,
+    long connectionTimeoutMs,
+    long validationTimeoutMs,
+    long idleTimeoutMs,
+    long maxLifetimeMs,
+    long keepaliveTimeMs,
+    long leakDetectionThresholdMs,
+    int prepStmtCacheSize,
+    int prepStmtCacheSqlLimit
+) {
+
+    public static final String PRIMARY_PREFIX = "db.";
+    public static final String REPLICA_PREFIX = "db.replica.";
+
+    public static boolean isConfigured(String prefix) {
+        return System.getProperty(prefix + "url") != null;
+    }
+
+    public static DataSourceConfig fromSystemProperties(String prefix) {
+        return new DataSourceConfig(
+            property(prefix + "url", "jdbc:mysql://localhost:3306/invoice-db"),
+            property(prefix + "user", "root"),
+            property(prefix + "password", "root"),
+            intProperty(prefix + "pool.minIdle", 2),
+            intProperty(prefix + "pool.maxSize", 10),
+            longProperty(prefix + "pool.connectionTimeoutMs", 5_000),
+            longProperty(prefix + "pool.validationTimeoutMs", 2_000),
+            longProperty(prefix + "pool.idleTimeoutMs", 300_000),
+            longProperty(prefix + "pool.maxLifetimeMs", 1_800_000),
+            longProperty(prefix + "pool.keepaliveTimeMs", 120_000),
+            longProperty(prefix + "pool.leakDetectionThresholdMs", 20_000),
+            intProperty(prefix + "stmtCache.size", 250),
+            intProperty(prefix + "stmtCache.sqlLimit", 2048)
+        );
+    }
+
+    private static String property(String key, String defaultValue) {
+        return System.getProperty(key, defaultValue);
+    }
+
+    private static int intProperty(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProperty(String key, long defaultValue) {
+        String value = System.getProperty(key);
+        return value == null ? defaultValue : Long.parseLong(value.trim());
+    }
+}
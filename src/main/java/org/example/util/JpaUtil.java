@@ -1,18 +1,67 @@
 package org.example.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 public class JpaUtil {
 
+    private static final String PERSISTENCE_UNIT = "jpa-hibernate-mysql";
+
+    /*
+    The replica unit shares the entity mappings but has no second-level cache (entries loaded from
+    a lagging replica would be served to primary reads too), leaves the schema alone and does not
+    touch the database while booting, so the application also starts while the replica is down.
+     */
+    private static final Map<String, Object> REPLICA_OVERRIDES = Map.of(
+        "hibernate.cache.use_second_level_cache", "false",
+        "jakarta.persistence.sharedCache.mode", "NONE",
+        "jakarta.persistence.schema-generation.database.action", "none",
+        "hibernate.boot.allow_jdbc_metadata_access", "false",
+        "hibernate.dialect", "org.hibernate.dialect.MySQLDialect"
+    );
+
+    private static final PoolMetricsTracker poolMetrics = new PoolMetricsTracker();
+    private static final PoolMetricsTracker replicaPoolMetrics = new PoolMetricsTracker();
+    private static final HikariDataSource dataSource;
     private static final EntityManagerFactory emf;
+    // null unless -Ddb.replica.url is set
+    private static final HikariDataSource replicaDataSource;
+    private static final EntityManagerFactory replicaEmf;
+
+    static {
+        dataSource = createDataSource("invoice-db", DataSourceConfig.fromSystemProperties(DataSourceConfig.PRIMARY_PREFIX), poolMetrics);
+        SchemaMigrator.migrate(dataSource);
+        emf = createEntityManagerFactory(dataSource, Map.of());
+
+        if (DataSourceConfig.isConfigured(DataSourceConfig.REPLICA_PREFIX)) {
+            DataSourceConfig replicaConfig = DataSourceConfig.fromSystemProperties(DataSourceConfig.REPLICA_PREFIX);
+            if (Boolean.getBoolean("db.replica.migrate")) {
+                SchemaMigrator.migrate(replicaConfig);
+            }
+            replicaDataSource = createDataSource("invoice-db-replica", replicaConfig, replicaPoolMetrics, true);
+            replicaEmf = createEntityManagerFactory(replicaDataSource, REPLICA_OVERRIDES);
+        } else {
+            replicaDataSource = null;
+            replicaEmf = null;
+        }
 
-    static { emf = Persistence.createEntityManagerFactory("jpa-hibernate-mysql");
         Runtime.getRuntime().addShutdownHook(new Thread(() ->
         {
-            if (emf.isOpen()) { emf.close(); } }));
+            if (replicaEmf != null && replicaEmf.isOpen()) { replicaEmf.close(); }
+            if (replicaDataSource != null) { replicaDataSource.close(); }
+            if (emf.isOpen()) { emf.close(); }
+            dataSource.close();
+        }));
     }
+
     public static EntityManager getEntityManager() {
         return emf.createEntityManager();
     }
@@ -20,4 +69,75 @@ public class JpaUtil {
     public static EntityManagerFactory getEntityManagerFactory() {
         return emf;
     }
+
+    // Factory for reads that may be served by the replica; the primary when none is configured
+    public static EntityManagerFactory getReadEntityManagerFactory() {
+        return replicaEmf != null ? replicaEmf : emf;
+    }
+
+    public static PoolMetrics getPoolMetrics() {
+        return poolMetrics.snapshot(dataSource.getHikariPoolMXBean());
+    }
+
+    public static Optional<PoolMetrics> getReplicaPoolMetrics() {
+        return Optional.ofNullable(replicaDataSource)
+            .map(ds -> replicaPoolMetrics.snapshot(ds.getHikariPoolMXBean()));
+    }
+
+    public static List<CacheRegionMetrics> getCacheMetrics() {
+        return CacheMetrics.collect(emf);
+    }
+
+    /**
+     * Builds an EntityManagerFactory for the application's persistence unit on top of the given pool.
+     * Extra properties override the ones from persistence.xml.
+     */
+    public static EntityManagerFactory createEntityManagerFactory(HikariDataSource dataSource, Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>(overrides);
+        properties.put("jakarta.persistence.nonJtaDataSource", dataSource);
+        return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, properties);
+    }
+
+    public static HikariDataSource createDataSource(String poolName, DataSourceConfig config, PoolMetricsTracker metricsTracker) {
+        return createDataSource(poolName, config, metricsTracker, false);
+    }
+
+    public static HikariDataSource createDataSource(String poolName, DataSourceConfig config, PoolMetricsTracker metricsTracker,
+                                                    boolean readOnly) {
+        HikariConfig hikari = new HikariConfig();
+        hikari.setPoolName(poolName);
+        hikari.setJdbcUrl(config.url());
+        hikari.setUsername(config.user());
+        hikari.setPassword(config.password());
+        hikari.setMinimumIdle(config.minIdle());
+        hikari.setMaximumPoolSize(config.maxPoolSize());
+        hikari.setConnectionTimeout(config.connectionTimeoutMs());
+        hikari.setValidationTimeout(config.validationTimeoutMs());
+        hikari.setIdleTimeout(config.idleTimeoutMs());
+        hikari.setMaxLifetime(config.maxLifetimeMs());
+        hikari.setKeepaliveTime(config.keepaliveTimeMs());
+        hikari.setLeakDetectionThreshold(config.leakDetectionThresholdMs());
+        hikari.setMetricsTrackerFactory(metricsTracker);
+        if (readOnly) {
+            hikari.setReadOnly(true);
+            // start the pool even when the database is unreachable, reads fall back to the primary
+            hikari.setInitializationFailTimeout(-1);
+        }
+
+        // MySQL Connector/J: cache prepared statements on both sides and rewrite JDBC batches into multi-row statements
+        hikari.addDataSourceProperty("cachePrepStmts", "true");
+        hikari.addDataSourceProperty("prepStmtCacheSize", config.prepStmtCacheSize());
+        hikari.addDataSourceProperty("prepStmtCacheSqlLimit", config.prepStmtCacheSqlLimit());
+        hikari.addDataSourceProperty("useServerPrepStmts", "true");
+        hikari.addDataSourceProperty("rewriteBatchedStatements", "true");
+        hikari.addDataSourceProperty("useLocalSessionState", "true");
+        hikari.addDataSourceProperty("cacheResultSetMetadata", "true");
+        hikari.addDataSourceProperty("cacheServerConfiguration", "true");
+        hikari.addDataSourceProperty("elideSetAutoCommits", "true");
+        hikari.addDataSourceProperty("maintainTimeStats", "false");
+        // statements with a fetch size read through a server-side cursor instead of buffering the whole result
+        hikari.addDataSourceProperty("useCursorFetch", "true");
+
+        return new HikariDataSource(hikari);
+    }
 }
@@ -0,0 +1,94 @@
+package org.example.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Lock-free latency histogram with power-of-two microsecond buckets (bucket i holds durations up
+to 2^i µs, the last one everything longer). Recording is two LongAdder increments, so it can sit
+on hot paths shared by many threads; percentiles are only computed when a snapshot is taken.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] counts = new LongAdder[BUCKETS];
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void record(Duration duration) {
+        recordNanos(duration.toNanos());
+    }
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts[bucket(micros)].increment();
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    public LatencySnapshot snapshot() {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        long max = maxMicros.get();
+        if (count == 0) {
+            return new LatencySnapshot(0, 0, 0, 0, 0, 0);
+        }
+        return new LatencySnapshot(
+            count,
+            toMillis(totalMicros.sum()) / count,
+            toMillis(percentile(snapshot, count, 0.50, max)),
+            toMillis(percentile(snapshot, count, 0.95, max)),
+            toMillis(percentile(snapshot, count, 0.99, max)),
+            toMillis(max)
+        );
+    }
+
+    // Any quantile (e.g. 0.999 for p99.9), with the same bucket precision as the snapshot
+    public double percentileMillis(double quantile) {
+        if (quantile <= 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be in (0, 1]");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+        return count == 0 ? 0 : toMillis(percentile(snapshot, count, quantile, maxMicros.get()));
+    }
+
+    static int bucket(long micros) {
+        if (micros <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros - 1));
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(1L << i, max);
+            }
+        }
+        return max;
+    }
+
+    private static double toMillis(double micros) {
+        return micros / 1_000.0;
+    }
+}
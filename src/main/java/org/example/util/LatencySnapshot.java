@@ -0,0 +1,14 @@
+package org.example.util;
+
+/**
+ * Point-in-time view of a {@link LatencyHistogram}. Percentiles are bucket upper bounds, so they
+ * overstate the true value by less than a factor of two; max is exact.
+ */
+public record LatencySnapshot(
+    long count,
+    double meanMillis,
+    double p50Millis,
+    double p95Millis,
+    double p99Millis,
+    double maxMillis
+) {}
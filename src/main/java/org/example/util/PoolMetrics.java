@@ -0,0 +1,17 @@
+package org.example.util;
+
+/**
+ * Point-in-time snapshot of a connection pool.
+ */
+public record PoolMetrics(
+    String poolName,
+    int totalConnections,
+    int activeConnections,
+    int idleConnections,
+    int threadsAwaitingConnection,
+    long acquireCount,
+    double avgAcquireMicros,
+    long maxAcquireMicros,
+    long acquireTimeouts,
+    long avgUsageMillis
+) {}
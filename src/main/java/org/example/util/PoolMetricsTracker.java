@@ -0,0 +1,67 @@
+package org.example.util;
+
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects acquire latency and usage counters from HikariCP so they can be
+ * read together with the live pool state through {@link #snapshot(HikariPoolMXBean)}.
+ */
+public class PoolMetricsTracker implements MetricsTrackerFactory {
+
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder usageCount = new LongAdder();
+    private final LongAdder usageMillis = new LongAdder();
+
+    private volatile String poolName = "";
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireCount.increment();
+                acquireNanos.add(elapsedAcquiredNanos);
+                maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usageCount.increment();
+                usageMillis.add(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public PoolMetrics snapshot(HikariPoolMXBean pool) {
+        long count = acquireCount.sum();
+        long usages = usageCount.sum();
+        return new PoolMetrics(
+            poolName,
+            pool == null ? 0 : pool.getTotalConnections(),
+            pool == null ? 0 : pool.getActiveConnections(),
+            pool == null ? 0 : pool.getIdleConnections(),
+            pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+            count,
+            count == 0 ? 0 : acquireNanos.sum() / 1_000.0 / count,
+            TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()),
+            timeouts.sum(),
+            usages == 0 ? 0 : usageMillis.sum() / usages
+        );
+    }
+}
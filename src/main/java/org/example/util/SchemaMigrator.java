@@ -0,0 +1,49 @@
+package org.example.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.flywaydb.core.api.output.MigrateResult;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies the versioned SQL migrations in {@code db/migration} before Hibernate starts.
+ * Hibernate only validates the result, it never changes the schema itself.
+ * <p>
+ * A database created by the old {@code update} mode has tables but no history table;
+ * start once with {@code -Ddb.migrations.baseline=true} to mark it as version 1
+ * and apply the newer migrations on top.
+ */
+@Slf4j
+public final class SchemaMigrator {
+
+    private static final String LOCATION = "classpath:db/migration";
+
+    private SchemaMigrator() {}
+
+    public static void migrate(DataSource dataSource) {
+        migrate(Flyway.configure().dataSource(dataSource));
+    }
+
+    // Uses its own connection, e.g. for a schema that is otherwise only reached through a read-only pool
+    public static void migrate(DataSourceConfig config) {
+        migrate(Flyway.configure().dataSource(config.url(), config.user(), config.password()));
+    }
+
+    private static void migrate(FluentConfiguration configuration) {
+        MigrateResult result = configuration
+            .locations(LOCATION)
+            .baselineOnMigrate(Boolean.getBoolean("db.migrations.baseline"))
+            .baselineVersion("1")
+            .load()
+            .migrate();
+
+        log.info(
+            "Schema {} at version {} ({} migration(s) applied)",
+            result.schemaName,
+            result.targetSchemaVersion != null ? result.targetSchemaVersion : result.initialSchemaVersion,
+            result.migrationsExecuted
+        );
+    }
+}
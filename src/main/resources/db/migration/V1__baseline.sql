@@ -0,0 +1,78 @@
+-- Baseline: the schema Hibernate generated for the entity mappings before migrations were introduced.
+
+CREATE TABLE users (
+    id         BINARY(16)   NOT NULL,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    createdAt  DATETIME(6),
+    updatedAt  DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE companies (
+    id           BINARY(16)   NOT NULL,
+    org_num      VARCHAR(255) NOT NULL,
+    email        VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    name         VARCHAR(255),
+    address      VARCHAR(255),
+    city         VARCHAR(255),
+    country      VARCHAR(255),
+    created_at   DATETIME(6),
+    updated_at   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_companies_org_num UNIQUE (org_num)
+) ENGINE = InnoDB;
+
+CREATE TABLE company_user (
+    company_id BINARY(16) NOT NULL,
+    user_id    BINARY(16) NOT NULL,
+    PRIMARY KEY (company_id, user_id),
+    CONSTRAINT fk_company_user_company FOREIGN KEY (company_id) REFERENCES companies (id),
+    CONSTRAINT fk_company_user_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE clients (
+    id          BINARY(16)   NOT NULL,
+    company_id  BINARY(16)   NOT NULL,
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    email       VARCHAR(255) NOT NULL,
+    address     VARCHAR(255),
+    city        VARCHAR(255),
+    country     VARCHAR(255),
+    phoneNumber VARCHAR(255),
+    createdAt   DATETIME(6),
+    updatedAt   DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_clients_company FOREIGN KEY (company_id) REFERENCES companies (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE invoices (
+    id         BINARY(16)     NOT NULL,
+    company_id BINARY(16)     NOT NULL,
+    client_id  BINARY(16)     NOT NULL,
+    number     VARCHAR(255)   NOT NULL,
+    amount     DECIMAL(19, 2) NOT NULL,
+    vatAmount  DECIMAL(38, 2),
+    due_date   DATETIME(6),
+    createdAt  DATETIME(6),
+    updatedAt  DATETIME(6),
+    status     ENUM ('CREATED', 'SENT', 'PAID', 'OVERDUE', 'CANCELLED'),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_invoices_number UNIQUE (number),
+    CONSTRAINT fk_invoices_company FOREIGN KEY (company_id) REFERENCES companies (id),
+    CONSTRAINT fk_invoices_client FOREIGN KEY (client_id) REFERENCES clients (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE invoice_items (
+    id         BINARY(16)     NOT NULL,
+    invoice_id BINARY(16)     NOT NULL,
+    quantity   INTEGER        NOT NULL,
+    unit_price DECIMAL(38, 2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_invoice_items_invoice FOREIGN KEY (invoice_id) REFERENCES invoices (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,20 @@
+-- Secondary indexes for the repository queries. Each one starts with the foreign key column,
+-- so MySQL drops the implicit index it created for that foreign key.
+
+-- findAllByCompanyIdAndStatus
+CREATE INDEX idx_invoices_company_status ON invoices (company_id, status);
+
+-- keyset pages per company, newest first (findPageByCompanyId, findSummaryPageByCompanyId)
+CREATE INDEX idx_invoices_company_created ON invoices (company_id, createdAt, id);
+
+-- findAllByClientId and keyset pages per client
+CREATE INDEX idx_invoices_client_created ON invoices (client_id, createdAt, id);
+
+-- overdue scans: due date range filtered by status
+CREATE INDEX idx_invoices_due_date_status ON invoices (due_date, status);
+
+-- findAllByCompanyId
+CREATE INDEX idx_clients_company ON clients (company_id);
+
+-- findByUserId / deleteByUserId; the primary key only covers lookups by company_id
+CREATE INDEX idx_company_user_user ON company_user (user_id);
@@ -0,0 +1,12 @@
+-- Invoice numbers are allocated per company, so they only have to be unique within a company.
+ALTER TABLE invoices
+    DROP INDEX uk_invoices_number,
+    ADD CONSTRAINT uk_invoices_company_number UNIQUE (company_id, number);
+
+-- Counter rows leased in blocks by InvoiceNumberAllocator
+CREATE TABLE invoice_number_sequences (
+    company_id BINARY(16) NOT NULL,
+    next_value BIGINT     NOT NULL,
+    PRIMARY KEY (company_id),
+    CONSTRAINT fk_invoice_number_sequences_company FOREIGN KEY (company_id) REFERENCES companies (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
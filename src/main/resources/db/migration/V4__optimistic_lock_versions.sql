@@ -0,0 +1,4 @@
+-- @Version columns for optimistic locking of invoices, clients and companies
+ALTER TABLE invoices ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE clients ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE companies ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
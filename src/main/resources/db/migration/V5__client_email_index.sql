@@ -0,0 +1,4 @@
+-- findByCompanyIdAndEmails (bulk invoice import resolves clients by email). The new index also
+-- serves findByCompanyId and fk_clients_company, which makes idx_clients_company redundant.
+CREATE INDEX idx_clients_company_email ON clients (company_id, email);
+DROP INDEX idx_clients_company ON clients;
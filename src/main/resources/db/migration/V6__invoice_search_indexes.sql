@@ -0,0 +1,10 @@
+-- InvoiceRepository.search: each ordering gets a (company_id, <sort column>, id) index, so a page
+-- reads the index in order from the keyset cursor and range filters on that column narrow the scan.
+-- NEWEST/OLDEST use idx_invoices_company_created; number prefixes use uk_invoices_company_number.
+CREATE INDEX idx_invoices_company_due_date ON invoices (company_id, due_date, id);
+CREATE INDEX idx_invoices_company_amount ON invoices (company_id, amount, id);
+
+-- A single status filter with the default newest-first order. Also serves findAllByStatusAndCompany,
+-- which makes idx_invoices_company_status redundant.
+CREATE INDEX idx_invoices_company_status_created ON invoices (company_id, status, createdAt, id);
+DROP INDEX idx_invoices_company_status ON invoices;
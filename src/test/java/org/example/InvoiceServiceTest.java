@@ -6,14 +6,19 @@ import org.example.entity.client.Client;
 import org.example.entity.invoice.*;
 import org.example.exception.BusinessRuleException;
 import org.example.exception.EntityNotFoundException;
+import org.example.exception.ValidationException;
 import org.example.repository.ClientRepository;
 import org.example.repository.CompanyRepository;
 import org.example.repository.InvoiceRepository;
+import org.example.repository.InvoiceSearchCriteria;
+import org.example.repository.KeysetPage;
+import org.example.service.InvoiceNumberAllocator;
 import org.example.service.InvoiceService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,6 +31,7 @@ public class InvoiceServiceTest {
     private InvoiceRepository invoiceRepository;
     private CompanyRepository companyRepository;
     private ClientRepository clientRepository;
+    private InvoiceNumberAllocator numberAllocator;
     private InvoiceService invoiceService;
 
     @BeforeEach
@@ -33,11 +39,13 @@ public class InvoiceServiceTest {
         invoiceRepository = mock(InvoiceRepository.class);
         companyRepository = mock(CompanyRepository.class);
         clientRepository = mock(ClientRepository.class);
+        numberAllocator = mock(InvoiceNumberAllocator.class);
 
         invoiceService = new InvoiceService(
             invoiceRepository,
             companyRepository,
-            clientRepository
+            clientRepository,
+            numberAllocator
         );
 
     }
@@ -53,9 +61,9 @@ public class InvoiceServiceTest {
         Company company = new Company(); company.setId(companyId);
         Client client = new Client(); client.setId(clientId);
 
-        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
-        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
-        when(invoiceRepository.findByInvoiceNumber("INV-001")).thenReturn(Optional.empty());
+        when(companyRepository.getReference(companyId)).thenReturn(company);
+        when(clientRepository.getReference(clientId)).thenReturn(client);
+        when(invoiceRepository.existsByCompanyIdAndNumber(companyId, "INV-001")).thenReturn(false);
         when(invoiceRepository.create(any(Invoice.class))).thenAnswer(i -> {
             Invoice inv = i.getArgument(0);
             inv.setId(UUID.randomUUID());
@@ -69,6 +77,55 @@ public class InvoiceServiceTest {
         assertNotNull(result);
         assertEquals("INV-001", result.number());
         verify(invoiceRepository).create(any(Invoice.class));
+        verify(numberAllocator, never()).nextNumber(any());
+    }
+
+    @Test
+    void testCreateInvoice_TypedNumberInAllocatorFormatIsReserved() {
+        UUID companyId = UUID.randomUUID();
+        CreateInvoiceDTO createDto = new CreateInvoiceDTO(companyId, UUID.randomUUID(), " INV-000120 ", LocalDateTime.now().plusDays(14), List.of());
+        when(companyRepository.getReference(companyId)).thenReturn(new Company());
+        when(clientRepository.getReference(any())).thenReturn(new Client());
+        when(invoiceRepository.create(any(Invoice.class))).thenAnswer(i -> i.getArgument(0));
+
+        InvoiceDTO result = invoiceService.createInvoice(createDto);
+
+        assertEquals("INV-000120", result.number());
+        verify(numberAllocator).reserveThrough(companyId, 120);
+        verify(numberAllocator, never()).nextNumber(any());
+    }
+
+    @Test
+    void testCreateInvoice_TypedNumberInOwnFormatIsNotReserved() {
+        UUID companyId = UUID.randomUUID();
+        CreateInvoiceDTO createDto = new CreateInvoiceDTO(companyId, UUID.randomUUID(), "2025/17", LocalDateTime.now().plusDays(14), List.of());
+        when(companyRepository.getReference(companyId)).thenReturn(new Company());
+        when(clientRepository.getReference(any())).thenReturn(new Client());
+        when(invoiceRepository.create(any(Invoice.class))).thenAnswer(i -> i.getArgument(0));
+
+        invoiceService.createInvoice(createDto);
+
+        verifyNoInteractions(numberAllocator);
+    }
+
+    @Test
+    void testCreateInvoice_BlankNumberIsAllocated() {
+        UUID companyId = UUID.randomUUID();
+        UUID clientId = UUID.randomUUID();
+        CreateInvoiceDTO createDto = new CreateInvoiceDTO(companyId, clientId, " ", LocalDateTime.now().plusDays(14), List.of());
+
+        Company company = new Company(); company.setId(companyId);
+        Client client = new Client(); client.setId(clientId);
+
+        when(numberAllocator.nextNumber(companyId)).thenReturn("INV-000051");
+        when(companyRepository.getReference(companyId)).thenReturn(company);
+        when(clientRepository.getReference(clientId)).thenReturn(client);
+        when(invoiceRepository.create(any(Invoice.class))).thenAnswer(i -> i.getArgument(0));
+
+        InvoiceDTO result = invoiceService.createInvoice(createDto);
+
+        assertEquals("INV-000051", result.number());
+        verify(invoiceRepository, never()).existsByCompanyIdAndNumber(any(), any());
     }
 
     @Test
@@ -116,7 +173,8 @@ public class InvoiceServiceTest {
     void testUpdateInvoice_Success() {
         UUID invoiceId = UUID.randomUUID();
         Invoice existingInvoice = createFullInvoice(invoiceId, "INV-123");
-        UpdateInvoiceDTO updateDto = new UpdateInvoiceDTO(invoiceId, LocalDateTime.now().plusDays(30), List.of(new InvoiceItemDTO(null, 2, new BigDecimal("500.00"))), InvoiceStatus.SENT);
+        UpdateInvoiceDTO updateDto = new UpdateInvoiceDTO(invoiceId, LocalDateTime.now().plusDays(30), List.of(new InvoiceItemDTO(null, 2, new BigDecimal("500.00"))), InvoiceStatus.SENT, 5L);
+        existingInvoice.setVersion(5L);
 
         when(invoiceRepository.findByIdWithItems(invoiceId)).thenReturn(Optional.of(existingInvoice));
         when(invoiceRepository.update(any(Invoice.class))).thenAnswer(i -> i.getArgument(0));
@@ -143,21 +201,29 @@ public class InvoiceServiceTest {
     @Test
     void testDeleteById_Success() {
         UUID id = UUID.randomUUID();
-        when(invoiceRepository.existsById(id)).thenReturn(true);
+        Invoice invoice = createFullInvoice(id, "INV-DEL");
+        when(invoiceRepository.findById(id)).thenReturn(Optional.of(invoice));
         invoiceService.deleteById(id);
-        verify(invoiceRepository).deleteById(id);
+        verify(invoiceRepository).delete(invoice);
     }
 
 
     @Test
     void testCreateInvoice_CompanyNotFound() {
         UUID companyId = UUID.randomUUID();
-        CreateInvoiceDTO dto = new CreateInvoiceDTO(companyId, UUID.randomUUID(), "INV-X", LocalDateTime.now(), List.of());
+        UUID clientId = UUID.randomUUID();
+        CreateInvoiceDTO dto = new CreateInvoiceDTO(companyId, clientId, "INV-X", LocalDateTime.now(), List.of());
 
-        when(companyRepository.findById(companyId)).thenReturn(Optional.empty());
+        Company company = new Company(); company.setId(companyId);
+        Client client = new Client(); client.setId(clientId);
+
+        when(companyRepository.getReference(companyId)).thenReturn(company);
+        when(clientRepository.getReference(clientId)).thenReturn(client);
+        when(invoiceRepository.create(any(Invoice.class)))
+            .thenThrow(new EntityNotFoundException("Company", "referenced by fk_invoices_company"));
 
         assertThrows(EntityNotFoundException.class, () -> invoiceService.createInvoice(dto));
-        verify(invoiceRepository, never()).create(any());
+        verify(companyRepository, never()).findById(any());
     }
 
     @Test
@@ -166,17 +232,22 @@ public class InvoiceServiceTest {
         UUID clientId = UUID.randomUUID();
         CreateInvoiceDTO dto = new CreateInvoiceDTO(companyId, clientId, "INV-X", LocalDateTime.now(), List.of());
 
-        when(companyRepository.findById(companyId)).thenReturn(Optional.of(new Company()));
-        when(clientRepository.findById(clientId)).thenReturn(Optional.empty());
+        Company company = new Company(); company.setId(companyId);
+        Client client = new Client(); client.setId(clientId);
+
+        when(companyRepository.getReference(companyId)).thenReturn(company);
+        when(clientRepository.getReference(clientId)).thenReturn(client);
+        when(invoiceRepository.create(any(Invoice.class)))
+            .thenThrow(new EntityNotFoundException("Client", "referenced by fk_invoices_client"));
 
         assertThrows(EntityNotFoundException.class, () -> invoiceService.createInvoice(dto));
-        verify(invoiceRepository, never()).create(any());
+        verify(clientRepository, never()).findById(any());
     }
 
     @Test
     void testUpdateInvoice_InvoiceNotFound() {
         UUID id = UUID.randomUUID();
-        UpdateInvoiceDTO dto = new UpdateInvoiceDTO(id, LocalDateTime.now(), List.of(), InvoiceStatus.SENT);
+        UpdateInvoiceDTO dto = new UpdateInvoiceDTO(id, LocalDateTime.now(), List.of(), InvoiceStatus.SENT, null);
 
         when(invoiceRepository.findByIdWithItems(id)).thenReturn(Optional.empty());
 
@@ -197,16 +268,111 @@ public class InvoiceServiceTest {
     @Test
     void testDeleteById_NotFound() {
         UUID id = UUID.randomUUID();
-        when(invoiceRepository.existsById(id)).thenReturn(false);
+        when(invoiceRepository.findById(id)).thenReturn(Optional.empty());
         assertThrows(EntityNotFoundException.class, () -> invoiceService.deleteById(id));
-        verify(invoiceRepository, never()).deleteById(any());
+        verify(invoiceRepository, never()).delete(any());
     }
 
     @Test
     void testCreateInvoice_NumberAlreadyExists() {
-        CreateInvoiceDTO createDto = new CreateInvoiceDTO(UUID.randomUUID(), UUID.randomUUID(), "INV-EXIST", LocalDateTime.now(), List.of());
-        when(invoiceRepository.findByInvoiceNumber("INV-EXIST")).thenReturn(Optional.of(new Invoice()));
+        UUID companyId = UUID.randomUUID();
+        CreateInvoiceDTO createDto = new CreateInvoiceDTO(companyId, UUID.randomUUID(), "INV-EXIST", LocalDateTime.now(), List.of());
+        when(invoiceRepository.existsByCompanyIdAndNumber(companyId, "INV-EXIST")).thenReturn(true);
         assertThrows(BusinessRuleException.class, () -> invoiceService.createInvoice(createDto));
+        verify(invoiceRepository, never()).create(any());
+        verifyNoInteractions(numberAllocator);
+    }
+
+    @Test
+    void testGetInvoicePageByCompany_MapsPageAndKeepsToken() {
+        UUID companyId = UUID.randomUUID();
+        Invoice inv = createFullInvoice(UUID.randomUUID(), "INV-PAGE");
+
+        when(invoiceRepository.findPageByCompanyId(companyId, null, 20))
+            .thenReturn(new KeysetPage<>(List.of(inv), "next-token"));
+
+        KeysetPage<InvoiceDTO> page = invoiceService.getInvoicePageByCompany(companyId, null, 20);
+
+        assertEquals(1, page.items().size());
+        assertEquals("INV-PAGE", page.items().get(0).number());
+        assertEquals("next-token", page.nextPageToken());
+        assertTrue(page.hasNext());
+    }
+
+    @Test
+    void testGetInvoicePageByCompany_InvalidPageSize() {
+        UUID companyId = UUID.randomUUID();
+
+        assertThrows(ValidationException.class, () -> invoiceService.getInvoicePageByCompany(companyId, null, 0));
+        assertThrows(ValidationException.class, () -> invoiceService.getInvoicePageByCompany(companyId, null, 1000));
+        verify(invoiceRepository, never()).findPageByCompanyId(any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetInvoiceSummariesByCompany_ValidatesPageSizeAndPassesToken() {
+        UUID companyId = UUID.randomUUID();
+        KeysetPage<InvoiceSummary> page = new KeysetPage<>(List.of(), null);
+        when(invoiceRepository.findSummaryPageByCompanyId(companyId, "token", 50)).thenReturn(page);
+
+        assertSame(page, invoiceService.getInvoiceSummariesByCompany(companyId, "token", 50));
+        assertThrows(ValidationException.class, () -> invoiceService.getInvoiceSummariesByCompany(companyId, null, 0));
+        assertThrows(ValidationException.class,
+            () -> invoiceService.getInvoiceSummariesByCompany(companyId, null, InvoiceService.MAX_PAGE_SIZE + 1));
+        verify(invoiceRepository, times(1)).findSummaryPageByCompanyId(any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetStatusTotals_CachedUntilAnInvoiceIsWritten() {
+        UUID id = UUID.randomUUID();
+        Invoice invoice = createFullInvoice(id, "INV-STAT");
+        UUID companyId = invoice.getCompany().getId();
+        List<InvoiceStatusTotals> totals = List.of(
+            new InvoiceStatusTotals(InvoiceStatus.SENT, 2L, new BigDecimal("300.00"), null));
+
+        when(invoiceRepository.sumByStatus(companyId)).thenReturn(totals);
+        when(invoiceRepository.findById(id)).thenReturn(Optional.of(invoice));
+
+        assertEquals(totals, invoiceService.getStatusTotals(companyId));
+        assertEquals(totals, invoiceService.getStatusTotals(companyId));
+        verify(invoiceRepository, times(1)).sumByStatus(companyId);
+
+        invoiceService.updateStatus(id, InvoiceStatus.PAID);
+        invoiceService.getStatusTotals(companyId);
+        verify(invoiceRepository, times(2)).sumByStatus(companyId);
+    }
+
+    @Test
+    void testGetMonthlyTotals_QueriesWholeMonths() {
+        UUID companyId = UUID.randomUUID();
+
+        invoiceService.getMonthlyTotals(companyId, YearMonth.of(2025, 11), YearMonth.of(2026, 1));
+
+        verify(invoiceRepository).sumByMonth(companyId,
+            LocalDateTime.of(2025, 11, 1, 0, 0), LocalDateTime.of(2026, 2, 1, 0, 0));
+        assertThrows(ValidationException.class,
+            () -> invoiceService.getMonthlyTotals(companyId, YearMonth.of(2026, 2), YearMonth.of(2026, 1)));
+    }
+
+    @Test
+    void testSearchInvoices_RejectsEmptyRanges() {
+        UUID companyId = UUID.randomUUID();
+        InvoiceSearchCriteria valid = InvoiceSearchCriteria.builder()
+            .companyId(companyId)
+            .minAmount(BigDecimal.TEN)
+            .maxAmount(BigDecimal.TEN)
+            .build();
+        when(invoiceRepository.search(valid, null, 20)).thenReturn(new KeysetPage<>(List.of(), null));
+
+        assertTrue(invoiceService.searchInvoices(valid, null, 20).items().isEmpty());
+
+        LocalDateTime day = LocalDateTime.of(2026, 3, 1, 0, 0);
+        assertThrows(ValidationException.class, () -> invoiceService.searchInvoices(
+            InvoiceSearchCriteria.builder().companyId(companyId).dueFrom(day).dueBefore(day).build(), null, 20));
+        assertThrows(ValidationException.class, () -> invoiceService.searchInvoices(
+            InvoiceSearchCriteria.builder().companyId(companyId).minAmount(BigDecimal.TEN).maxAmount(BigDecimal.ONE).build(), null, 20));
+        assertThrows(ValidationException.class, () -> invoiceService.searchInvoices(
+            InvoiceSearchCriteria.builder().build(), null, 20));
+        verify(invoiceRepository, times(1)).search(any(), any(), anyInt());
     }
 
     private Invoice createFullInvoice(UUID id, String number) {
@@ -0,0 +1,55 @@
+package org.example.auth;
+
+import org.example.exception.CapacityExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    @Test
+    void hashesAndVerifiesOnThePool() {
+        try (PasswordHasher hasher = new PasswordHasher(2, 8, Duration.ofSeconds(30))) {
+            String hash = hasher.hash("correct horse");
+
+            assertTrue(hasher.matches("correct horse", hash));
+            assertFalse(hasher.matchesAsync("wrong horse", hash).join());
+
+            PasswordHasherMetrics metrics = hasher.getMetrics();
+            assertEquals(3, metrics.completed());
+            assertEquals(3, metrics.latency().count());
+            assertTrue(metrics.latency().maxMillis() > 0);
+        }
+    }
+
+    @Test
+    void rejectsWhenThePoolAndQueueAreFull() {
+        try (PasswordHasher hasher = new PasswordHasher(1, 0, Duration.ofSeconds(30))) {
+            CompletableFuture<String> running = hasher.hashAsync("first password");
+            CompletableFuture<String> rejected = hasher.hashAsync("second password");
+
+            CompletionException e = assertThrows(CompletionException.class, rejected::join);
+            assertInstanceOf(CapacityExceededException.class, e.getCause());
+            assertNotNull(running.join());
+            assertEquals(1, hasher.getMetrics().rejected());
+        }
+    }
+
+    @Test
+    void callsThatWaitTooLongFail() {
+        try (PasswordHasher hasher = new PasswordHasher(1, 4, Duration.ofMillis(1))) {
+            assertThrows(CapacityExceededException.class, () -> hasher.hash("slow password"));
+            assertEquals(1, hasher.getMetrics().timedOut());
+        }
+    }
+
+    @Test
+    void rejectsInvalidPoolSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(0, 1, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(1, -1, Duration.ofSeconds(1)));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.auth;
+
+import org.example.entity.user.UserDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionStoreTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SessionStore store = new SessionStore(Duration.ofMinutes(30), 1_000, nanos::get, Clock.systemUTC());
+
+    @Test
+    void tokensAreRandomAndResolveToTheirUser() {
+        UserDTO user = user();
+        AuthSession first = store.create(user);
+        AuthSession second = store.create(user);
+
+        assertNotEquals(first.token(), second.token());
+        assertEquals(43, first.token().length());
+        assertEquals(user, store.resolve(first.token()).orElseThrow().user());
+        assertTrue(store.resolve("unknown").isEmpty());
+        assertTrue(store.resolve(null).isEmpty());
+        assertFalse(first.toString().contains(first.token()));
+    }
+
+    @Test
+    void expirySlidesWithUse() {
+        AuthSession session = store.create(user());
+
+        advance(Duration.ofMinutes(20));
+        assertTrue(store.resolve(session.token()).isPresent());
+        advance(Duration.ofMinutes(20));
+        assertTrue(store.resolve(session.token()).isPresent());
+        advance(Duration.ofMinutes(31));
+        assertTrue(store.resolve(session.token()).isEmpty());
+    }
+
+    @Test
+    void revokesSingleSessionsAndWholeUsers() {
+        UserDTO leaving = user();
+        UserDTO staying = user();
+        AuthSession laptop = store.create(leaving);
+        AuthSession phone = store.create(leaving);
+        AuthSession other = store.create(staying);
+
+        store.revoke(laptop.token());
+        assertTrue(store.resolve(laptop.token()).isEmpty());
+        assertTrue(store.resolve(phone.token()).isPresent());
+
+        assertEquals(1, store.revokeUser(leaving.id()));
+        assertTrue(store.resolve(phone.token()).isEmpty());
+        assertTrue(store.resolve(other.token()).isPresent());
+    }
+
+    @Test
+    void sizeIsBounded() {
+        SessionStore small = new SessionStore(Duration.ofMinutes(30), 10);
+        for (int i = 0; i < 50; i++) {
+            small.create(user());
+        }
+        assertTrue(small.size() <= 10);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static UserDTO user() {
+        return UserDTO.builder().id(UUID.randomUUID()).email("user@example.com").build();
+    }
+}
@@ -0,0 +1,141 @@
+package org.example.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the JMH benchmarks of this package with the GC profiler, so every result carries the bytes
+ * allocated per operation next to the time, and compares them with a recorded baseline.
+ * <p>
+ * JMH forks a JVM per benchmark from the launcher's class path, so start it with exec:exec rather
+ * than exec:java:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.example.bench.BenchmarkRunner"
+ * </pre>
+ * An optional argument limits the run to benchmarks matching a regex, e.g. {@code InvoiceBenchmark}.
+ * Results are written to target/jmh-result.json. When the baseline file exists
+ * (-Dbench.baseline, default src/test/resources/bench/baseline.json), a benchmark whose time or
+ * allocation per operation grew by more than -Dbench.tolerance (default 0.10) is reported and
+ * the runner exits with status 1. To record a new baseline, run on an otherwise idle machine and
+ * copy target/jmh-result.json over the baseline file. Times only compare on the same hardware, so
+ * name the reference machine (CPU, cores, OS, JDK) in the commit that adds or replaces the baseline.
+ * No baseline is committed yet: recording it on the reference machine is still an open backlog
+ * item. Until it is done, the runner only reports the current results.
+ */
+public class BenchmarkRunner {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+    // allocation differences below this many bytes per operation are noise, not regressions
+    private static final double ALLOCATION_SLACK_BYTES = 16;
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + "\\..*Benchmark";
+        Path result = Path.of("target", "jmh-result.json");
+        Path baseline = Path.of(System.getProperty("bench.baseline", "src/test/resources/bench/baseline.json"));
+        double tolerance = Double.parseDouble(System.getProperty("bench.tolerance", "0.10"));
+
+        Files.createDirectories(result.getParent());
+        Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(result.toString())
+            .build();
+        Collection<RunResult> results = new Runner(options).run();
+
+        if (!Files.exists(baseline)) {
+            System.out.printf("%nNo baseline at %s; copy %s there to record one.%n", baseline, result);
+            return;
+        }
+        int regressions = compare(results, readBaseline(baseline), tolerance);
+        if (regressions > 0) {
+            System.out.printf("%n%d benchmark(s) regressed by more than %.0f%% against %s%n",
+                regressions, tolerance * 100, baseline);
+            System.exit(1);
+        }
+        System.out.printf("%nNo regressions against %s%n", baseline);
+    }
+
+    private static int compare(Collection<RunResult> results, Map<String, Score> baseline, double tolerance) {
+        System.out.printf("%n%-70s %14s %14s %16s %16s%n", "Benchmark", "baseline", "now", "baseline B/op", "now B/op");
+        int regressions = 0;
+        for (RunResult run : results) {
+            String key = key(run);
+            Score now = new Score(run.getPrimaryResult().getScore(), allocation(run));
+            Score before = baseline.get(key);
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %16s %16.0f  (new)%n", key, "-", now.time(), "-", now.allocated());
+                continue;
+            }
+            boolean slower = now.time() > before.time() * (1 + tolerance);
+            boolean allocates = now.allocated() > before.allocated() * (1 + tolerance) + ALLOCATION_SLACK_BYTES;
+            if (slower || allocates) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %16.0f %16.0f%s%n", key, before.time(), now.time(),
+                before.allocated(), now.allocated(), slower || allocates ? "  REGRESSION" : "");
+        }
+        return regressions;
+    }
+
+    private static String key(RunResult run) {
+        Map<String, String> params = new TreeMap<>();
+        for (String name : run.getParams().getParamsKeys()) {
+            params.put(name, run.getParams().getParam(name));
+        }
+        return key(run.getParams().getBenchmark(), params);
+    }
+
+    private static String key(String benchmark, Map<String, String> params) {
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+
+    private static double allocation(RunResult run) {
+        for (Map.Entry<String, Result> secondary : run.getSecondaryResults().entrySet()) {
+            if (secondary.getKey().endsWith(ALLOCATION)) {
+                return secondary.getValue().getScore();
+            }
+        }
+        return 0;
+    }
+
+    // The JSON that JMH writes with -rf json, keyed like the live results
+    private static Map<String, Score> readBaseline(Path file) throws IOException {
+        Map<String, Score> scores = new HashMap<>();
+        for (JsonNode entry : new ObjectMapper().readTree(file.toFile())) {
+            Map<String, String> params = new TreeMap<>();
+            for (Map.Entry<String, JsonNode> param : entry.path("params").properties()) {
+                params.put(param.getKey(), param.getValue().asText());
+            }
+            double allocated = 0;
+            for (Map.Entry<String, JsonNode> metric : entry.path("secondaryMetrics").properties()) {
+                if (metric.getKey().endsWith(ALLOCATION)) {
+                    allocated = metric.getValue().path("score").asDouble();
+                }
+            }
+            scores.put(key(entry.path("benchmark").asText(), params),
+                new Score(entry.path("primaryMetric").path("score").asDouble(), allocated));
+        }
+        return scores;
+    }
+
+    private record Score(double time, double allocated) {
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.bench;
+
+import org.example.entity.client.Client;
+import org.example.entity.client.ClientDTO;
+import org.example.entity.company.Company;
+import org.example.service.UserService;
+import org.example.util.LogUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The small per-request costs: ClientDTO mapping, email masking for the logs and the email check
+ * of UserService.register. {@code emailStringMatches} is the check as it was written before the
+ * pattern was precompiled and stays here as the reference for {@code emailPrecompiled}.
+ * <p>
+ * Run through {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientBenchmark {
+
+    private static final String EMAIL_REGEX =
+        "^[A-Za-z0-9._%+-]+@[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?(\\.[A-Za-z0-9]([A-Za-z0-9-]*[A-Za-z0-9])?)*\\.[A-Za-z]{2,}$";
+
+    @Param({"anna.svensson@example.com", "not-an-address"})
+    String email;
+
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        Company company = Company.builder().id(UUID.randomUUID()).name("Benchmark").build();
+        client = Client.builder()
+            .id(UUID.randomUUID())
+            .company(company)
+            .firstName("Anna")
+            .lastName("Svensson")
+            .email(email)
+            .address("Storgatan 1")
+            .city("Göteborg")
+            .country("Sweden")
+            .phoneNumber("+46 31 123 45 67")
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+
+    @Benchmark
+    public ClientDTO toDTO() {
+        return ClientDTO.fromEntity(client);
+    }
+
+    @Benchmark
+    public String maskEmail() {
+        return LogUtil.maskEmail(email);
+    }
+
+    @Benchmark
+    public boolean emailPrecompiled() {
+        return UserService.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean emailStringMatches() {
+        return email.matches(EMAIL_REGEX);
+    }
+}
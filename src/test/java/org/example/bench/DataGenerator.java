@@ -0,0 +1,218 @@
+package org.example.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.auth.PasswordEncoder;
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.entity.company.CompanyUser;
+import org.example.entity.invoice.CreateInvoiceDTO;
+import org.example.entity.invoice.Invoice;
+import org.example.entity.invoice.InvoiceItemDTO;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.user.User;
+import org.example.repository.BaseRepository;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.repository.CompanyUserRepository;
+import org.example.repository.InvoiceNumberSequenceRepository;
+import org.example.repository.InvoiceRepository;
+import org.example.repository.UserRepository;
+import org.example.service.InvoiceNumberAllocator;
+import org.example.util.JpaUtil;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the local database with a realistic volume of data: companies, their users and
+ * company_user links, clients and invoices with lines. Everything goes through the repositories'
+ * bulk paths (insertAll, insertAggregates), so millions of rows load in minutes. Invoices are
+ * spread over the past year with statuses that fit their due date, and each company's number
+ * sequence is advanced past the generated numbers so the application can keep creating invoices.
+ * <p>
+ * Runs against the local database from docker-compose:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.example.bench.DataGenerator -Dgen.companies=20 -Dgen.invoicesPerCompany=50000
+ * </pre>
+ * Settings (system properties): gen.companies (10), gen.usersPerCompany (3),
+ * gen.clientsPerCompany (200), gen.invoicesPerCompany (2000), gen.lines (line count
+ * distribution as range:weight, default "1:35,2-5:40,6-20:20,21-100:5"), gen.historyDays (365),
+ * gen.batchSize (500), gen.seed (42).
+ * <p>
+ * Every generated user has the password "password123". One user of each company is also a member
+ * of the next company, so some users see several companies. Each run uses fresh emails and
+ * organisation numbers, so it can be repeated to add more data.
+ */
+public class DataGenerator {
+
+    public static final String PASSWORD = "password123";
+
+    private static final String[] FIRST_NAMES = {
+        "Anna", "Erik", "Maria", "Lars", "Karin", "Johan", "Sara", "Anders", "Emma", "Nils", "Elin", "Oskar"
+    };
+    private static final String[] LAST_NAMES = {
+        "Andersson", "Johansson", "Karlsson", "Nilsson", "Eriksson", "Larsson", "Olsson", "Persson", "Svensson", "Berg"
+    };
+    private static final String[] CITIES = {"Stockholm", "Göteborg", "Malmö", "Uppsala", "Västerås", "Örebro", "Linköping"};
+
+    private final int companies = Integer.getInteger("gen.companies", 10);
+    private final int usersPerCompany = Integer.getInteger("gen.usersPerCompany", 3);
+    private final int clientsPerCompany = Integer.getInteger("gen.clientsPerCompany", 200);
+    private final int invoicesPerCompany = Integer.getInteger("gen.invoicesPerCompany", 2_000);
+    private final Weighted<Weighted.Range> lines =
+        Weighted.parse(System.getProperty("gen.lines", "1:35,2-5:40,6-20:20,21-100:5"), Weighted.Range::parse);
+    private final int historyDays = Integer.getInteger("gen.historyDays", 365);
+    private final int batchSize = Integer.getInteger("gen.batchSize", 500);
+    private final Random random = new Random(Long.getLong("gen.seed", 42));
+    // keeps emails and organisation numbers unique across runs
+    private final String run = Long.toString(System.currentTimeMillis(), 36);
+
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final CompanyUserRepository companyUserRepository;
+    private final ClientRepository clientRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceNumberAllocator numberAllocator;
+
+    private DataGenerator(EntityManagerFactory emf) {
+        this.userRepository = new UserRepository(emf);
+        this.companyRepository = new CompanyRepository(emf);
+        this.companyUserRepository = new CompanyUserRepository(emf);
+        this.clientRepository = new ClientRepository(emf);
+        this.invoiceRepository = new InvoiceRepository(emf);
+        this.numberAllocator = new InvoiceNumberAllocator(new InvoiceNumberSequenceRepository(emf));
+    }
+
+    public static void main(String[] args) {
+        new DataGenerator(JpaUtil.getEntityManagerFactory()).generate();
+    }
+
+    private void generate() {
+        long start = System.nanoTime();
+        // one BCrypt hash for everybody, hashing each user would dominate the run
+        String passwordHash = PasswordEncoder.hash(PASSWORD);
+
+        List<Company> companyList = new ArrayList<>(companies);
+        for (int c = 0; c < companies; c++) {
+            companyList.add(Company.builder()
+                .orgNum("GEN-" + run + "-" + c)
+                .email("billing@company" + c + "-" + run + ".example.com")
+                .name("Generated company " + c)
+                .city(CITIES[random.nextInt(CITIES.length)])
+                .country("Sweden")
+                .build());
+        }
+        inBatches(companyRepository, companyList);
+
+        List<User> users = new ArrayList<>(companies * usersPerCompany);
+        for (int c = 0; c < companies; c++) {
+            for (int u = 0; u < usersPerCompany; u++) {
+                users.add(User.builder()
+                    .firstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)])
+                    .lastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)])
+                    .email("user" + u + ".company" + c + "-" + run + "@example.com")
+                    .password(passwordHash)
+                    .build());
+            }
+        }
+        inBatches(userRepository, users);
+
+        List<CompanyUser> links = new ArrayList<>();
+        for (int c = 0; c < companies; c++) {
+            for (int u = 0; u < usersPerCompany; u++) {
+                links.add(new CompanyUser(users.get(c * usersPerCompany + u), companyList.get(c)));
+            }
+            if (usersPerCompany > 0 && companies > 1) {
+                links.add(new CompanyUser(users.get(c * usersPerCompany), companyList.get((c + 1) % companies)));
+            }
+        }
+        inBatches(companyUserRepository, links);
+        System.out.printf("%d companies, %d users, %d memberships (first user: %s / %s)%n",
+            companies, users.size(), links.size(), users.isEmpty() ? "-" : users.getFirst().getEmail(), PASSWORD);
+
+        long invoices = 0;
+        long invoiceLines = 0;
+        for (Company company : companyList) {
+            long companyStart = System.nanoTime();
+            List<Client> clients = clients(company);
+            inBatches(clientRepository, clients);
+
+            List<Invoice> batch = new ArrayList<>(batchSize);
+            for (int i = 1; i <= invoicesPerCompany; i++) {
+                Invoice invoice = invoice(company, clients.get(random.nextInt(clients.size())), i);
+                invoiceLines += invoice.getInvoiceItems().size();
+                batch.add(invoice);
+                if (batch.size() == batchSize) {
+                    invoiceRepository.insertAggregates(batch);
+                    batch.clear();
+                }
+            }
+            invoiceRepository.insertAggregates(batch);
+            numberAllocator.reserveThrough(company.getId(), invoicesPerCompany);
+            invoices += invoicesPerCompany;
+
+            double seconds = (System.nanoTime() - companyStart) / 1e9;
+            System.out.printf("%s: %d clients, %d invoices in %.1f s (%.0f invoices/s)%n",
+                company.getName(), clients.size(), invoicesPerCompany, seconds, invoicesPerCompany / seconds);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Generated %d invoices with %d lines for %d companies in %.1f s%n",
+            invoices, invoiceLines, companies, seconds);
+    }
+
+    private List<Client> clients(Company company) {
+        List<Client> clients = new ArrayList<>(clientsPerCompany);
+        for (int i = 0; i < Math.max(1, clientsPerCompany); i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            clients.add(Client.builder()
+                .company(company)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(firstName.toLowerCase() + "." + lastName.toLowerCase() + "." + i + "@client.example.com")
+                .address("Storgatan " + (1 + random.nextInt(120)))
+                .city(CITIES[random.nextInt(CITIES.length)])
+                .country("Sweden")
+                .phoneNumber("+46 70 " + (1_000_000 + random.nextInt(9_000_000)))
+                .build());
+        }
+        return clients;
+    }
+
+    private Invoice invoice(Company company, Client client, long number) {
+        LocalDateTime createdAt = LocalDateTime.now()
+            .minusMinutes(random.nextLong((long) Math.max(1, historyDays) * 24 * 60));
+        LocalDateTime dueDate = createdAt.plusDays(30);
+
+        int lineCount = lines.next(random).next(random);
+        List<InvoiceItemDTO> items = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            items.add(new InvoiceItemDTO(null, 1 + random.nextInt(10), BigDecimal.valueOf(500 + random.nextInt(500_000), 2)));
+        }
+
+        Invoice invoice = Invoice.fromDTO(new CreateInvoiceDTO(company.getId(), client.getId(),
+            InvoiceNumberAllocator.format(number), dueDate, items), company, client);
+        invoice.setCreatedAt(createdAt);
+        invoice.setStatus(status(dueDate));
+        return invoice;
+    }
+
+    private InvoiceStatus status(LocalDateTime dueDate) {
+        int roll = random.nextInt(100);
+        if (dueDate.isBefore(LocalDateTime.now())) {
+            return roll < 75 ? InvoiceStatus.PAID : roll < 80 ? InvoiceStatus.CANCELLED : InvoiceStatus.OVERDUE;
+        }
+        return roll < 20 ? InvoiceStatus.CREATED : roll < 70 ? InvoiceStatus.SENT : InvoiceStatus.PAID;
+    }
+
+    private <T> void inBatches(BaseRepository<T, ?> repository, List<? extends T> entities) {
+        for (int from = 0; from < entities.size(); from += batchSize) {
+            repository.insertAll(entities.subList(from, Math.min(entities.size(), from + batchSize)));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.entity.UuidV7Generator;
+import org.example.util.DataSourceConfig;
+import org.example.util.JpaUtil;
+import org.example.util.PoolMetricsTracker;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Inserts the same number of rows into two scratch tables shaped like invoice_items, once keyed by
+ * random v4 UUIDs and once by UuidV7Generator ids, and prints the insert rate per slice of the
+ * table together with the final data and index size.
+ * <p>
+ * Runs against the local database from docker-compose:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.example.bench.IdInsertBenchmark -Dexec.args="1000000 1000"
+ * </pre>
+ * Arguments: number of rows, rows per batch. Make sure the buffer pool is smaller than the
+ * tables (e.g. {@code --innodb-buffer-pool-size=64M}), otherwise random ids stay cheap.
+ */
+public class IdInsertBenchmark {
+
+    private static final int REPORT_SLICES = 10;
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+
+        DataSourceConfig config = DataSourceConfig.fromSystemProperties(DataSourceConfig.PRIMARY_PREFIX);
+        try (HikariDataSource dataSource = JpaUtil.createDataSource("id-benchmark", config, new PoolMetricsTracker())) {
+            run("uuid v4 (random)", "bench_ids_v4", UUID::randomUUID, dataSource, rows, batchSize);
+            run("uuid v7 (ordered)", "bench_ids_v7", UuidV7Generator::next, dataSource, rows, batchSize);
+        }
+    }
+
+    private static void run(String label, String table, Supplier<UUID> ids, HikariDataSource dataSource,
+                            int rows, int batchSize) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            createTable(connection, table);
+            connection.setAutoCommit(false);
+
+            int slice = Math.max(rows / REPORT_SLICES, batchSize);
+            long start = System.nanoTime();
+            long sliceStart = start;
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, parent_id, quantity, unit_price) VALUES (?, ?, ?, ?)")) {
+                byte[] parent = bytes(ids.get());
+                for (int i = 1; i <= rows; i++) {
+                    if (i % 20 == 0) {
+                        parent = bytes(ids.get());
+                    }
+                    insert.setBytes(1, bytes(ids.get()));
+                    insert.setBytes(2, parent);
+                    insert.setInt(3, 1 + i % 5);
+                    insert.setLong(4, 100 + i % 1000);
+                    insert.addBatch();
+
+                    if (i % batchSize == 0 || i == rows) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                    if (i % slice == 0) {
+                        long now = System.nanoTime();
+                        System.out.printf("%-18s rows=%,10d  %,8.0f rows/s%n", label, i, slice / ((now - sliceStart) / 1e9));
+                        sliceStart = now;
+                    }
+                }
+            }
+
+            connection.setAutoCommit(true);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-18s total=%.1fs  avg=%,.0f rows/s  %s%n%n", label, seconds, rows / seconds, tableSize(connection, table));
+            dropTable(connection, table);
+        }
+    }
+
+    private static void createTable(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " ("
+                + "id BINARY(16) NOT NULL PRIMARY KEY, "
+                + "parent_id BINARY(16) NOT NULL, "
+                + "quantity INTEGER NOT NULL, "
+                + "unit_price DECIMAL(38, 2) NOT NULL, "
+                + "INDEX idx_" + table + "_parent (parent_id)"
+                + ") ENGINE = InnoDB");
+        }
+    }
+
+    private static void dropTable(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+    }
+
+    private static String tableSize(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + table);
+        }
+        try (PreparedStatement query = connection.prepareStatement(
+            "SELECT data_length, index_length FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?")) {
+            query.setString(1, table);
+            try (ResultSet rs = query.executeQuery()) {
+                rs.next();
+                return String.format("data=%,dKB index=%,dKB", rs.getLong(1) / 1024, rs.getLong(2) / 1024);
+            }
+        }
+    }
+
+    // Same layout Hibernate uses for UUID -> BINARY(16): most significant bits first
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits())
+            .array();
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.bench;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.entity.invoice.CreateInvoiceDTO;
+import org.example.entity.invoice.InvoiceItemDTO;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.repository.InvoiceNumberSequenceRepository;
+import org.example.repository.InvoiceRepository;
+import org.example.service.InvoiceNumberAllocator;
+import org.example.service.InvoiceService;
+import org.example.util.DataSourceConfig;
+import org.example.util.JpaUtil;
+import org.example.util.PoolMetricsTracker;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Persists invoices with many lines through InvoiceService, once with JDBC batching
+ * disabled and once with the settings from persistence.xml, and prints how many
+ * statements each invoice costs.
+ * <p>
+ * Runs against the local database from docker-compose:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.example.bench.InvoiceBatchingBenchmark -Dexec.args="20 200"
+ * </pre>
+ * Arguments: number of invoices, lines per invoice.
+ */
+public class InvoiceBatchingBenchmark {
+
+    public static void main(String[] args) throws SQLException {
+        int invoices = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int lines = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        DataSourceConfig config = DataSourceConfig.fromSystemProperties(DataSourceConfig.PRIMARY_PREFIX);
+        try (HikariDataSource dataSource = JpaUtil.createDataSource("batching-benchmark", config, new PoolMetricsTracker())) {
+            run("batching disabled", dataSource, Map.of(
+                "hibernate.jdbc.batch_size", "1",
+                "hibernate.order_inserts", "false",
+                "hibernate.order_updates", "false"
+            ), invoices, lines);
+            run("batching enabled", dataSource, Map.of(), invoices, lines);
+        }
+    }
+
+    private static void run(String label, HikariDataSource dataSource, Map<String, Object> overrides,
+                            int invoices, int lines) throws SQLException {
+        Map<String, Object> properties = new HashMap<>(overrides);
+        properties.put("hibernate.generate_statistics", "true");
+
+        EntityManagerFactory emf = JpaUtil.createEntityManagerFactory(dataSource, properties);
+        try {
+            CompanyRepository companyRepository = new CompanyRepository(emf);
+            ClientRepository clientRepository = new ClientRepository(emf);
+            InvoiceService invoiceService = new InvoiceService(new InvoiceRepository(emf), companyRepository, clientRepository,
+                new InvoiceNumberAllocator(new InvoiceNumberSequenceRepository(emf)));
+
+            Company company = companyRepository.create(Company.builder()
+                .orgNum("BENCH-" + UUID.randomUUID())
+                .email("benchmark@example.com")
+                .name("Batching benchmark")
+                .build());
+            Client client = clientRepository.create(Client.builder()
+                .company(company)
+                .email("client@example.com")
+                .build());
+
+            Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+            statistics.clear();
+            long serverStatementsBefore = serverStatementCount(dataSource);
+            long start = System.nanoTime();
+
+            for (int i = 0; i < invoices; i++) {
+                invoiceService.createInvoice(new CreateInvoiceDTO(
+                    company.getId(),
+                    client.getId(),
+                    "BENCH-" + UUID.randomUUID(),
+                    LocalDateTime.now().plusDays(30),
+                    items(lines)
+                ));
+            }
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            long serverStatements = serverStatementCount(dataSource) - serverStatementsBefore;
+
+            System.out.printf("%-18s invoices=%d lines/invoice=%d time=%dms%n", label, invoices, lines, elapsedMs);
+            System.out.printf("%-18s prepared statements/invoice=%.1f  server INSERT/SELECT statements/invoice=%.1f  transactions=%d%n",
+                "",
+                statistics.getPrepareStatementCount() / (double) invoices,
+                serverStatements / (double) invoices,
+                statistics.getSuccessfulTransactionCount());
+
+            companyRepository.delete(company);
+        } finally {
+            emf.close();
+        }
+    }
+
+    private static List<InvoiceItemDTO> items(int count) {
+        List<InvoiceItemDTO> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InvoiceItemDTO(null, 1 + i % 5, BigDecimal.valueOf(100 + i)));
+        }
+        return items;
+    }
+
+    // Statements as counted by the server; a rewritten multi-row INSERT counts once.
+    // These are global counters, so run the benchmark on an otherwise idle database.
+    private static long serverStatementCount(HikariDataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                 "SHOW GLOBAL STATUS WHERE Variable_name IN ('Com_insert', 'Com_select')")) {
+            long total = 0;
+            while (rs.next()) {
+                total += rs.getLong(2);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.bench;
+
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.entity.invoice.CreateInvoiceDTO;
+import org.example.entity.invoice.Invoice;
+import org.example.entity.invoice.InvoiceDTO;
+import org.example.entity.invoice.InvoiceItemDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice construction and mapping in memory, without a database: building an invoice from its
+ * DTO, recomputing the total, and mapping it back to an InvoiceDTO, for invoices of 1 to 10 000
+ * lines. All three should stay linear in the number of lines.
+ * <p>
+ * Run through {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    int lines;
+
+    private Company company;
+    private Client client;
+    private CreateInvoiceDTO dto;
+    private Invoice invoice;
+
+    @Setup
+    public void setUp() {
+        company = Company.builder().id(UUID.randomUUID()).name("Benchmark").build();
+        client = Client.builder().id(UUID.randomUUID()).company(company).email("client@example.com").build();
+
+        Random random = new Random(42);
+        List<InvoiceItemDTO> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(new InvoiceItemDTO(null, 1 + random.nextInt(20),
+                BigDecimal.valueOf(100 + random.nextInt(100_000), 2)));
+        }
+        dto = new CreateInvoiceDTO(company.getId(), client.getId(), "BENCH-1", LocalDateTime.now().plusDays(30), items);
+
+        invoice = Invoice.fromDTO(dto, company, client);
+        invoice.setId(UUID.randomUUID());
+        invoice.setCreatedAt(LocalDateTime.now());
+        invoice.getInvoiceItems().forEach(item -> item.setId(UUID.randomUUID()));
+    }
+
+    @Benchmark
+    public Invoice fromDTO() {
+        return Invoice.fromDTO(dto, company, client);
+    }
+
+    @Benchmark
+    public BigDecimal recalcTotals() {
+        invoice.recalcTotals();
+        return invoice.getAmount();
+    }
+
+    @Benchmark
+    public InvoiceDTO toDTO() {
+        return InvoiceDTO.fromEntity(invoice);
+    }
+}
@@ -0,0 +1,246 @@
+package org.example.bench;
+
+import jakarta.persistence.EntityManager;
+import org.example.AppContext;
+import org.example.entity.client.ClientDTO;
+import org.example.entity.invoice.CreateInvoiceDTO;
+import org.example.entity.invoice.InvoiceItemDTO;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.invoice.InvoiceSummary;
+import org.example.repository.InvoiceSearchCriteria;
+import org.example.repository.InvoiceSort;
+import org.example.service.ClientService;
+import org.example.service.InvoiceService;
+import org.example.util.JpaUtil;
+import org.example.util.LatencyHistogram;
+import org.example.util.LatencySnapshot;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load against the services: load.threads workers each pick an operation from the
+ * mix, run it for a random company (and client or invoice of that company) and start the next one
+ * as soon as it returns. After the warm-up it prints throughput and p50/p99/p99.9 latency per
+ * operation, together with the connection pool and optimistic retry counters.
+ * <p>
+ * The services are wired exactly as in the application (AppContext), so caches, the number
+ * allocator and the read replica routing take part. Seed the database first with DataGenerator;
+ * the companies used are the first load.companies that have invoices. createInvoice and
+ * updateStatus write, so run it against a local database only:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.example.bench.LoadDriver -Dload.threads=64 -Dload.seconds=120
+ * </pre>
+ * Settings (system properties): load.threads (32), load.seconds (60), load.warmupSeconds (10),
+ * load.companies (20), load.mix (operation:weight pairs, see DEFAULT_MIX for the operations),
+ * load.lines (lines per created invoice, as for DataGenerator), load.seed (42).
+ */
+public class LoadDriver {
+
+    private static final int PAGE_SIZE = 50;
+    private static final int SEARCH_LIMIT = 10;
+    private static final int REPORT_INTERVAL_SECONDS = 10;
+    private static final String DEFAULT_MIX =
+        "listInvoices:25,searchInvoices:15,getInvoice:20,createInvoice:8,updateStatus:7,statistics:5,listClients:5,searchClients:15";
+
+    private final int threads = Integer.getInteger("load.threads", 32);
+    private final int seconds = Integer.getInteger("load.seconds", 60);
+    private final int warmupSeconds = Integer.getInteger("load.warmupSeconds", 10);
+    private final int companyCount = Integer.getInteger("load.companies", 20);
+    private final Weighted<Operation> mix = Weighted.parse(System.getProperty("load.mix", DEFAULT_MIX), Operation::parse);
+    private final Weighted<Weighted.Range> lines =
+        Weighted.parse(System.getProperty("load.lines", "1:35,2-5:40,6-20:20,21-100:5"), Weighted.Range::parse);
+    private final long seed = Long.getLong("load.seed", 42);
+
+    private final InvoiceService invoiceService;
+    private final ClientService clientService;
+    private final Map<Operation, Stats> stats = new LinkedHashMap<>();
+    private List<Target> targets;
+
+    private LoadDriver(AppContext context) {
+        this.invoiceService = context.getInvoiceService();
+        this.clientService = context.getClientService();
+        for (Operation operation : mix.values()) {
+            stats.put(operation, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        try (AppContext context = new AppContext()) {
+            new LoadDriver(context).run();
+        }
+    }
+
+    private enum Operation {
+        LIST_INVOICES, SEARCH_INVOICES, GET_INVOICE, CREATE_INVOICE, UPDATE_STATUS, STATISTICS, LIST_CLIENTS,
+        SEARCH_CLIENTS;
+
+        // listInvoices -> LIST_INVOICES
+        static Operation parse(String name) {
+            return valueOf(name.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase());
+        }
+    }
+
+    /**
+     * A company under load with the ids the operations pick from.
+     */
+    private record Target(UUID companyId, List<UUID> clientIds, List<String> clientNames, List<UUID> invoiceIds) {
+    }
+
+    private void run() throws InterruptedException {
+        targets = loadTargets();
+        System.out.printf("%d workers on %d companies for %d s after %d s warm-up, mix %s%n",
+            threads, targets.size(), seconds, warmupSeconds, mix.values());
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                Random random = new Random(seed + i);
+                workers.submit(() -> work(random, measureFrom, end));
+            }
+            workers.shutdown();
+            while (!workers.awaitTermination(REPORT_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+                long done = stats.values().stream().mapToLong(s -> s.latency.snapshot().count()).sum();
+                System.out.printf("  %3d s: %d operations measured%n", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), done);
+            }
+        }
+        report();
+    }
+
+    private void work(Random random, long measureFrom, long end) {
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = mix.next(random);
+            Target target = targets.get(random.nextInt(targets.size()));
+            Stats operationStats = stats.get(operation);
+            try {
+                execute(operation, target, random);
+                if (now >= measureFrom) {
+                    operationStats.latency.recordNanos(System.nanoTime() - now);
+                }
+            } catch (RuntimeException e) {
+                if (now >= measureFrom) {
+                    operationStats.errors.increment();
+                    operationStats.lastError.set(e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void execute(Operation operation, Target target, Random random) {
+        switch (operation) {
+            case LIST_INVOICES -> invoiceService.getInvoiceSummariesByCompany(target.companyId(), null, PAGE_SIZE);
+            case SEARCH_INVOICES -> invoiceService.searchInvoices(InvoiceSearchCriteria.builder()
+                .companyId(target.companyId())
+                .statuses(Set.of(InvoiceStatus.values()[random.nextInt(InvoiceStatus.values().length)]))
+                .dueFrom(LocalDateTime.now().minusDays(random.nextInt(365)))
+                .sort(InvoiceSort.values()[random.nextInt(InvoiceSort.values().length)])
+                .build(), null, PAGE_SIZE);
+            case GET_INVOICE -> invoiceService.getInvoiceById(pick(target.invoiceIds(), random));
+            case CREATE_INVOICE -> invoiceService.createInvoice(new CreateInvoiceDTO(target.companyId(),
+                pick(target.clientIds(), random), null, LocalDateTime.now().plusDays(30), items(random)));
+            case UPDATE_STATUS -> invoiceService.updateStatus(pick(target.invoiceIds(), random),
+                random.nextBoolean() ? InvoiceStatus.SENT : InvoiceStatus.PAID);
+            case STATISTICS -> invoiceService.getStatusTotals(target.companyId());
+            case LIST_CLIENTS -> clientService.getClientsByCompany(target.companyId());
+            case SEARCH_CLIENTS -> {
+                String name = pick(target.clientNames(), random);
+                clientService.searchClients(target.companyId(), name.substring(0, Math.min(3, name.length())), SEARCH_LIMIT);
+            }
+        }
+    }
+
+    private List<InvoiceItemDTO> items(Random random) {
+        int count = lines.next(random).next(random);
+        List<InvoiceItemDTO> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InvoiceItemDTO(null, 1 + random.nextInt(10), BigDecimal.valueOf(500 + random.nextInt(500_000), 2)));
+        }
+        return items;
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private List<Target> loadTargets() {
+        List<UUID> companyIds;
+        try (EntityManager em = JpaUtil.getEntityManager()) {
+            companyIds = em.createQuery(
+                    "SELECT c.id FROM Company c WHERE EXISTS (SELECT 1 FROM Invoice i WHERE i.company = c) ORDER BY c.id",
+                    UUID.class)
+                .setMaxResults(companyCount)
+                .getResultList();
+        }
+        if (companyIds.isEmpty()) {
+            throw new IllegalStateException("No company with invoices found, run DataGenerator first");
+        }
+
+        List<Target> loaded = new ArrayList<>(companyIds.size());
+        for (UUID companyId : companyIds) {
+            List<ClientDTO> clients = clientService.getClientsByCompany(companyId);
+            List<UUID> invoiceIds = invoiceService
+                .getInvoiceSummariesByCompany(companyId, null, InvoiceService.MAX_PAGE_SIZE).items().stream()
+                .map(InvoiceSummary::id)
+                .toList();
+            loaded.add(new Target(
+                companyId,
+                clients.stream().map(ClientDTO::id).toList(),
+                clients.stream().map(client -> client.lastName() != null ? client.lastName() : client.email()).toList(),
+                invoiceIds
+            ));
+        }
+        return loaded;
+    }
+
+    private void report() {
+        System.out.printf("%n%-16s %10s %10s %10s %10s %10s %10s %8s%n",
+            "operation", "ops", "ops/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        long total = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats operationStats = entry.getValue();
+            LatencySnapshot latency = operationStats.latency.snapshot();
+            total += latency.count();
+            System.out.printf("%-16s %10d %10.1f %10.3f %10.3f %10.3f %10.3f %8d%n",
+                entry.getKey().name().toLowerCase(),
+                latency.count(),
+                latency.count() / (double) seconds,
+                latency.p50Millis(),
+                latency.p99Millis(),
+                operationStats.latency.percentileMillis(0.999),
+                latency.maxMillis(),
+                operationStats.errors.sum());
+        }
+        System.out.printf("%-16s %10d %10.1f%n", "total", total, total / (double) seconds);
+
+        stats.forEach((operation, operationStats) -> {
+            if (operationStats.lastError.get() != null) {
+                System.out.printf("last %s error: %s%n", operation.name().toLowerCase(), operationStats.lastError.get());
+            }
+        });
+        System.out.println("pool:    " + JpaUtil.getPoolMetrics());
+        System.out.println("retries: " + invoiceService.getRetryMetrics());
+    }
+
+    private static final class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicReference<String> lastError = new AtomicReference<>();
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * A weighted random choice parsed from a spec like {@code "a:60,b:30,c:10"}; weights are relative
+ * and need not add up to 100.
+ */
+final class Weighted<T> {
+
+    private final List<T> values = new ArrayList<>();
+    private final List<Integer> cumulative = new ArrayList<>();
+    private int total;
+
+    static <T> Weighted<T> parse(String spec, Function<String, T> value) {
+        Weighted<T> weighted = new Weighted<>();
+        for (String entry : spec.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected value:weight but got '" + entry + "' in " + spec);
+            }
+            int weight = Integer.parseInt(entry.substring(separator + 1).trim());
+            if (weight > 0) {
+                weighted.total += weight;
+                weighted.values.add(value.apply(entry.substring(0, separator).trim()));
+                weighted.cumulative.add(weighted.total);
+            }
+        }
+        if (weighted.values.isEmpty()) {
+            throw new IllegalArgumentException("No positive weights in " + spec);
+        }
+        return weighted;
+    }
+
+    T next(Random random) {
+        int pick = random.nextInt(total);
+        for (int i = 0; i < values.size(); i++) {
+            if (pick < cumulative.get(i)) {
+                return values.get(i);
+            }
+        }
+        throw new AssertionError();
+    }
+
+    List<T> values() {
+        return List.copyOf(values);
+    }
+
+    /**
+     * An inclusive range of line counts, {@code "6-20"} or a single {@code "1"}.
+     */
+    record Range(int min, int max) {
+
+        static Range parse(String text) {
+            int dash = text.indexOf('-');
+            Range range = dash < 0
+                ? new Range(Integer.parseInt(text), Integer.parseInt(text))
+                : new Range(Integer.parseInt(text.substring(0, dash).trim()), Integer.parseInt(text.substring(dash + 1).trim()));
+            if (range.min < 0 || range.max < range.min) {
+                throw new IllegalArgumentException("Invalid range " + text);
+            }
+            return range;
+        }
+
+        int next(Random random) {
+            return min + random.nextInt(max - min + 1);
+        }
+    }
+}
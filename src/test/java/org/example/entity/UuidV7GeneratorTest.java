@@ -0,0 +1,68 @@
+package org.example.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidV7GeneratorTest {
+
+    @Test
+    void setsVersionAndVariantBits() {
+        UUID id = UuidV7Generator.next();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+    }
+
+    @Test
+    void embedsCurrentUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = UuidV7Generator.next();
+
+        long millis = id.getMostSignificantBits() >>> 16;
+        // a counter overflow may borrow a few milliseconds ahead
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 100);
+    }
+
+    @Test
+    void idsAreStrictlyIncreasingInStorageOrder() {
+        UUID previous = UuidV7Generator.next();
+        for (int i = 0; i < 100_000; i++) {
+            UUID next = UuidV7Generator.next();
+            // BINARY(16) compares unsigned, most significant bytes first
+            assertTrue(Long.compareUnsigned(next.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverGetTheSameId() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        ConcurrentHashMap.KeySetView<UUID, Boolean> seen = ConcurrentHashMap.newKeySet();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        seen.add(UuidV7Generator.next());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(threads * perThread, seen.size());
+    }
+}
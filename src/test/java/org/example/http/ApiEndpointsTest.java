@@ -0,0 +1,182 @@
+package org.example.http;
+
+import org.example.AppContext;
+import org.example.auth.AuthService;
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.entity.invoice.InvoiceDTO;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.invoice.InvoiceSummary;
+import org.example.entity.user.UserDTO;
+import org.example.exception.AuthenticationException;
+import org.example.exception.AuthorizationException;
+import org.example.repository.KeysetPage;
+import org.example.service.ClientService;
+import org.example.service.CompanyAuthorizer;
+import org.example.service.InvoiceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/*
+The endpoints over real HTTP, on an ephemeral port with mocked services: who may call what, and
+what a caller sees when a call or a stream runs out of time.
+ */
+public class ApiEndpointsTest {
+
+    private static final String TOKEN = "member-session";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration STREAM_TIMEOUT = Duration.ofMillis(800);
+
+    private final UUID companyId = UUID.randomUUID();
+    private final UUID otherCompanyId = UUID.randomUUID();
+    private final UserDTO member = UserDTO.builder().id(UUID.randomUUID()).email("ada@example.com").build();
+
+    private ClientService clientService;
+    private InvoiceService invoiceService;
+    private ApiServer server;
+    private HttpClient http;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        AppContext context = mock(AppContext.class);
+        AuthService authService = mock(AuthService.class);
+        CompanyAuthorizer companyAuthorizer = mock(CompanyAuthorizer.class);
+        clientService = mock(ClientService.class);
+        invoiceService = mock(InvoiceService.class);
+        when(context.getAuthService()).thenReturn(authService);
+        when(context.getCompanyAuthorizer()).thenReturn(companyAuthorizer);
+        when(context.getClientService()).thenReturn(clientService);
+        when(context.getInvoiceService()).thenReturn(invoiceService);
+
+        doThrow(new AuthenticationException("Session expired or invalid, please sign in again"))
+            .when(authService).resolve(anyString());
+        doReturn(member).when(authService).resolve(TOKEN);
+        doThrow(new AuthorizationException("You do not have access to this company"))
+            .when(companyAuthorizer).requireMember(member.id(), otherCompanyId);
+
+        server = new ApiServer(context, new InetSocketAddress("127.0.0.1", 0), REQUEST_TIMEOUT, STREAM_TIMEOUT, 1 << 16);
+        server.start();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void callsWithoutASessionAre401() throws Exception {
+        assertEquals(401, get("/api/companies/" + companyId + "/clients", null).statusCode());
+        assertEquals(401, get("/api/companies/" + companyId + "/clients", "expired-session").statusCode());
+        assertEquals(401, get("/metrics", null).statusCode());
+
+        verifyNoInteractions(clientService);
+    }
+
+    @Test
+    void nonMembersAre403() throws Exception {
+        HttpResponse<String> response = get("/api/companies/" + otherCompanyId + "/clients", TOKEN);
+
+        assertEquals(403, response.statusCode());
+        assertTrue(response.body().contains("You do not have access to this company"), response.body());
+        verifyNoInteractions(clientService);
+    }
+
+    @Test
+    void clientOfAnotherCompanyIs404() throws Exception {
+        UUID clientId = UUID.randomUUID();
+        Company other = new Company();
+        other.setId(otherCompanyId);
+        when(clientService.findById(clientId)).thenReturn(Optional.of(Client.builder().id(clientId).company(other).build()));
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/companies/" + companyId + "/clients/" + clientId))
+            .header("Authorization", "Bearer " + TOKEN)
+            .DELETE());
+
+        assertEquals(404, response.statusCode());
+        verify(clientService, never()).deleteClient(any());
+    }
+
+    @Test
+    void invoiceOfAnotherCompanyIs404() throws Exception {
+        UUID invoiceId = UUID.randomUUID();
+        when(invoiceService.getInvoiceById(invoiceId)).thenReturn(Optional.of(
+            InvoiceDTO.builder().id(invoiceId).companyId(otherCompanyId).number("INV-000001").build()));
+
+        HttpResponse<String> response = get("/api/companies/" + companyId + "/invoices/" + invoiceId, TOKEN);
+
+        assertEquals(404, response.statusCode());
+        assertFalse(response.body().contains("INV-000001"), response.body());
+    }
+
+    @Test
+    void slowCallsAreAnsweredWith503() throws Exception {
+        when(clientService.getClientsByCompany(companyId)).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/api/companies/" + companyId + "/clients", TOKEN);
+
+        assertEquals(503, response.statusCode());
+        assertTrue(response.body().contains("Request timed out"), response.body());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    void streamsAreCutOffAfterTheStreamTimeout() throws Exception {
+        InvoiceSummary summary = new InvoiceSummary(UUID.randomUUID(), "INV-000001", InvoiceStatus.SENT,
+            new BigDecimal("100.00"), LocalDateTime.now(), "Ada Lovelace", 1L, LocalDateTime.now());
+        // a listing that never ends
+        when(invoiceService.getInvoiceSummariesByCompany(eq(companyId), any(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            return new KeysetPage<>(List.of(summary), "next");
+        });
+
+        long start = System.nanoTime();
+        HttpResponse<String> response = get("/api/companies/" + companyId + "/invoices/stream", TOKEN);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // the status went out with the first page, past the request timeout
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("[{"), response.body());
+        assertFalse(response.body().strip().endsWith("]"), "a cut-off stream must not look complete");
+        assertTrue(elapsed.compareTo(STREAM_TIMEOUT) >= 0, "cut off after " + elapsed);
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "cut off after " + elapsed);
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return send(request);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return http.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    }
+}
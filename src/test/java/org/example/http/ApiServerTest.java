@@ -0,0 +1,39 @@
+package org.example.http;
+
+import org.example.exception.AuthenticationException;
+import org.example.exception.AuthorizationException;
+import org.example.exception.BusinessRuleException;
+import org.example.exception.CapacityExceededException;
+import org.example.exception.EntityNotFoundException;
+import org.example.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiServerTest {
+
+    @Test
+    void serviceExceptionsMapToStatusCodes() {
+        assertEquals(400, ApiServer.toError(new ValidationException("bad")).status());
+        assertEquals(401, ApiServer.toError(new AuthenticationException("who")).status());
+        assertEquals(403, ApiServer.toError(new AuthorizationException("no")).status());
+        assertEquals(404, ApiServer.toError(new EntityNotFoundException("Invoice", UUID.randomUUID())).status());
+        assertEquals(409, ApiServer.toError(new BusinessRuleException("taken")).status());
+        assertEquals(503, ApiServer.toError(new CapacityExceededException("busy")).status());
+        assertEquals(413, ApiServer.toError(new ApiException(413, "too big")).status());
+    }
+
+    @Test
+    void clientErrorsKeepTheirMessage() {
+        assertEquals(new ApiError(400, "Page size must be positive"),
+            ApiServer.toError(new ValidationException("Page size must be positive")));
+    }
+
+    @Test
+    void unexpectedFailuresHideTheirMessage() {
+        assertEquals(new ApiError(500, "Internal server error"),
+            ApiServer.toError(new IllegalStateException("connection string with password")));
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouterTest {
+
+    private static final ApiHandler OK = request -> ApiResponse.noContent();
+
+    private final Router router = new Router()
+        .get("/api/companies/{companyId}/invoices/stream", OK)
+        .get("/api/companies/{companyId}/invoices/{invoiceId}", OK)
+        .delete("/api/companies/{companyId}/invoices/{invoiceId}", OK);
+
+    @Test
+    void extractsPathParameters() {
+        Router.Match match = router.match("GET", "/api/companies/c1/invoices/i9");
+
+        assertEquals("GET /api/companies/{companyId}/invoices/{invoiceId}", match.route().name());
+        assertEquals(Map.of("companyId", "c1", "invoiceId", "i9"), match.params());
+    }
+
+    @Test
+    void literalRouteRegisteredFirstWins() {
+        Router.Match match = router.match("GET", "/api/companies/c1/invoices/stream");
+
+        assertEquals("GET /api/companies/{companyId}/invoices/stream", match.route().name());
+        assertEquals(Map.of("companyId", "c1"), match.params());
+    }
+
+    @Test
+    void placeholderMatchesOneSegmentOnly() {
+        ApiException e = assertThrows(ApiException.class, () -> router.match("GET", "/api/companies/c1/invoices/i9/x"));
+        assertEquals(404, e.status());
+    }
+
+    @Test
+    void knownPathWithOtherMethodIs405() {
+        ApiException e = assertThrows(ApiException.class, () -> router.match("PUT", "/api/companies/c1/invoices/i9"));
+        assertEquals(405, e.status());
+    }
+
+    @Test
+    void unknownPathIs404() {
+        ApiException e = assertThrows(ApiException.class, () -> router.match("GET", "/api/users"));
+        assertEquals(404, e.status());
+    }
+}
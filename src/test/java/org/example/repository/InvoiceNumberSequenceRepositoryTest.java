@@ -0,0 +1,63 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Query;
+import org.example.entity.invoice.InvoiceNumberSequence;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+public class InvoiceNumberSequenceRepositoryTest {
+
+    private EntityManagerFactory emf;
+    private EntityTransaction tx;
+    private NativeQuery<?> nativeQuery;
+    private InvoiceNumberSequenceRepository repository;
+
+    private final UUID companyId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReadRouting.reset();
+        emf = mock(EntityManagerFactory.class);
+        EntityManager em = mock(EntityManager.class);
+        tx = mock(EntityTransaction.class);
+        Query query = mock(Query.class);
+        nativeQuery = mock(NativeQuery.class, RETURNS_SELF);
+
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.getTransaction()).thenReturn(tx);
+        when(em.isOpen()).thenReturn(true);
+        when(tx.isActive()).thenReturn(true);
+        when(em.createNativeQuery(anyString())).thenReturn(query);
+        when(query.unwrap(NativeQuery.class)).thenReturn(nativeQuery);
+
+        repository = new InvoiceNumberSequenceRepository(emf);
+    }
+
+    @Test
+    void advanceOnlyInvalidatesTheSequenceTable() {
+        repository.advanceTo(companyId, 8);
+
+        verify(nativeQuery).addSynchronizedEntityClass(InvoiceNumberSequence.class);
+        verify(nativeQuery).setParameter("nextValue", 8L);
+        verify(nativeQuery).executeUpdate();
+    }
+
+    @Test
+    void advanceJoinsTheCallersTransaction() {
+        UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            repository.advanceTo(companyId, 8);
+        });
+
+        verify(emf, times(1)).createEntityManager();
+        verify(tx, times(1)).commit();
+    }
+}
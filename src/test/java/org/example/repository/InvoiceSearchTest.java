@@ -0,0 +1,133 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.invoice.InvoiceSummary;
+import org.example.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InvoiceSearchTest {
+
+    private EntityManager em;
+    private TypedQuery<InvoiceSummary> query;
+    private InvoiceRepository repository;
+
+    private final UUID companyId = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        em = mock(EntityManager.class);
+        query = mock(TypedQuery.class, RETURNS_SELF);
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.createQuery(anyString(), eq(InvoiceSummary.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.of());
+
+        repository = new InvoiceRepository(emf);
+    }
+
+    @Test
+    void onlyPresentFiltersAreQueriedAndBound() {
+        repository.search(InvoiceSearchCriteria.builder()
+            .companyId(companyId)
+            .statuses(Set.of(InvoiceStatus.SENT))
+            .minAmount(new BigDecimal("100"))
+            .build(), null, 20);
+
+        String jpql = lastJpql();
+        assertTrue(jpql.contains("i.status IN :statuses"));
+        assertTrue(jpql.contains("i.amount >= :minAmount"));
+        assertFalse(jpql.contains(":maxAmount"));
+        assertFalse(jpql.contains(":clientId"));
+        assertTrue(jpql.endsWith("ORDER BY i.createdAt DESC, i.id DESC"));
+        verify(query).setParameter("statuses", Set.of(InvoiceStatus.SENT));
+        verify(query).setParameter("minAmount", new BigDecimal("100"));
+        verify(query).setMaxResults(21);
+    }
+
+    @Test
+    void criteriaWithTheSameShapeShareOneQueryString() {
+        repository.search(InvoiceSearchCriteria.builder().companyId(companyId).numberPrefix("INV-1").build(), null, 20);
+        String first = lastJpql();
+        repository.search(InvoiceSearchCriteria.builder().companyId(UUID.randomUUID()).numberPrefix("2026").build(), null, 20);
+
+        assertSame(first, lastJpql());
+        verify(query).setParameter("numberPrefix", "INV-1%");
+        verify(query).setParameter("numberPrefix", "2026%");
+    }
+
+    @Test
+    void nextPageContinuesAfterTheLastSortValue() {
+        InvoiceSearchCriteria criteria = InvoiceSearchCriteria.builder()
+            .companyId(companyId).sort(InvoiceSort.LARGEST).build();
+        InvoiceSummary big = summary(new BigDecimal("500.00"), null);
+        InvoiceSummary small = summary(new BigDecimal("20.00"), null);
+        when(query.getResultList()).thenReturn(List.of(big, small));
+
+        KeysetPage<InvoiceSummary> page = repository.search(criteria, null, 1);
+        assertEquals(List.of(big), page.items());
+        assertTrue(page.hasNext());
+
+        repository.search(criteria, page.nextPageToken(), 1);
+        assertTrue(lastJpql().contains("AND (i.amount < :afterValue OR (i.amount = :afterValue AND i.id < :afterId))"));
+        verify(query).setParameter("afterValue", new BigDecimal("500.00"));
+        verify(query).setParameter("afterId", big.id());
+    }
+
+    @Test
+    void invoicesWithoutDueDateComeFirstInDueDateOrder() {
+        InvoiceSearchCriteria criteria = InvoiceSearchCriteria.builder()
+            .companyId(companyId).sort(InvoiceSort.DUE_DATE).build();
+        InvoiceSummary undated = summary(BigDecimal.TEN, null);
+        when(query.getResultList()).thenReturn(List.of(undated, summary(BigDecimal.ONE, LocalDateTime.now())));
+
+        String token = repository.search(criteria, null, 1).nextPageToken();
+        repository.search(criteria, token, 1);
+
+        assertTrue(lastJpql().contains("AND (i.dueDate IS NOT NULL OR i.id > :afterId)"));
+        verify(query, never()).setParameter(eq("afterValue"), any());
+    }
+
+    @Test
+    void pageTokenIsTiedToTheSortOrder() {
+        InvoiceSearchCriteria byAmount = InvoiceSearchCriteria.builder()
+            .companyId(companyId).sort(InvoiceSort.LARGEST).build();
+        when(query.getResultList()).thenReturn(List.of(summary(BigDecimal.TEN, null), summary(BigDecimal.ONE, null)));
+        String token = repository.search(byAmount, null, 1).nextPageToken();
+
+        InvoiceSearchCriteria byNumber = InvoiceSearchCriteria.builder()
+            .companyId(companyId).sort(InvoiceSort.NUMBER).build();
+        assertThrows(ValidationException.class, () -> repository.search(byNumber, token, 1));
+        assertThrows(ValidationException.class, () -> repository.search(byAmount, "not a token", 1));
+    }
+
+    @Test
+    void numberPrefixWildcardsAreEscaped() {
+        assertEquals("50!%!_off!!%", InvoiceRepository.likePrefix("50%_off!"));
+    }
+
+    private String lastJpql() {
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(em, atLeastOnce()).createQuery(jpql.capture(), eq(InvoiceSummary.class));
+        return jpql.getValue();
+    }
+
+    private static InvoiceSummary summary(BigDecimal amount, LocalDateTime dueDate) {
+        return new InvoiceSummary(UUID.randomUUID(), "INV-1", InvoiceStatus.SENT, amount, dueDate, "Ada Lovelace", 1L,
+            LocalDateTime.now());
+    }
+}
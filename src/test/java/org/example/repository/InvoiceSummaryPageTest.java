@@ -0,0 +1,111 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.entity.invoice.InvoiceSummary;
+import org.example.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InvoiceSummaryPageTest {
+
+    private EntityManager em;
+    private TypedQuery<InvoiceSummary> query;
+    private InvoiceRepository repository;
+
+    private final UUID companyId = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        em = mock(EntityManager.class);
+        query = mock(TypedQuery.class, RETURNS_SELF);
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.createQuery(anyString(), eq(InvoiceSummary.class))).thenReturn(query);
+
+        repository = new InvoiceRepository(emf);
+    }
+
+    @Test
+    void firstPageIsAProjectionWithoutKeysetPredicate() {
+        when(query.getResultList()).thenReturn(List.of(summary(1)));
+
+        repository.findSummaryPageByCompanyId(companyId, null, 20);
+
+        String jpql = lastJpql();
+        assertTrue(jpql.startsWith("SELECT new org.example.entity.invoice.InvoiceSummary("));
+        assertTrue(jpql.contains("WHERE i.company.id = :ownerId ORDER BY i.createdAt DESC, i.id DESC"));
+        verify(query).setParameter("ownerId", companyId);
+        verify(query).setMaxResults(21);
+        verify(query, never()).setParameter(eq("createdAt"), any());
+    }
+
+    @Test
+    void fullPageWithoutExtraRowIsTheLastPage() {
+        List<InvoiceSummary> rows = List.of(summary(3), summary(2));
+        when(query.getResultList()).thenReturn(rows);
+
+        KeysetPage<InvoiceSummary> page = repository.findSummaryPageByCompanyId(companyId, null, 2);
+
+        assertEquals(rows, page.items());
+        assertFalse(page.hasNext());
+    }
+
+    @Test
+    void extraRowMeansANextPageStartingAfterTheLastReturnedRow() {
+        InvoiceSummary newest = summary(3);
+        InvoiceSummary middle = summary(2);
+        InvoiceSummary probe = summary(1);
+        when(query.getResultList()).thenReturn(List.of(newest, middle, probe));
+
+        KeysetPage<InvoiceSummary> page = repository.findSummaryPageByCompanyId(companyId, null, 2);
+
+        assertEquals(List.of(newest, middle), page.items());
+        assertTrue(page.hasNext());
+
+        when(query.getResultList()).thenReturn(List.of(probe));
+        KeysetPage<InvoiceSummary> next = repository.findSummaryPageByCompanyId(companyId, page.nextPageToken(), 2);
+
+        assertTrue(lastJpql().contains("AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id))"));
+        verify(query).setParameter("createdAt", middle.createdAt());
+        verify(query).setParameter("id", middle.id());
+        assertEquals(List.of(probe), next.items());
+        assertFalse(next.hasNext());
+    }
+
+    @Test
+    void tokenRoundTripsThroughTheCursor() {
+        InvoiceCursor cursor = new InvoiceCursor(LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_000_000), UUID.randomUUID());
+
+        assertEquals(cursor, InvoiceCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void malformedTokenIsRejectedBeforeQuerying() {
+        assertThrows(ValidationException.class, () -> repository.findSummaryPageByCompanyId(companyId, "not a token", 20));
+        verifyNoInteractions(em);
+    }
+
+    private String lastJpql() {
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(em, atLeastOnce()).createQuery(jpql.capture(), eq(InvoiceSummary.class));
+        return jpql.getValue();
+    }
+
+    private static InvoiceSummary summary(int minutesAfterMidnight) {
+        return new InvoiceSummary(UUID.randomUUID(), "INV-" + minutesAfterMidnight, InvoiceStatus.SENT, BigDecimal.TEN,
+            null, "Ada Lovelace", 1L, LocalDateTime.of(2026, 3, 1, 0, minutesAfterMidnight));
+    }
+}
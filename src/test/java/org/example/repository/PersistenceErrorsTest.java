@@ -0,0 +1,88 @@
+package org.example.repository;
+
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.RollbackException;
+import org.example.exception.BusinessRuleException;
+import org.example.exception.ConcurrentUpdateException;
+import org.example.exception.EntityNotFoundException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistenceErrorsTest {
+
+    @Test
+    void missingInvoiceCompanyBecomesEntityNotFound() {
+        RuntimeException e = PersistenceErrors.translate(onCommit(violation(1452, "fk_invoices_company")), "fallback");
+
+        assertInstanceOf(EntityNotFoundException.class, e);
+        assertTrue(e.getMessage().startsWith("Company not found"), e.getMessage());
+    }
+
+    @Test
+    void missingInvoiceClientBecomesEntityNotFound() {
+        // MySQL reports constraint names in the case they were created with
+        RuntimeException e = PersistenceErrors.translate(onCommit(violation(1452, "FK_INVOICES_CLIENT")), "fallback");
+
+        assertInstanceOf(EntityNotFoundException.class, e);
+        assertTrue(e.getMessage().startsWith("Client not found"), e.getMessage());
+    }
+
+    @Test
+    void unknownForeignKeyStillReportsAMissingReference() {
+        RuntimeException e = PersistenceErrors.translate(violation(1452, "fk_somewhere_else"), "fallback");
+
+        assertInstanceOf(EntityNotFoundException.class, e);
+        assertTrue(e.getMessage().startsWith("Referenced entity not found"), e.getMessage());
+    }
+
+    @Test
+    void duplicateInvoiceNumberBecomesBusinessRule() {
+        // MySQL 8 qualifies the key with its table
+        RuntimeException e = PersistenceErrors.translate(onCommit(violation(1062, "invoices.uk_invoices_company_number")), "fallback");
+
+        assertInstanceOf(BusinessRuleException.class, e);
+        assertEquals("Invoice number already in use", e.getMessage());
+    }
+
+    @Test
+    void otherDuplicatesFallThrough() {
+        RuntimeException e = PersistenceErrors.translate(violation(1062, "uk_somewhere_else"), "fallback");
+
+        assertEquals(RuntimeException.class, e.getClass());
+        assertEquals("fallback", e.getMessage());
+    }
+
+    @Test
+    void otherConstraintViolationsFallThrough() {
+        ConstraintViolationException violation = violation(3819, "chk_invoice_amount");
+
+        RuntimeException e = PersistenceErrors.translate(violation, "Transaction failed for Invoice");
+
+        assertEquals(RuntimeException.class, e.getClass());
+        assertEquals("Transaction failed for Invoice", e.getMessage());
+        assertSame(violation, e.getCause());
+    }
+
+    @Test
+    void optimisticLockFailuresBecomeConcurrentUpdates() {
+        assertInstanceOf(ConcurrentUpdateException.class,
+            PersistenceErrors.translate(onCommit(new OptimisticLockException("stale")), "fallback"));
+        assertInstanceOf(ConcurrentUpdateException.class,
+            PersistenceErrors.translate(new StaleStateException("Row was updated or deleted by another transaction"), "fallback"));
+    }
+
+    private static ConstraintViolationException violation(int errorCode, String constraint) {
+        SQLException sql = new SQLException("Cannot add or update a child row", "23000", errorCode);
+        return new ConstraintViolationException("could not execute statement", sql, constraint);
+    }
+
+    // The shape Hibernate reports failures in at commit time
+    private static RollbackException onCommit(Exception cause) {
+        return new RollbackException("Error while committing the transaction", cause);
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.example.entity.client.Client;
+import org.hibernate.exception.JDBCConnectionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReadRoutingTest {
+
+    private EntityManagerFactory primaryEmf;
+    private EntityManagerFactory replicaEmf;
+    private EntityManager primaryEm;
+    private EntityManager replicaEm;
+    private ClientRepository repository;
+
+    private final UUID clientId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ReadRouting.reset();
+
+        primaryEmf = mock(EntityManagerFactory.class);
+        replicaEmf = mock(EntityManagerFactory.class);
+        primaryEm = mock(EntityManager.class);
+        replicaEm = mock(EntityManager.class);
+        EntityTransaction tx = mock(EntityTransaction.class);
+
+        when(primaryEmf.createEntityManager()).thenReturn(primaryEm);
+        when(replicaEmf.createEntityManager()).thenReturn(replicaEm);
+        when(primaryEm.getTransaction()).thenReturn(tx);
+        when(primaryEm.isOpen()).thenReturn(true);
+        when(tx.isActive()).thenReturn(true);
+        when(primaryEm.find(Client.class, clientId)).thenReturn(new Client());
+        when(replicaEm.find(Client.class, clientId)).thenReturn(new Client());
+
+        repository = new ClientRepository(primaryEmf, replicaEmf);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadRouting.reset();
+    }
+
+    @Test
+    void readsGoToTheReplica() {
+        assertTrue(repository.existsById(clientId));
+
+        verify(replicaEm).find(Client.class, clientId);
+        verifyNoInteractions(primaryEmf);
+    }
+
+    @Test
+    void readsInsideAUnitOfWorkGoToThePrimary() {
+        UnitOfWork.inTransaction(() -> repository.existsById(clientId));
+
+        verify(primaryEm).find(Client.class, clientId);
+        verifyNoInteractions(replicaEmf);
+    }
+
+    @Test
+    void primaryOverrideAppliesToTheCall() {
+        ReadRouting.primary(() -> repository.existsById(clientId));
+        verify(primaryEm).find(Client.class, clientId);
+
+        repository.existsById(clientId);
+        verify(replicaEm).find(Client.class, clientId);
+    }
+
+    @Test
+    void readsRightAfterAWriteStayOnThePrimary() {
+        ReadRouting.recordWrite();
+
+        repository.existsById(clientId);
+
+        verify(primaryEm).find(Client.class, clientId);
+        verifyNoInteractions(replicaEmf);
+    }
+
+    @Test
+    void aCallersWritesKeepItsReadsOnThePrimaryOnAnyThread() throws Exception {
+        Thread writer = Thread.ofVirtual().start(() -> {
+            try {
+                ReadRouting.asCaller("session-a", () -> {
+                    ReadRouting.recordWrite();
+                    return null;
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.join();
+
+        ReadRouting.asCaller("session-a", () -> repository.existsById(clientId));
+        verify(primaryEm).find(Client.class, clientId);
+        verifyNoInteractions(replicaEmf);
+
+        ReadRouting.asCaller("session-b", () -> repository.existsById(clientId));
+        verify(replicaEm).find(Client.class, clientId);
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhenTheReplicaIsDown() {
+        when(replicaEmf.createEntityManager()).thenThrow(new JDBCConnectionException(
+            "Unable to acquire JDBC Connection", new SQLTransientConnectionException("timeout")));
+
+        assertTrue(repository.existsById(clientId));
+        repository.existsById(clientId);
+
+        // the second read skips the replica while it is marked down
+        verify(replicaEmf, times(1)).createEntityManager();
+        verify(primaryEm, times(2)).find(Client.class, clientId);
+    }
+
+    @Test
+    void otherReplicaFailuresAreNotHidden() {
+        when(replicaEm.find(Client.class, clientId)).thenThrow(new IllegalArgumentException("bad id"));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.existsById(clientId));
+        verifyNoInteractions(primaryEmf);
+    }
+}
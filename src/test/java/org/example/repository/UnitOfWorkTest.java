@@ -0,0 +1,149 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.example.exception.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class UnitOfWorkTest {
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private EntityTransaction tx;
+
+    @BeforeEach
+    void setUp() {
+        ReadRouting.reset();
+        emf = mock(EntityManagerFactory.class);
+        em = mock(EntityManager.class);
+        tx = mock(EntityTransaction.class);
+
+        when(emf.createEntityManager()).thenReturn(em);
+        when(em.getTransaction()).thenReturn(tx);
+        when(em.isOpen()).thenReturn(true);
+        when(tx.isActive()).thenReturn(true);
+    }
+
+    @Test
+    void nestedCallsShareOneEntityManagerAndCommitOnce() {
+        UnitOfWork.inTransaction(() -> {
+            EntityManager first = UnitOfWork.currentEntityManager(emf);
+            UnitOfWork.inTransaction(() -> assertSame(first, UnitOfWork.currentEntityManager(emf)));
+        });
+
+        verify(emf, times(1)).createEntityManager();
+        verify(tx, times(1)).commit();
+        verify(em).close();
+        assertFalse(UnitOfWork.isActive());
+    }
+
+    @Test
+    void scopeWithoutDatabaseAccessOpensNothing() {
+        UnitOfWork.inTransaction(() -> {});
+
+        verify(emf, never()).createEntityManager();
+    }
+
+    @Test
+    void failureRollsBackOuterScope() {
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            throw new IllegalStateException("boom");
+        }));
+
+        verify(tx).rollback();
+        verify(tx, never()).commit();
+    }
+
+    @Test
+    void swallowedNestedFailureStillRollsBack() {
+        assertThrows(PersistenceException.class, () -> UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            try {
+                UnitOfWork.inTransaction(() -> { throw new IllegalStateException("nested"); });
+            } catch (IllegalStateException ignored) {
+                // caller decides to continue, but the scope is already rollback-only
+            }
+        }));
+
+        verify(tx).rollback();
+        verify(tx, never()).commit();
+    }
+
+    @Test
+    void afterCommitActionsRunOnceTheOuterScopeCommitted() {
+        List<String> events = new ArrayList<>();
+        doAnswer(invocation -> events.add("commit")).when(tx).commit();
+
+        UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            UnitOfWork.inTransaction(() -> UnitOfWork.afterCommit(() -> events.add("action")));
+            events.add("work done");
+        });
+
+        assertEquals(List.of("work done", "commit", "action"), events);
+    }
+
+    @Test
+    void failingAfterCommitActionDoesNotStopTheOthers() {
+        List<String> events = new ArrayList<>();
+
+        String result = UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            UnitOfWork.afterCommit(() -> { throw new IllegalStateException("cache down"); });
+            UnitOfWork.afterCommit(() -> events.add("action"));
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(List.of("action"), events);
+        verify(tx).commit();
+    }
+
+    @Test
+    void afterCommitActionsAreDroppedOnRollback() {
+        List<String> events = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> UnitOfWork.inTransaction(() -> {
+            UnitOfWork.afterCommit(() -> events.add("action"));
+            throw new IllegalStateException("boom");
+        }));
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void scopeBoundToAnotherFactoryRefusesToJoin() {
+        EntityManagerFactory other = mock(EntityManagerFactory.class);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            UnitOfWork.currentEntityManager(other);
+        }));
+
+        assertEquals("UnitOfWork is bound to another EntityManagerFactory", e.getMessage());
+        verify(tx).rollback();
+        verifyNoInteractions(other);
+    }
+
+    @Test
+    void onlyScopesThatWroteKeepReadsOnThePrimary() {
+        UnitOfWork.inTransaction(() -> UnitOfWork.currentEntityManager(emf));
+        assertTrue(ReadRouting.replicaAllowed());
+
+        UnitOfWork.inTransaction(() -> {
+            UnitOfWork.currentEntityManager(emf);
+            UnitOfWork.markWritten();
+        });
+        assertFalse(ReadRouting.replicaAllowed());
+        ReadRouting.reset();
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.service;
 
 import org.example.auth.AuthService;
+import org.example.auth.AuthSession;
 import org.example.entity.user.UserDTO;
 import org.example.entity.user.User;
 import org.example.exception.AuthenticationException;
@@ -58,6 +59,24 @@ public class AuthServiceTest {
         assertEquals("Invalid email or password", exception.getMessage());
     }
 
+    @Test
+    void testLoginSessionResolvesWithoutCheckingCredentialsAgain() {
+        String email = "user@email.com";
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword(org.example.auth.PasswordEncoder.hash("password"));
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+
+        AuthSession session = authService.login(email, "password");
+
+        assertEquals(email, authService.resolve(session.token()).email());
+        assertEquals(email, authService.resolve(session.token()).email());
+        verify(userRepository, times(1)).findByEmail(email);
+
+        authService.logout(session.token());
+        assertThrows(AuthenticationException.class, () -> authService.resolve(session.token()));
+    }
+
     @Test
     void testAuthenticateUserNotFound() {
         String email = "unknown@email.com";
@@ -0,0 +1,159 @@
+package org.example.service;
+
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.exception.EntityNotFoundException;
+import org.example.exception.PersistenceException;
+import org.example.exception.ValidationException;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ClientImportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ClientRepository clientRepository;
+    private CompanyRepository companyRepository;
+    private ClientSearchIndex searchIndex;
+    private ClientImportService importService;
+    private final List<List<Client>> insertedBatches = new ArrayList<>();
+
+    private final UUID companyId = UUID.randomUUID();
+    private final Company company = new Company();
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        companyRepository = mock(CompanyRepository.class);
+        searchIndex = mock(ClientSearchIndex.class);
+        importService = new ClientImportService(clientRepository, companyRepository, searchIndex, 2);
+
+        company.setId(companyId);
+        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+        recordInserts();
+    }
+
+    @Test
+    void insertsValidRowsInBatchesAndReportsInvalidOnes() throws IOException {
+        Path file = write(
+            "email,first_name,last_name,city",
+            "ada@example.com,Ada,Lovelace,London",
+            "not-an-email,Bad,Row,Nowhere",
+            "",
+            "grace@example.com,Grace,Hopper,\"New York, NY\"",
+            ",Missing,Email,Oslo",
+            "alan@example.com,Alan,Turing,Wilmslow"
+        );
+
+        ClientImportResult result = importService.importClients(companyId, file);
+
+        assertEquals(3, result.imported());
+        assertEquals(2, result.rejected());
+        assertEquals(0, result.resumedFrom());
+        assertEquals(List.of(
+            new ImportRowError(3, "email is not a valid address"),
+            new ImportRowError(6, "email is required")
+        ), result.errors());
+
+        assertEquals(3, insertedBatches.size());
+        Client grace = insertedBatches.get(1).get(0);
+        assertEquals("Grace", grace.getFirstName());
+        assertEquals("New York, NY", grace.getCity());
+        assertNull(grace.getPhoneNumber());
+        assertSame(company, grace.getCompany());
+        assertFalse(Files.exists(dir.resolve("clients.csv.checkpoint")));
+        verify(searchIndex).invalidate(companyId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumesAfterLastCommittedBatch() throws IOException {
+        Path file = write(
+            "email",
+            "a@example.com",
+            "b@example.com",
+            "c@example.com",
+            "d@example.com",
+            "e@example.com"
+        );
+        doAnswer(invocation -> ((List<Client>) invocation.getArgument(0)).size())
+            .doThrow(new RuntimeException("connection lost"))
+            .when(clientRepository).insertAll(anyList());
+
+        PersistenceException failure = assertThrows(PersistenceException.class,
+            () -> importService.importClients(companyId, file));
+        assertEquals("Inserting the clients of lines 4-5 failed (connection lost); committed through line 3 (record 2)",
+            failure.getMessage());
+        assertTrue(Files.exists(dir.resolve("clients.csv.checkpoint")));
+
+        recordInserts();
+
+        ClientImportResult result = importService.importClients(companyId, file);
+
+        assertEquals(2, result.resumedFrom());
+        assertEquals(3, result.imported());
+        assertEquals("c@example.com", insertedBatches.get(0).get(0).getEmail());
+        assertFalse(Files.exists(dir.resolve("clients.csv.checkpoint")));
+    }
+
+    @Test
+    void rejectsCheckpointOfAnotherCompany() throws IOException {
+        Path file = write("email", "a@example.com");
+        Files.writeString(dir.resolve("clients.csv.checkpoint"),
+            "companyId=" + UUID.randomUUID() + "\nfileSize=" + Files.size(file) + "\nrecords=1\n");
+
+        assertThrows(ValidationException.class, () -> importService.importClients(companyId, file));
+        verify(clientRepository, never()).insertAll(anyList());
+    }
+
+    @Test
+    void requiresEmailColumn() throws IOException {
+        Path file = write("first_name,last_name", "Ada,Lovelace");
+
+        assertThrows(ValidationException.class, () -> importService.importClients(companyId, file));
+    }
+
+    @Test
+    void unknownCompanyFailsBeforeReadingFile() {
+        UUID unknown = UUID.randomUUID();
+        when(companyRepository.findById(unknown)).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class, () -> importService.importClients(unknown, dir.resolve("missing.csv")));
+    }
+
+    @Test
+    void missingFileIsReportedAsPersistenceFailure() {
+        assertThrows(PersistenceException.class, () -> importService.importClients(companyId, dir.resolve("missing.csv")));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordInserts() {
+        doAnswer(invocation -> {
+            List<Client> batch = List.copyOf((List<Client>) invocation.getArgument(0));
+            insertedBatches.add(batch);
+            return batch.size();
+        }).when(clientRepository).insertAll(anyList());
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = dir.resolve("clients.csv");
+        Files.writeString(file, String.join("\n", lines) + "\n");
+        return file;
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.service;
+
+import org.example.entity.client.Client;
+import org.example.entity.client.ClientDTO;
+import org.example.entity.company.Company;
+import org.example.exception.ValidationException;
+import org.example.repository.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ClientSearchIndexTest {
+
+    private ClientRepository clientRepository;
+    private ClientSearchIndex searchIndex;
+
+    private final UUID companyId = UUID.randomUUID();
+    private final Company company = new Company();
+    private Client ada;
+    private Client adam;
+    private Client grace;
+    private Client zoe;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        searchIndex = new ClientSearchIndex(clientRepository, Duration.ofMinutes(10), 10_000);
+
+        company.setId(companyId);
+        ada = client("Ada", "Lovelace", "ada.lovelace@example.com", "London");
+        adam = client("Adam", "Smith", "adam@smith.io", "Kirkcaldy");
+        grace = client("Grace", "Hopper", "grace@navy.mil", "New York");
+        zoe = client("Zoë", "Åström", "zoe@example.se", "Malmö");
+        when(clientRepository.findByCompanyId(companyId)).thenReturn(List.of(ada, adam, grace, zoe));
+    }
+
+    @Test
+    void ranksExactWordsBeforePrefixMatches() {
+        assertEquals(List.of(adam.getId()), ids(searchIndex.search(companyId, "adam", 10)));
+        assertEquals(List.of(ada.getId(), adam.getId()), ids(searchIndex.search(companyId, "ada", 10)));
+    }
+
+    @Test
+    void matchesSubstringsEmailsAndAccentInsensitively() {
+        assertEquals(List.of(ada.getId()), ids(searchIndex.search(companyId, "ovela", 10)));
+        assertEquals(List.of(ada.getId()), ids(searchIndex.search(companyId, "ada.lov", 10)));
+        assertEquals(List.of(zoe.getId()), ids(searchIndex.search(companyId, "astrom", 10)));
+        assertEquals(List.of(zoe.getId()), ids(searchIndex.search(companyId, "MALMÖ", 10)));
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        assertEquals(List.of(grace.getId()), ids(searchIndex.search(companyId, "grace york", 10)));
+        assertEquals(List.of(), searchIndex.search(companyId, "grace london", 10));
+    }
+
+    @Test
+    void toleratesTyposWhenNothingMatchesExactly() {
+        assertEquals(List.of(ada.getId()), ids(searchIndex.search(companyId, "lovlace", 10)));
+        assertEquals(List.of(grace.getId()), ids(searchIndex.search(companyId, "hopepr", 10)));
+        assertEquals(List.of(), searchIndex.search(companyId, "xyz", 10));
+    }
+
+    @Test
+    void limitsResults() {
+        assertEquals(1, searchIndex.search(companyId, "a", 1).size());
+        assertThrows(ValidationException.class, () -> searchIndex.search(companyId, "a", 0));
+        assertThrows(ValidationException.class, () -> searchIndex.search(companyId, "a", ClientSearchIndex.MAX_RESULTS + 1));
+    }
+
+    @Test
+    void loadsEachCompanyOnceAndAppliesChanges() {
+        searchIndex.search(companyId, "ada", 10);
+
+        ClientDTO renamed = ClientDTO.builder().id(grace.getId()).companyId(companyId)
+            .firstName("Grace").lastName("Hopper").email("grace@navy.mil").city("Arlington").build();
+        searchIndex.put(renamed);
+        searchIndex.remove(companyId, adam.getId());
+
+        assertEquals(List.of(grace.getId()), ids(searchIndex.search(companyId, "arlington", 10)));
+        assertEquals(List.of(), searchIndex.search(companyId, "york", 10));
+        assertEquals(List.of(ada.getId()), ids(searchIndex.search(companyId, "ada", 10)));
+        verify(clientRepository, times(1)).findByCompanyId(companyId);
+    }
+
+    @Test
+    void changesToAnUnloadedCompanyDoNotLoadIt() {
+        searchIndex.put(ClientDTO.fromEntity(ada));
+        searchIndex.remove(companyId, ada.getId());
+
+        verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    void invalidateReloadsOnNextSearch() {
+        searchIndex.search(companyId, "ada", 10);
+        searchIndex.invalidate(companyId);
+        searchIndex.search(companyId, "ada", 10);
+
+        verify(clientRepository, times(2)).findByCompanyId(companyId);
+    }
+
+    @Test
+    void appliedChangesDoNotExtendTheIndexLifetime() {
+        AtomicLong nanos = new AtomicLong();
+        ClientSearchIndex expiring = new ClientSearchIndex(clientRepository, Duration.ofMinutes(10), 10_000, nanos::get);
+
+        expiring.search(companyId, "ada", 10);
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+        expiring.put(ClientDTO.fromEntity(grace));
+        expiring.remove(companyId, adam.getId());
+        expiring.search(companyId, "ada", 10);
+        verify(clientRepository, times(1)).findByCompanyId(companyId);
+
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        expiring.search(companyId, "ada", 10);
+        verify(clientRepository, times(2)).findByCompanyId(companyId);
+    }
+
+    @Test
+    void prefixDistanceCountsTranspositionsAsOneEdit() {
+        assertEquals(1, ClientSearchIndex.prefixDistance("turnig", "turing", 2));
+        assertEquals(0, ClientSearchIndex.prefixDistance("lov", "lovelace", 1));
+        assertEquals(1, ClientSearchIndex.prefixDistance("lpv", "lovelace", 1));
+        assertEquals(2, ClientSearchIndex.prefixDistance("xyz", "lovelace", 1));
+    }
+
+    private Client client(String firstName, String lastName, String email, String city) {
+        return Client.builder().id(UUID.randomUUID()).company(company)
+            .firstName(firstName).lastName(lastName).email(email).city(city).build();
+    }
+
+    private static List<UUID> ids(List<ClientDTO> clients) {
+        return clients.stream().map(ClientDTO::id).toList();
+    }
+}
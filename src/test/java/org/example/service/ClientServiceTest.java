@@ -5,6 +5,7 @@ import org.example.entity.client.Client;
 import org.example.entity.client.CreateClientDTO;
 import org.example.entity.client.UpdateClientDTO;
 import org.example.entity.company.Company;
+import org.example.exception.ConcurrentUpdateException;
 import org.example.exception.EntityNotFoundException;
 import org.example.repository.ClientRepository;
 import org.example.repository.CompanyRepository;
@@ -37,7 +38,9 @@ public class ClientServiceTest {
 
     @Test
     void shouldNotAllowClientCreationIfNoValidCompany() {
-        when(companyRepository.findById(companyId)).thenReturn(Optional.empty());
+        when(companyRepository.getReference(companyId)).thenReturn(company);
+        when(clientRepository.create(any(Client.class)))
+            .thenThrow(new EntityNotFoundException("Company", "referenced by fk_clients_company"));
 
         CreateClientDTO dto = new CreateClientDTO(
             companyId, "John", "Doe", "john.doe@email.com",
@@ -49,7 +52,7 @@ public class ClientServiceTest {
 
     @Test
     void shouldAllowClientCreationIfValidCompany() {
-        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+        when(companyRepository.getReference(companyId)).thenReturn(company);
 
         CreateClientDTO dto = new CreateClientDTO(
             companyId, "John", "Doe", "john.doe@email.com",
@@ -76,7 +79,7 @@ public class ClientServiceTest {
 
         UpdateClientDTO dto = new UpdateClientDTO(
             clientId, "New", "Name", "new@email.com",
-            null, null, null, null
+            null, null, null, null, null
         );
 
         ClientDTO updated = clientService.updateClient(dto);
@@ -118,12 +121,27 @@ public class ClientServiceTest {
         when(clientRepository.findById(clientId)).thenReturn(Optional.empty());
 
         UpdateClientDTO dto = new UpdateClientDTO(
-            clientId, "New", null, null, null, null, null, null
+            clientId, "New", null, null, null, null, null, null, null
         );
 
         assertThrows(EntityNotFoundException.class, () -> clientService.updateClient(dto));
     }
 
+    @Test
+    void shouldRejectUpdateOfAnOlderVersion() {
+        UUID clientId = UUID.randomUUID();
+        Client client = Client.builder().id(clientId).company(company).firstName("Old").version(3L).build();
+        when(clientRepository.findById(clientId)).thenReturn(Optional.of(client));
+
+        UpdateClientDTO dto = new UpdateClientDTO(
+            clientId, "New", null, null, null, null, null, null, 2L
+        );
+
+        assertThrows(ConcurrentUpdateException.class, () -> clientService.updateClient(dto));
+        assertEquals("Old", client.getFirstName());
+        verify(clientRepository, never()).update(any());
+    }
+
     @Test
     void shouldThrowOnDeleteNonExistentClient() {
         UUID clientId = UUID.randomUUID();
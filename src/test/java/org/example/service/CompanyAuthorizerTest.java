@@ -0,0 +1,71 @@
+package org.example.service;
+
+import org.example.entity.company.Company;
+import org.example.entity.company.CompanyUser;
+import org.example.entity.user.User;
+import org.example.exception.AuthorizationException;
+import org.example.repository.CompanyUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CompanyAuthorizerTest {
+
+    private CompanyUserRepository companyUserRepository;
+    private CompanyAuthorizer authorizer;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID memberOf = UUID.randomUUID();
+    private final UUID otherCompany = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        companyUserRepository = mock(CompanyUserRepository.class);
+        authorizer = new CompanyAuthorizer(companyUserRepository);
+        when(companyUserRepository.findByUserId(userId)).thenReturn(List.of(membership(userId, memberOf)));
+    }
+
+    @Test
+    void answersRepeatedChecksFromOneLoad() {
+        assertTrue(authorizer.isMember(userId, memberOf));
+        assertFalse(authorizer.isMember(userId, otherCompany));
+        assertTrue(authorizer.isMember(userId, memberOf));
+
+        verify(companyUserRepository, times(1)).findByUserId(userId);
+    }
+
+    @Test
+    void requireMemberRejectsOutsiders() {
+        authorizer.requireMember(userId, memberOf);
+
+        assertThrows(AuthorizationException.class, () -> authorizer.requireMember(userId, otherCompany));
+        assertThrows(AuthorizationException.class, () -> authorizer.requireMember(null, memberOf));
+        assertThrows(AuthorizationException.class, () -> authorizer.requireMember(userId, null));
+    }
+
+    @Test
+    void invalidateReloadsMemberships() {
+        assertFalse(authorizer.isMember(userId, otherCompany));
+
+        when(companyUserRepository.findByUserId(userId))
+            .thenReturn(List.of(membership(userId, memberOf), membership(userId, otherCompany)));
+        authorizer.invalidate(userId);
+
+        assertEquals(Set.of(memberOf, otherCompany), authorizer.companiesOf(userId));
+        verify(companyUserRepository, times(2)).findByUserId(userId);
+    }
+
+    private static CompanyUser membership(UUID userId, UUID companyId) {
+        User user = new User();
+        user.setId(userId);
+        Company company = new Company();
+        company.setId(companyId);
+        return new CompanyUser(user, company);
+    }
+}
@@ -3,7 +3,9 @@ package org.example.service;
 import org.example.entity.company.*;
 import org.example.entity.user.User;
 import org.example.exception.BusinessRuleException;
+import org.example.exception.ConcurrentUpdateException;
 import org.example.exception.EntityNotFoundException;
+import org.example.exception.VersionMismatchException;
 import org.example.repository.CompanyRepository;
 import org.example.repository.CompanyUserRepository;
 import org.example.repository.UserRepository;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Optional;
@@ -32,6 +35,12 @@ class CompanyServiceTest {
     @Mock
     private CompanyUserRepository companyUserRepository;
 
+    @Mock
+    private CompanyAuthorizer authorizer;
+
+    @Spy
+    private OptimisticRetryExecutor retryExecutor = new OptimisticRetryExecutor(3, 0, 0);
+
     @InjectMocks
     private CompanyService companyService;
 
@@ -69,6 +78,7 @@ class CompanyServiceTest {
 
         verify(companyRepository).create(any(Company.class));
         verify(companyUserRepository).create(any(CompanyUser.class));
+        verify(authorizer).invalidate(userId);
     }
 
     @Test
@@ -119,7 +129,7 @@ class CompanyServiceTest {
         company.setEmail("old@email.com");
 
         UpdateCompanyDTO dto = new UpdateCompanyDTO(
-            companyId, "new@email.com", null, "NewName", null, null, null
+            companyId, "new@email.com", null, "NewName", null, null, null, null
         );
 
         when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
@@ -132,11 +142,53 @@ class CompanyServiceTest {
         verify(companyRepository).update(company);
     }
 
+    @Test
+    @DisplayName("Should re-read and re-apply the update after a concurrent change")
+    void updateCompanyRetriesOnConflict() {
+        UUID companyId = UUID.randomUUID();
+        Company stale = new Company();
+        stale.setId(companyId);
+        Company fresh = new Company();
+        fresh.setId(companyId);
+
+        UpdateCompanyDTO dto = new UpdateCompanyDTO(companyId, null, null, "NewName", null, null, null, null);
+
+        when(companyRepository.findById(companyId)).thenReturn(Optional.of(stale), Optional.of(fresh));
+        // Company equality is by id, so stale and fresh are told apart by identity
+        when(companyRepository.update(argThat(company -> company == stale))).thenThrow(new ConcurrentUpdateException("stale"));
+        when(companyRepository.update(argThat(company -> company == fresh))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CompanyDTO result = companyService.update(dto);
+
+        assertEquals("NewName", result.name());
+        verify(companyRepository).update(argThat(company -> company == fresh));
+        assertEquals(new RetryMetrics(1, 1, 0), retryExecutor.getMetrics());
+    }
+
+    @Test
+    @DisplayName("Should reject an update of an older version without retrying it")
+    void updateCompanyRejectsStaleVersion() {
+        UUID companyId = UUID.randomUUID();
+        Company company = new Company();
+        company.setId(companyId);
+        company.setVersion(4L);
+
+        UpdateCompanyDTO dto = new UpdateCompanyDTO(companyId, null, null, "NewName", null, null, null, 3L);
+
+        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+
+        assertThrows(VersionMismatchException.class, () -> companyService.update(dto));
+
+        verify(companyRepository, times(1)).findById(companyId);
+        verify(companyRepository, never()).update(any());
+        assertEquals(new RetryMetrics(0, 0, 0), retryExecutor.getMetrics());
+    }
+
     @Test
     @DisplayName("Should throw EntityNotFoundException if company not found on update")
     void updateCompanyNotFound() {
         UUID companyId = UUID.randomUUID();
-        UpdateCompanyDTO dto = new UpdateCompanyDTO(companyId, "email@test.com", null, "Name", null, null, null);
+        UpdateCompanyDTO dto = new UpdateCompanyDTO(companyId, "email@test.com", null, "Name", null, null, null, null);
 
         when(companyRepository.findById(companyId)).thenReturn(Optional.empty());
 
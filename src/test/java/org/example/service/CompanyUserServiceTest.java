@@ -35,6 +35,9 @@ class CompanyUserServiceTest {
     @Mock
     private CompanyRepository companyRepository;
 
+    @Mock
+    private CompanyAuthorizer authorizer;
+
     @InjectMocks
     private CompanyUserService companyUserService;
 
@@ -61,7 +64,7 @@ class CompanyUserServiceTest {
     @Test
     @DisplayName("Should add user to company successfully")
     void addUserToCompanyByEmail_success() {
-        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+        when(companyRepository.getReference(companyId)).thenReturn(company);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(companyUserRepository.findById(new CompanyUserId(userId, companyId)))
             .thenReturn(Optional.empty());
@@ -72,33 +75,37 @@ class CompanyUserServiceTest {
             cu.getUser().equals(user) &&
                 cu.getCompany().equals(company)
         ));
+        verify(authorizer).invalidate(userId);
     }
 
     @Test
     @DisplayName("Should throw EntityNotFoundException if company not found")
     void addUserToCompanyByEmail_companyNotFound() {
-        when(companyRepository.findById(companyId)).thenReturn(Optional.empty());
+        when(companyRepository.getReference(companyId)).thenReturn(company);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(companyUserRepository.findById(new CompanyUserId(userId, companyId)))
+            .thenReturn(Optional.empty());
+        when(companyUserRepository.create(any(CompanyUser.class)))
+            .thenThrow(new EntityNotFoundException("Company", "referenced by fk_company_user_company"));
 
         assertThrows(EntityNotFoundException.class,
             () -> companyUserService.addUserToCompanyByEmail(companyId, email)
         );
 
-        verify(companyRepository).findById(companyId);
-        verifyNoInteractions(userRepository);
-        verifyNoInteractions(companyUserRepository);
+        verify(companyRepository, never()).findById(any());
     }
 
     @Test
     @DisplayName("Should throw EntityNotFoundException if user not found")
     void addUserToCompanyByEmail_userNotFound() {
-        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+        when(companyRepository.getReference(companyId)).thenReturn(company);
         when(userRepository.findByEmail(email)).thenReturn(Optional.empty());
 
         assertThrows(EntityNotFoundException.class,
             () -> companyUserService.addUserToCompanyByEmail(companyId, email)
         );
 
-        verify(companyRepository).findById(companyId);
+        verify(companyRepository).getReference(companyId);
         verify(userRepository).findByEmail(email);
         verifyNoInteractions(companyUserRepository);
     }
@@ -108,7 +115,7 @@ class CompanyUserServiceTest {
     void addUserToCompanyByEmail_userAlreadyAssociated() {
         CompanyUserId id = new CompanyUserId(userId, companyId);
 
-        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+        when(companyRepository.getReference(companyId)).thenReturn(company);
         when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
         when(companyUserRepository.findById(id)).thenReturn(Optional.of(new CompanyUser()));
 
@@ -131,6 +138,7 @@ class CompanyUserServiceTest {
         companyUserService.deleteUserFromCompany(companyId, userId);
 
         verify(companyUserRepository).delete(cu);
+        verify(authorizer).invalidate(userId);
     }
 
     @Test
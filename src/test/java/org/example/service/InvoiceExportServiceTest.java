@@ -0,0 +1,86 @@
+package org.example.service;
+
+import org.example.entity.invoice.InvoiceExportRow;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.exception.PersistenceException;
+import org.example.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class InvoiceExportServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private InvoiceRepository invoiceRepository;
+    private InvoiceExportService exportService;
+    private final UUID companyId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        exportService = new InvoiceExportService(invoiceRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesOneRowPerLineAndCountsInvoices() throws IOException {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        LocalDateTime created = LocalDateTime.of(2026, 1, 15, 10, 0);
+        LocalDateTime due = LocalDateTime.of(2026, 2, 14, 23, 59);
+
+        doAnswer(invocation -> {
+            Consumer<InvoiceExportRow> consumer = invocation.getArgument(2);
+            consumer.accept(new InvoiceExportRow(first, "INV-000001", InvoiceStatus.SENT, created, due,
+                "Ada Lovelace", "ada@example.com", new BigDecimal("250.00"), null, 1, new BigDecimal("50.00")));
+            consumer.accept(new InvoiceExportRow(first, "INV-000001", InvoiceStatus.SENT, created, due,
+                "Ada Lovelace", "ada@example.com", new BigDecimal("250.00"), null, 2, new BigDecimal("100.00")));
+            consumer.accept(new InvoiceExportRow(second, "INV-000002", InvoiceStatus.CREATED, created, null,
+                "Acme, Inc", "acme@example.com", BigDecimal.ZERO, null, null, null));
+            return 3L;
+        }).when(invoiceRepository).forEachExportRow(eq(companyId), anyInt(), any(Consumer.class));
+
+        Path target = dir.resolve("export.csv");
+        ExportResult result = exportService.exportCompanyInvoices(companyId, target);
+
+        assertEquals(3, result.rows());
+        assertEquals(2, result.invoices());
+        assertEquals(List.of(
+            String.join(",", InvoiceExportService.HEADER),
+            "INV-000001,SENT,2026-01-15T10:00,2026-02-14T23:59,Ada Lovelace,ada@example.com,250.00,,1,50.00",
+            "INV-000001,SENT,2026-01-15T10:00,2026-02-14T23:59,Ada Lovelace,ada@example.com,250.00,,2,100.00",
+            "INV-000002,CREATED,2026-01-15T10:00,,\"Acme, Inc\",acme@example.com,0,,,"
+        ), Files.readAllLines(target));
+        assertFalse(Files.exists(dir.resolve("export.csv.part")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedExportLeavesNoFileBehind() {
+        doThrow(new PersistenceException("connection lost"))
+            .when(invoiceRepository).forEachExportRow(eq(companyId), anyInt(), any(Consumer.class));
+
+        Path target = dir.resolve("export.csv");
+        assertThrows(PersistenceException.class, () -> exportService.exportCompanyInvoices(companyId, target));
+
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(dir.resolve("export.csv.part")));
+    }
+}
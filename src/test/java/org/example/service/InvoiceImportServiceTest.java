@@ -0,0 +1,174 @@
+package org.example.service;
+
+import org.example.entity.client.Client;
+import org.example.entity.company.Company;
+import org.example.entity.invoice.Invoice;
+import org.example.entity.invoice.InvoiceStatus;
+import org.example.exception.ValidationException;
+import org.example.repository.ClientRepository;
+import org.example.repository.CompanyRepository;
+import org.example.repository.InvoiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class InvoiceImportServiceTest {
+
+    private static final String HEADER = String.join(",", InvoiceExportService.HEADER);
+
+    @TempDir
+    Path dir;
+
+    private InvoiceRepository invoiceRepository;
+    private CompanyRepository companyRepository;
+    private ClientRepository clientRepository;
+    private InvoiceNumberAllocator numberAllocator;
+    private InvoiceStatisticsCache statisticsCache;
+    private InvoiceImportService importService;
+    private final List<List<Invoice>> insertedBatches = new ArrayList<>();
+
+    private final UUID companyId = UUID.randomUUID();
+    private final Company company = new Company();
+    private Client ada;
+    private Client grace;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        companyRepository = mock(CompanyRepository.class);
+        clientRepository = mock(ClientRepository.class);
+        numberAllocator = mock(InvoiceNumberAllocator.class);
+        statisticsCache = mock(InvoiceStatisticsCache.class);
+        importService = new InvoiceImportService(invoiceRepository, companyRepository, clientRepository,
+            numberAllocator, statisticsCache, 2);
+
+        company.setId(companyId);
+        ada = Client.builder().id(UUID.randomUUID()).company(company).email("ada@example.com").build();
+        grace = Client.builder().id(UUID.randomUUID()).company(company).email("Grace@Example.com").build();
+        when(companyRepository.findById(companyId)).thenReturn(Optional.of(company));
+        when(clientRepository.findByCompanyIdAndEmails(eq(companyId), anyCollection())).thenReturn(List.of(ada, grace));
+        when(invoiceRepository.findExistingNumbers(eq(companyId), anyCollection())).thenReturn(Set.of());
+        doAnswer(invocation -> {
+            List<Invoice> batch = List.copyOf((List<Invoice>) invocation.getArgument(0));
+            insertedBatches.add(batch);
+            return batch.size();
+        }).when(invoiceRepository).insertAggregates(anyList());
+    }
+
+    @Test
+    void groupsLinesIntoInvoicesAndInsertsThemInBatches() throws IOException {
+        Path file = write(
+            HEADER,
+            "INV-000001,SENT,2025-01-15T10:00,2025-02-14T23:59,Ada Lovelace,ada@example.com,250.00,,1,50.00",
+            "INV-000001,SENT,2025-01-15T10:00,2025-02-14T23:59,Ada Lovelace,ada@example.com,250.00,,2,100.00",
+            "INV-000007,PAID,2025-03-01T09:30,,Grace Hopper,grace@example.com,80.00,16.00,,",
+            "LEGACY-9,,,,Ada Lovelace,ADA@example.com,,,3,10"
+        );
+
+        InvoiceImportResult result = importService.importInvoices(companyId, file);
+
+        assertEquals(3, result.invoices());
+        assertEquals(3, result.lines());
+        assertEquals(0, result.rejected());
+        assertEquals(2, insertedBatches.size());
+
+        Invoice first = insertedBatches.get(0).get(0);
+        assertEquals("INV-000001", first.getNumber());
+        assertEquals(InvoiceStatus.SENT, first.getStatus());
+        assertEquals(LocalDateTime.of(2025, 1, 15, 10, 0), first.getCreatedAt());
+        assertEquals(2, first.getInvoiceItems().size());
+        assertEquals(0, new BigDecimal("250.00").compareTo(first.getAmount()));
+        assertSame(ada, first.getClient());
+
+        Invoice withoutLines = insertedBatches.get(0).get(1);
+        assertSame(grace, withoutLines.getClient());
+        assertEquals(new BigDecimal("80.00"), withoutLines.getAmount());
+        assertEquals(new BigDecimal("16.00"), withoutLines.getVatAmount());
+
+        Invoice legacy = insertedBatches.get(1).get(0);
+        assertEquals(InvoiceStatus.CREATED, legacy.getStatus());
+        assertEquals(0, new BigDecimal("30").compareTo(legacy.getAmount()));
+
+        verify(numberAllocator).reserveThrough(companyId, 7);
+        verify(statisticsCache).invalidate(companyId);
+    }
+
+    @Test
+    void rejectsInvalidInvoicesWithoutStoppingTheBatch() throws IOException {
+        when(invoiceRepository.findExistingNumbers(eq(companyId), anyCollection())).thenReturn(Set.of("INV-000002"));
+        Path file = write(
+            HEADER,
+            "INV-000002,SENT,,,,ada@example.com,,,1,10",
+            "INV-000003,SENT,,,,nobody@example.com,,,1,10",
+            "INV-000004,SENT,,,,ada@example.com,99.00,,1,10",
+            "INV-000005,DRAFT,,,,ada@example.com,,,1,10",
+            "INV-000006,SENT,,,,ada@example.com,,,1,",
+            "INV-000008,SENT,,,,ada@example.com,,,1,10"
+        );
+
+        InvoiceImportResult result = importService.importInvoices(companyId, file);
+
+        assertEquals(1, result.invoices());
+        assertEquals(5, result.rejected());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), result.errors().stream().map(ImportRowError::line).toList());
+        assertTrue(result.errors().get(0).message().contains("already in use"));
+        assertEquals("INV-000008", insertedBatches.getLast().getFirst().getNumber());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchIsRetriedOneInvoiceAtATime() throws IOException {
+        doAnswer(invocation -> {
+            List<Invoice> batch = (List<Invoice>) invocation.getArgument(0);
+            if (batch.size() > 1 || batch.getFirst().getNumber().equals("INV-000002")) {
+                throw new RuntimeException("Duplicate entry");
+            }
+            insertedBatches.add(List.copyOf(batch));
+            return 1;
+        }).when(invoiceRepository).insertAggregates(anyList());
+        Path file = write(
+            HEADER,
+            "INV-000001,SENT,,,,ada@example.com,,,1,10",
+            "INV-000002,SENT,,,,ada@example.com,,,1,10"
+        );
+
+        InvoiceImportResult result = importService.importInvoices(companyId, file);
+
+        assertEquals(1, result.invoices());
+        assertEquals(1, result.rejected());
+        assertEquals(new ImportRowError(3, "insert failed: Duplicate entry"), result.errors().getFirst());
+        verify(numberAllocator).reserveThrough(companyId, 1);
+    }
+
+    @Test
+    void requiresNumberAndClientEmailColumns() throws IOException {
+        Path file = write("invoice_number,quantity,unit_price", "INV-000001,1,10");
+
+        assertThrows(ValidationException.class, () -> importService.importInvoices(companyId, file));
+        verifyNoInteractions(numberAllocator);
+    }
+
+    private Path write(String... lines) throws IOException {
+        Path file = dir.resolve("invoices.csv");
+        Files.writeString(file, String.join("\n", lines) + "\n");
+        return file;
+    }
+}
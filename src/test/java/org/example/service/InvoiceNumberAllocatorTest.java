@@ -0,0 +1,121 @@
+package org.example.service;
+
+import org.example.repository.InvoiceNumberSequenceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InvoiceNumberAllocatorTest {
+
+    private InvoiceNumberSequenceRepository sequenceRepository;
+    private final UUID companyId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        sequenceRepository = mock(InvoiceNumberSequenceRepository.class);
+    }
+
+    @Test
+    void handsOutABlockBeforeLeasingTheNextOne() {
+        when(sequenceRepository.leaseBlock(companyId, 3)).thenReturn(1L, 101L);
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(sequenceRepository, 3);
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            numbers.add(allocator.nextNumber(companyId));
+        }
+
+        assertEquals(List.of("INV-000001", "INV-000002", "INV-000003", "INV-000101"), numbers);
+        verify(sequenceRepository, times(2)).leaseBlock(companyId, 3);
+    }
+
+    @Test
+    void companiesHaveSeparateBlocks() {
+        UUID otherCompanyId = UUID.randomUUID();
+        when(sequenceRepository.leaseBlock(companyId, 10)).thenReturn(1L);
+        when(sequenceRepository.leaseBlock(otherCompanyId, 10)).thenReturn(1L);
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(sequenceRepository, 10);
+
+        assertEquals("INV-000001", allocator.nextNumber(companyId));
+        assertEquals("INV-000001", allocator.nextNumber(otherCompanyId));
+        assertEquals("INV-000002", allocator.nextNumber(companyId));
+    }
+
+    @Test
+    void reservingImportedNumbersDropsACachedBlockThatOverlapsThem() {
+        when(sequenceRepository.leaseBlock(companyId, 10)).thenReturn(1L, 501L);
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(sequenceRepository, 10);
+        assertEquals("INV-000001", allocator.nextNumber(companyId));
+
+        allocator.reserveThrough(companyId, 500);
+
+        verify(sequenceRepository).advanceTo(companyId, 501);
+        assertEquals("INV-000501", allocator.nextNumber(companyId));
+    }
+
+    @Test
+    void reservingNumbersBelowTheCachedBlockKeepsIt() {
+        when(sequenceRepository.leaseBlock(companyId, 10)).thenReturn(101L);
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(sequenceRepository, 10);
+        assertEquals("INV-000101", allocator.nextNumber(companyId));
+
+        allocator.reserveThrough(companyId, 50);
+
+        assertEquals("INV-000102", allocator.nextNumber(companyId));
+        verify(sequenceRepository, times(1)).leaseBlock(companyId, 10);
+    }
+
+    @Test
+    void parsesOnlyNumbersInTheAllocatorFormat() {
+        assertEquals(42, InvoiceNumberAllocator.parse("INV-000042"));
+        assertEquals(1234567, InvoiceNumberAllocator.parse("INV-1234567"));
+        assertEquals(-1, InvoiceNumberAllocator.parse("2024-0042"));
+        assertEquals(-1, InvoiceNumberAllocator.parse("INV-42A"));
+    }
+
+    @Test
+    void concurrentCallersGetUniqueNumbersAndLeaseOnlyWhatTheyUse() throws Exception {
+        int blockSize = 50;
+        AtomicLong counter = new AtomicLong(1);
+        when(sequenceRepository.leaseBlock(companyId, blockSize))
+            .thenAnswer(invocation -> counter.getAndAdd(blockSize));
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(sequenceRepository, blockSize);
+
+        int threads = 8;
+        int perThread = 1_000;
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        seen.add(allocator.nextValue(companyId));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertEquals(threads * perThread, seen.size());
+        verify(sequenceRepository, times(threads * perThread / blockSize)).leaseBlock(companyId, blockSize);
+    }
+
+    @Test
+    void rejectsEmptyBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> new InvoiceNumberAllocator(sequenceRepository, 0));
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvoiceStatisticsCacheTest {
+
+    private final InvoiceStatisticsCache cache = new InvoiceStatisticsCache(Duration.ofMinutes(1), 100);
+    private final UUID companyId = UUID.randomUUID();
+
+    @Test
+    void loadsEachViewOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(companyId, "status", loads::incrementAndGet);
+        cache.get(companyId, "status", loads::incrementAndGet);
+        cache.get(companyId, "client", loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidationOnlyDropsThatCompany() {
+        UUID otherCompanyId = UUID.randomUUID();
+        cache.get(companyId, "status", () -> "old");
+        cache.get(otherCompanyId, "status", () -> "other");
+
+        cache.invalidate(companyId);
+
+        assertEquals("new", cache.get(companyId, "status", () -> "new"));
+        assertEquals("other", cache.get(otherCompanyId, "status", () -> "reloaded"));
+    }
+
+    @Test
+    void resultOfALoadOverlappingAWriteIsNotServedAfterIt() {
+        // the write commits and invalidates while the load is still running
+        String loaded = cache.get(companyId, "status", () -> {
+            cache.invalidate(companyId);
+            return "computed before the write";
+        });
+
+        assertEquals("computed before the write", loaded);
+        assertEquals("fresh", cache.get(companyId, "status", () -> "fresh"));
+    }
+}
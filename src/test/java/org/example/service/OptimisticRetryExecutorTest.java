@@ -0,0 +1,76 @@
+package org.example.service;
+
+import org.example.exception.BusinessRuleException;
+import org.example.exception.ConcurrentUpdateException;
+import org.example.repository.UnitOfWork;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OptimisticRetryExecutorTest {
+
+    private final OptimisticRetryExecutor executor = new OptimisticRetryExecutor(3, 0, 0);
+
+    @Test
+    void retriesUntilTheWorkCommits() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.inTransaction("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConcurrentUpdateException("stale");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(new RetryMetrics(2, 2, 0), executor.getMetrics());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        BusinessRuleException e = assertThrows(BusinessRuleException.class, () ->
+            executor.inTransaction("test", () -> {
+                attempts.incrementAndGet();
+                throw new ConcurrentUpdateException("stale");
+            }));
+
+        assertInstanceOf(ConcurrentUpdateException.class, e.getCause());
+        assertEquals(3, attempts.get());
+        assertEquals(new RetryMetrics(3, 2, 1), executor.getMetrics());
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () ->
+            executor.inTransaction("test", () -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("boom");
+            }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(new RetryMetrics(0, 0, 0), executor.getMetrics());
+    }
+
+    @Test
+    void joinsAnOuterUnitOfWorkWithoutRetrying() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ConcurrentUpdateException.class, () ->
+            UnitOfWork.inTransaction(() -> {
+                executor.inTransaction("test", () -> {
+                    attempts.incrementAndGet();
+                    throw new ConcurrentUpdateException("stale");
+                });
+            }));
+
+        assertEquals(1, attempts.get());
+        assertFalse(UnitOfWork.isActive());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.service;
+
+import org.example.repository.InvoiceRepository;
+import org.example.repository.OverdueChunk;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class OverdueInvoiceSchedulerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 1, 12, 0);
+
+    private InvoiceRepository invoiceRepository;
+    private InvoiceStatisticsCache statisticsCache;
+    private Clock clock;
+
+    @BeforeEach
+    void setUp() {
+        invoiceRepository = mock(InvoiceRepository.class);
+        statisticsCache = mock(InvoiceStatisticsCache.class);
+        clock = Clock.fixed(Instant.parse("2026-03-01T12:00:00Z"), ZoneOffset.UTC);
+    }
+
+    private OverdueInvoiceScheduler scheduler(int batchSize, int maxChunksPerRun) {
+        return new OverdueInvoiceScheduler(invoiceRepository, statisticsCache, clock, Duration.ZERO, batchSize, Duration.ZERO, maxChunksPerRun);
+    }
+
+    @Test
+    void walksTheCandidatesChunkByChunkWithTheCursor() {
+        LocalDateTime firstDue = NOW.minusDays(10);
+        UUID firstId = UUID.randomUUID();
+        when(invoiceRepository.markOverdueChunk(NOW, null, null, 2))
+            .thenReturn(new OverdueChunk(2, 2, firstDue, firstId));
+        when(invoiceRepository.markOverdueChunk(NOW, firstDue, firstId, 2))
+            .thenReturn(new OverdueChunk(1, 1, NOW.minusDays(1), UUID.randomUUID()));
+
+        OverdueRunResult result = scheduler(2, 10).runOnce();
+
+        assertEquals(3, result.marked());
+        assertEquals(2, result.chunks());
+        assertTrue(result.complete());
+        verify(statisticsCache).invalidateAll();
+    }
+
+    @Test
+    void resumesAnUnfinishedPassFromItsCursor() {
+        LocalDateTime due = NOW.minusDays(5);
+        UUID id = UUID.randomUUID();
+        when(invoiceRepository.markOverdueChunk(NOW, null, null, 2))
+            .thenReturn(new OverdueChunk(2, 2, due, id));
+        when(invoiceRepository.markOverdueChunk(NOW, due, id, 2))
+            .thenReturn(new OverdueChunk(0, 0, null, null));
+        OverdueInvoiceScheduler scheduler = scheduler(2, 1);
+
+        OverdueRunResult first = scheduler.runOnce();
+        OverdueRunResult second = scheduler.runOnce();
+
+        assertFalse(first.complete());
+        assertTrue(second.complete());
+        verify(invoiceRepository).markOverdueChunk(NOW, due, id, 2);
+    }
+
+    @Test
+    void startsANewPassAfterACompleteOne() {
+        when(invoiceRepository.markOverdueChunk(eq(NOW), isNull(), isNull(), eq(100)))
+            .thenReturn(new OverdueChunk(0, 0, null, null));
+        OverdueInvoiceScheduler scheduler = scheduler(100, 5);
+
+        scheduler.runOnce();
+        scheduler.runOnce();
+
+        verify(invoiceRepository, times(2)).markOverdueChunk(NOW, null, null, 100);
+        verifyNoInteractions(statisticsCache);
+    }
+
+    @Test
+    void reportsRowsPerSecond() {
+        OverdueRunResult result = new OverdueRunResult(500, 1, Duration.ofMillis(250), true);
+        assertEquals(2000.0, result.rowsPerSecond(), 0.001);
+    }
+}
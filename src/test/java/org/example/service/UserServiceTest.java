@@ -1,5 +1,6 @@
 package org.example.service;
 
+import org.example.auth.AuthSession;
 import org.example.entity.user.CreateUserDTO;
 import org.example.entity.user.UserDTO;
 import org.example.entity.user.User;
@@ -92,6 +93,19 @@ public class UserServiceTest {
         verify(userRepository, times(1)).delete(user);
     }
 
+    @Test
+    void testDeleteUserRevokesSessions() {
+        UUID userId = UUID.randomUUID();
+        User user = new User();
+        user.setId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        AuthSession session = userService.getSessionStore().create(UserDTO.builder().id(userId).build());
+
+        userService.deleteUser(userId);
+
+        assertTrue(userService.getSessionStore().resolve(session.token()).isEmpty());
+    }
+
     @Test
     void testDeleteUserNotFound() {
         UUID userId = UUID.randomUUID();
@@ -119,6 +133,14 @@ public class UserServiceTest {
         verify(userRepository, never()).create(any());
     }
 
+    @Test
+    void testIsValidEmail() {
+        assertTrue(UserService.isValidEmail("anna.svensson@mail.example.se"));
+        assertFalse(UserService.isValidEmail("anna@example"));
+        assertFalse(UserService.isValidEmail("anna@-example.com"));
+        assertFalse(UserService.isValidEmail(null));
+    }
+
     @Test
     void testRegisterUserWithInvalidPassword() {
         String email = "test@email.com";
@@ -0,0 +1,45 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvTest {
+
+    @Test
+    void writesPlainFieldsAsIs() throws IOException {
+        StringWriter out = new StringWriter();
+        Csv.writeRow(out, "INV-1", 3, null, "x");
+        assertEquals("INV-1,3,,x\n", out.toString());
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        StringWriter out = new StringWriter();
+        Csv.writeRow(out, "Acme, Inc", "say \"hi\"", "two\nlines");
+        assertEquals("\"Acme, Inc\",\"say \"\"hi\"\"\",\"two\nlines\"\n", out.toString());
+    }
+
+    @Test
+    void readsQuotedFieldsAcrossLines() throws IOException {
+        StringReader in = new StringReader("a,\"Acme, Inc\",\"say \"\"hi\"\"\"\r\n\"two\nlines\",,x\n");
+
+        assertEquals(List.of("a", "Acme, Inc", "say \"hi\""), Csv.readRow(in));
+        assertEquals(List.of("two\nlines", "", "x"), Csv.readRow(in));
+        assertNull(Csv.readRow(in));
+    }
+
+    @Test
+    void readsWhatWriteRowWrites() throws IOException {
+        StringWriter out = new StringWriter();
+        Csv.writeRow(out, "plain", "with,comma", "with \"quote\"", null, "multi\nline");
+
+        assertEquals(List.of("plain", "with,comma", "with \"quote\"", "", "multi\nline"),
+            Csv.readRow(new StringReader(out.toString())));
+    }
+}
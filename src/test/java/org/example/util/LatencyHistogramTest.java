@@ -0,0 +1,59 @@
+package org.example.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    void emptyHistogramReportsZeros() {
+        assertEquals(new LatencySnapshot(0, 0, 0, 0, 0, 0), new LatencyHistogram().snapshot());
+    }
+
+    @Test
+    void percentilesAreBucketUpperBoundsCappedAtTheMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(Duration.ofMillis(1));
+        }
+        histogram.record(Duration.ofMillis(50));
+        histogram.record(Duration.ofMillis(300));
+
+        LatencySnapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.count());
+        assertEquals(1.024, snapshot.p50Millis(), 1e-9);
+        assertEquals(1.024, snapshot.p95Millis(), 1e-9);
+        assertEquals(65.536, snapshot.p99Millis(), 1e-9);
+        assertEquals(300.0, snapshot.maxMillis(), 1e-9);
+        assertEquals(4.48, snapshot.meanMillis(), 1e-9);
+    }
+
+    @Test
+    void arbitraryPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentileMillis(0.999));
+
+        for (int i = 0; i < 999; i++) {
+            histogram.record(Duration.ofMillis(1));
+        }
+        histogram.record(Duration.ofMillis(40));
+
+        assertEquals(1.024, histogram.percentileMillis(0.999), 1e-9);
+        assertEquals(40.0, histogram.percentileMillis(1.0), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentileMillis(0));
+    }
+
+    @Test
+    void bucketsDoubleInWidth() {
+        assertEquals(0, LatencyHistogram.bucket(0));
+        assertEquals(0, LatencyHistogram.bucket(1));
+        assertEquals(1, LatencyHistogram.bucket(2));
+        assertEquals(2, LatencyHistogram.bucket(3));
+        assertEquals(10, LatencyHistogram.bucket(1_024));
+        assertEquals(11, LatencyHistogram.bucket(1_025));
+        assertEquals(39, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+}